@@ -0,0 +1,37 @@
+package org.bsc.langgraph4j.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once for each thread count, since JMH doesn't parameterize the number of threads.
+ * <p>
+ * The thread counts are given by the {@code threads} system property, {@code 1,4} by default.
+ * The arguments are the JMH command line options, e.g. a regular expression selecting the suites:
+ * <pre>
+ * java -Dthreads=1,8 -jar benchmarks.jar Checkpoint -p stateSize=1000
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main( String[] args ) throws Exception {
+        final CommandLineOptions options = new CommandLineOptions( args );
+        if( options.shouldHelp() ) {
+            options.showHelp();
+            return;
+        }
+        if( options.shouldList() ) {
+            new Runner( options ).list();
+            return;
+        }
+        for( String threads : System.getProperty( "threads", "1,4" ).split( "," ) ) {
+            new Runner( new OptionsBuilder()
+                    .parent( options )
+                    .threads( Integer.parseInt( threads.trim() ) )
+                    .build() ).run();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.bsc.langgraph4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the synthetic states of the benchmarks.
+ */
+final class BenchmarkStates {
+
+    private BenchmarkStates() {}
+
+    /**
+     * Returns a flat state of the given number of keys, {@code key0 ... keyN}, holding short strings.
+     */
+    static Map<String,Object> flat( int size ) {
+        final Map<String,Object> result = new HashMap<>( size * 2 );
+        for( int i = 0; i < size; ++i ) {
+            result.put( "key" + i, "value" + i );
+        }
+        return result;
+    }
+
+    /**
+     * Returns a state of the given number of keys, cycling over strings, numbers,
+     * lists of strings and maps holding a list.
+     */
+    static Map<String,Object> nested( int size ) {
+        final Map<String,Object> result = new HashMap<>( size * 2 );
+        for( int i = 0; i < size; ++i ) {
+            final Object value;
+            switch( i % 4 ) {
+                case 0: value = "value" + i; break;
+                case 1: value = i; break;
+                case 2: value = strings( "item", 10 ); break;
+                default:
+                    final Map<String,Object> map = new HashMap<>();
+                    map.put( "id", i );
+                    map.put( "name", "value" + i );
+                    map.put( "items", strings( "item", 10 ) );
+                    value = map;
+            }
+            result.put( "key" + i, value );
+        }
+        return result;
+    }
+
+    /**
+     * Returns a list of the given number of strings.
+     */
+    static List<String> strings( String prefix, int size ) {
+        final List<String> result = new ArrayList<>( size );
+        for( int i = 0; i < size; ++i ) {
+            result.add( prefix + i );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package org.bsc.langgraph4j.benchmarks;
+
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accesses to a {@link MemorySaver} shared by all the benchmark threads, holding checkpoints of {@code stateSize} keys.
+ * <p>
+ * With {@code shared} conversations all the threads access the checkpoints of the same conversation,
+ * otherwise each thread accesses its own. Puts replace the last checkpoint, so the saver doesn't grow.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckpointBenchmark {
+
+    /**
+     * The number of conversations created up front, since the saver doesn't support creating them concurrently.
+     */
+    private static final int CONVERSATIONS = 256;
+
+    @Param({ "10", "1000" })
+    int stateSize;
+
+    @Param({ "shared", "perThread" })
+    String conversations;
+
+    MemorySaver saver;
+    RunnableConfig[] configs;
+    Checkpoint[] checkpoints;
+    final AtomicInteger nextConversation = new AtomicInteger();
+
+    @Setup
+    public void setup() throws Exception {
+        saver = new MemorySaver();
+        configs = new RunnableConfig[CONVERSATIONS];
+        checkpoints = new Checkpoint[CONVERSATIONS];
+
+        final Map<String,Object> state = BenchmarkStates.flat( stateSize );
+        for( int i = 0; i < CONVERSATIONS; ++i ) {
+            checkpoints[i] = Checkpoint.builder()
+                    .nodeId( "agent" )
+                    .state( state )
+                    .nextNodeId( "tools" )
+                    .build();
+            configs[i] = saver.put( RunnableConfig.builder().threadId( "conversation" + i ).build(), checkpoints[i] );
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Conversation {
+        RunnableConfig config;
+        Checkpoint checkpoint;
+
+        @Setup
+        public void setup( CheckpointBenchmark benchmark ) {
+            final int index = "shared".equals( benchmark.conversations ) ?
+                    0 :
+                    benchmark.nextConversation.getAndIncrement() % CONVERSATIONS;
+            config = benchmark.configs[index];
+            checkpoint = benchmark.checkpoints[index];
+        }
+    }
+
+    @Benchmark
+    public RunnableConfig put( Conversation conversation ) throws Exception {
+        return saver.put( conversation.config, conversation.checkpoint );
+    }
+
+    @Benchmark
+    public Optional<Checkpoint> get( Conversation conversation ) {
+        return saver.get( conversation.config );
+    }
+
+    @Benchmark
+    public Collection<Checkpoint> list( Conversation conversation ) {
+        return saver.list( conversation.config );
+    }
+}
@@ -0,0 +1,80 @@
+package org.bsc.langgraph4j.benchmarks;
+
+import org.bsc.langgraph4j.CompiledGraph;
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.state.AgentState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+
+/**
+ * Runs of synthetic graphs made of {@code depth} nodes, each one updating a key of a state of {@code stateSize} keys.
+ * <p>
+ * The nodes of a {@code chain} are linked by plain edges, so the engine executes them as a single step;
+ * the nodes of a {@code branch} are linked by conditional edges, evaluated after each node.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphBenchmark {
+
+    @Param({ "1", "8", "32" })
+    int depth;
+
+    @Param({ "10", "1000" })
+    int stateSize;
+
+    @Param({ "chain", "branch" })
+    String shape;
+
+    CompiledGraph<AgentState> graph;
+    Map<String,Object> inputs;
+
+    @Setup
+    public void setup() throws Exception {
+        final StateGraph<AgentState> workflow = new StateGraph<>( AgentState::new );
+        for( int i = 0; i < depth; ++i ) {
+            final Map<String,Object> update = Collections.singletonMap( "key" + ( i % stateSize ), "node" + i );
+            workflow.addNode( node(i), node_async( state -> update ) );
+        }
+        workflow.addEdge( START, node(0) );
+        for( int i = 0; i < depth; ++i ) {
+            final String next = ( i + 1 < depth ) ? node( i + 1 ) : END;
+            if( "branch".equals( shape ) ) {
+                workflow.addConditionalEdges( node(i), edge_async( state -> "next" ), Collections.singletonMap( "next", next ) );
+            }
+            else {
+                workflow.addEdge( node(i), next );
+            }
+        }
+        graph = workflow.compile();
+        graph.setMaxIterations( depth + 1 );
+        inputs = BenchmarkStates.flat( stateSize );
+    }
+
+    private static String node( int index ) {
+        return "node" + index;
+    }
+
+    @Benchmark
+    public Optional<AgentState> invoke() throws Exception {
+        return graph.invoke( inputs );
+    }
+
+    @Benchmark
+    public void stream( Blackhole blackhole ) throws Exception {
+        graph.stream( inputs ).stream().forEach( blackhole::consume );
+    }
+}
@@ -0,0 +1,48 @@
+package org.bsc.langgraph4j.benchmarks;
+
+import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a state of {@code stateSize} keys holding strings, numbers, lists and nested maps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int stateSize;
+
+    StateSerializer serializer;
+    Map<String,Object> state;
+    byte[] bytes;
+
+    @Setup
+    public void setup() throws Exception {
+        serializer = StateSerializer.of();
+        state = BenchmarkStates.nested( stateSize );
+        bytes = serializer.writeObject( state );
+    }
+
+    @Benchmark
+    public Map<String,Object> cloneObject() throws Exception {
+        return serializer.cloneObject( state );
+    }
+
+    @Benchmark
+    public byte[] writeObject() throws Exception {
+        return serializer.writeObject( state );
+    }
+
+    @Benchmark
+    public Map<String,Object> readObject() throws Exception {
+        return serializer.readObject( bytes );
+    }
+}
@@ -0,0 +1,81 @@
+package org.bsc.langgraph4j.benchmarks;
+
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.AppenderChannel;
+import org.bsc.langgraph4j.state.Channel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates of a state of {@code stateSize} keys, whose {@code messages} appender channel holds {@code stateSize} values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StateBenchmark {
+
+    @Param({ "10", "1000", "10000" })
+    int stateSize;
+
+    Map<String, Channel<?>> channels;
+    Map<String,Object> state;
+    Map<String,Object> update;
+    Map<String,Object> append;
+
+    @Setup
+    public void setup() {
+        channels = Collections.singletonMap( "messages", AppenderChannel.<String>of( ArrayList::new ) );
+        state = initialState();
+
+        update = new HashMap<>();
+        for( int i = 0; i < 4; ++i ) {
+            update.put( "key" + ( i % stateSize ), "updated" + i );
+        }
+        append = Collections.singletonMap( "messages", "message" );
+    }
+
+    Map<String,Object> initialState() {
+        return AgentState.updateState( BenchmarkStates.flat( stateSize ),
+                Collections.singletonMap( "messages", AppenderChannel.appendAll( BenchmarkStates.strings( "message", stateSize ) ) ),
+                channels );
+    }
+
+    /**
+     * The state of a run appending messages: each append is made to the state returned by the previous one, as in
+     * a run, so that it extends the messages in place rather than copying them. It restarts at each iteration.
+     */
+    @State(Scope.Thread)
+    public static class Run {
+        Map<String,Object> state;
+
+        @Setup(Level.Iteration)
+        public void setup( StateBenchmark benchmark ) {
+            state = benchmark.initialState();
+        }
+    }
+
+    /**
+     * Overwrites a few keys.
+     */
+    @Benchmark
+    public Map<String,Object> updateState() {
+        return AgentState.updateState( state, update, channels );
+    }
+
+    /**
+     * Appends a value to the messages of the latest state of a run.
+     */
+    @Benchmark
+    public Map<String,Object> appendMessage( Run run ) {
+        run.state = AgentState.updateState( run.state, append, channels );
+        return run.state;
+    }
+}
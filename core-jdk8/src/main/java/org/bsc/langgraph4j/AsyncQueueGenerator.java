@@ -0,0 +1,209 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.async.AsyncGenerator;
+
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * An {@link AsyncGenerator} fed by a producer that is not bound to any thread.
+ * <p>
+ * Unlike {@link org.bsc.async.AsyncGeneratorQueue}, the producer is not a task that must run until the end:
+ * elements are pushed through {@link #emit(Object)} from whatever thread is completing the graph execution,
+ * and the generator is terminated explicitly by {@link #complete()} or {@link #fail(Throwable)}.
+ * <p>
+ * The pending elements are bounded by a capacity; when it is reached the {@link StreamOverflowPolicy}
+ * decides whether the producer waits or intermediate elements are discarded.
+ * Elements that aren't intermediate, errors and the end of the stream are always delivered.
+ * <p>
+ * The producers are serialized, so elements may be emitted concurrently, e.g. by parallel branches.
+ * <p>
+ * Once cancelled, the generator ends and discards any further element.
+ *
+ * @param <E> the type of the elements
+ */
+class AsyncQueueGenerator<E> implements CancellableAsyncGenerator<E> {
+
+    private static final class Entry<E> {
+        final Data<E> data;
+        final E element;
+        final boolean intermediate;
+
+        Entry( Data<E> data, boolean intermediate ) {
+            this( data, null, intermediate );
+        }
+
+        static <E> Entry<E> of( E element, boolean intermediate ) {
+            return new Entry<>( Data.of( CompletableFuture.completedFuture(element) ), element, intermediate );
+        }
+
+        private Entry( Data<E> data, E element, boolean intermediate ) {
+            this.data = data;
+            this.element = element;
+            this.intermediate = intermediate;
+        }
+    }
+
+    private final BlockingDeque<Entry<E>> queue;
+    private final StreamOverflowPolicy overflowPolicy;
+    private final Predicate<E> isIntermediate;
+    private final BinaryOperator<E> coalesce;
+    private final Object producers = new Object();
+    private final Entry<E> done = new Entry<>( Data.done(), false );
+    private final Runnable onCancel;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private volatile boolean isEnd = false;
+
+    /**
+     * Creates a bounded generator.
+     *
+     * @param capacity the maximum number of pending elements
+     * @param overflowPolicy the policy applied when the capacity is reached
+     * @param isIntermediate tells whether an element can be discarded by the overflow policy
+     */
+    AsyncQueueGenerator( int capacity, StreamOverflowPolicy overflowPolicy, Predicate<E> isIntermediate ) {
+        this( capacity, overflowPolicy, isIntermediate, () -> {} );
+    }
+
+    /**
+     * Creates a bounded generator.
+     *
+     * @param capacity the maximum number of pending elements
+     * @param overflowPolicy the policy applied when the capacity is reached
+     * @param isIntermediate tells whether an element can be discarded by the overflow policy
+     * @param onCancel invoked when the generator is cancelled
+     */
+    AsyncQueueGenerator( int capacity, StreamOverflowPolicy overflowPolicy, Predicate<E> isIntermediate, Runnable onCancel ) {
+        this( capacity, overflowPolicy, isIntermediate, (latest, element) -> element, onCancel );
+    }
+
+    /**
+     * Creates a bounded generator.
+     *
+     * @param capacity the maximum number of pending elements
+     * @param overflowPolicy the policy applied when the capacity is reached
+     * @param isIntermediate tells whether an element can be discarded by the overflow policy
+     * @param coalesce returns the element replacing the latest pending intermediate element and a new one,
+     *                 when the policy is {@link StreamOverflowPolicy#COALESCE_LATEST}
+     * @param onCancel invoked when the generator is cancelled
+     */
+    AsyncQueueGenerator( int capacity, StreamOverflowPolicy overflowPolicy, Predicate<E> isIntermediate, BinaryOperator<E> coalesce, Runnable onCancel ) {
+        this.queue = new LinkedBlockingDeque<>( capacity );
+        this.overflowPolicy = Objects.requireNonNull( overflowPolicy, "overflowPolicy cannot be null" );
+        this.isIntermediate = Objects.requireNonNull( isIntermediate, "isIntermediate cannot be null" );
+        this.coalesce = Objects.requireNonNull( coalesce, "coalesce cannot be null" );
+        this.onCancel = Objects.requireNonNull( onCancel, "onCancel cannot be null" );
+    }
+
+    @Override
+    public boolean cancel() {
+        if( isEnd || !cancelled.compareAndSet( false, true ) ) {
+            return false;
+        }
+        queue.clear();
+        // wake up a consumer waiting for the next element
+        queue.offerLast( done );
+        onCancel.run();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Pushes a new element to the consumer, applying the overflow policy if the generator is full.
+     *
+     * @param element the element
+     */
+    void emit( E element ) {
+        if( cancelled.get() ) {
+            return;
+        }
+        final Entry<E> entry = Entry.of( element, isIntermediate.test(element) );
+
+        synchronized( producers ) {
+            if( !entry.intermediate || overflowPolicy == StreamOverflowPolicy.BLOCK ) {
+                put( entry );
+                return;
+            }
+            if( queue.offerLast( entry ) ) {
+                return;
+            }
+            if( overflowPolicy == StreamOverflowPolicy.COALESCE_LATEST ) {
+                final Entry<E> last = queue.pollLast();
+                if( last != null && !last.intermediate ) {
+                    // the latest pending element cannot be replaced, put it back
+                    queue.offerLast( last );
+                    put( entry );
+                    return;
+                }
+                // room has been made either by us or by the consumer, and the other producers are waiting
+                queue.offerLast( ( last != null ) ? Entry.of( coalesce.apply( last.element, element ), true ) : entry );
+            }
+            // DROP_INTERMEDIATE: the element is discarded
+        }
+    }
+
+    /**
+     * Terminates the generator with an error.
+     *
+     * @param error the error
+     */
+    void fail( Throwable error ) {
+        CompletableFuture<E> result = new CompletableFuture<>();
+        result.completeExceptionally( error );
+        synchronized( producers ) {
+            put( new Entry<>( Data.of( result ), false ) );
+            put( done );
+        }
+    }
+
+    /**
+     * Terminates the generator.
+     */
+    void complete() {
+        synchronized( producers ) {
+            put( done );
+        }
+    }
+
+    private void put( Entry<E> entry ) {
+        if( cancelled.get() ) {
+            return;
+        }
+        try {
+            queue.putLast( entry );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while waiting for the stream consumer", e );
+        }
+    }
+
+    @Override
+    public Data<E> next() {
+        if( isEnd || cancelled.get() ) {
+            isEnd = true;
+            return done.data;
+        }
+        try {
+            Entry<E> result = queue.takeFirst();
+            if( result == done ) {
+                isEnd = true;
+            }
+            return result.data;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            isEnd = true;
+            CompletableFuture<E> result = new CompletableFuture<>();
+            result.completeExceptionally( e );
+            return Data.of( result );
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.bsc.langgraph4j;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+import org.bsc.langgraph4j.state.AgentState;
+
+/**
+ * Represents the outcome of a single run of a batch invocation.
+ *
+ * @param <State> the type of the state associated with the run
+ * @see CompiledGraph#batchStream(java.util.List, java.util.List, int)
+ */
+@Value(staticConstructor="of")
+@Accessors(fluent = true)
+public class BatchOutput<State extends AgentState> {
+
+    /**
+     * The position of the run input in the batch.
+     */
+    int index;
+
+    /**
+     * The final state of the run, null if the run failed.
+     */
+    State state;
+
+    /**
+     * The error raised by the run, null if the run succeeded.
+     */
+    Throwable error;
+
+    /**
+     * Checks if the run failed.
+     *
+     * @return true if the run failed, false otherwise
+     */
+    public boolean isFailed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,87 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.action.ChunkSink;
+import org.bsc.langgraph4j.cache.CachePolicy;
+import org.bsc.langgraph4j.cache.NodeCache;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_streaming;
+
+/**
+ * A node action that memoizes the partial states returned by the wrapped action.
+ * <p>
+ * Concurrent executions with the same key that miss the cache all execute the wrapped action.
+ * Failures are not cached.
+ *
+ * @param <State> the type of the state associated with the node
+ */
+class CachedNodeAction<State extends AgentState> implements AsyncNodeAction<State> {
+
+    private final AsyncNodeAction<State> action;
+    private final CachePolicy<State> policy;
+    final NodeCache<Object, Map<String,Object>> cache;
+
+    CachedNodeAction( AsyncNodeAction<State> action, CachePolicy<State> policy ) {
+        this.action = action;
+        this.policy = policy;
+        this.cache = policy.newCache();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> apply(State state) {
+        return apply( state, ChunkSink.NONE );
+    }
+
+    /**
+     * Cache hits emit no chunk.
+     */
+    @Override
+    public CompletableFuture<Map<String, Object>> apply(State state, ChunkSink sink) {
+        final Object key = key( state );
+
+        final Optional<Map<String,Object>> cached = cache.get( key );
+        if( cached.isPresent() ) {
+            return completedFuture( cached.get() );
+        }
+        return invoke( key, state, sink );
+    }
+
+    Object key( State state ) {
+        return policy.key( state );
+    }
+
+    /**
+     * Returns the action invoked on a cache miss, which caches the result of the wrapped action under the given key.
+     * A retried node looks the cache up once, before its first attempt, then retries this action.
+     *
+     * @param key the cache key of the input state
+     * @return the uncached action
+     */
+    AsyncNodeAction<State> missed( Object key ) {
+        return node_streaming( (state, sink) -> invoke( key, state, sink ) );
+    }
+
+    private CompletableFuture<Map<String, Object>> invoke( Object key, State state, ChunkSink sink ) {
+        final CompletableFuture<Map<String,Object>> future = action.apply( state, sink );
+        final CompletableFuture<Map<String,Object>> result = future.thenApply( partialState -> {
+            final Map<String,Object> value = unmodifiableMap( new HashMap<>( partialState ) );
+            cache.put( key, value );
+            return value;
+        });
+        // cancelling the node cancels the wrapped action
+        result.whenComplete( (v, ex) -> {
+            if( result.isCancelled() ) {
+                future.cancel( true );
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.async.AsyncGenerator;
+
+/**
+ * An {@link AsyncGenerator} bound to a graph run, that can be cancelled by the consumer.
+ * <p>
+ * Cancelling the generator cancels the run: no further node is executed nor checkpoint written,
+ * and the futures of the node actions in progress are cancelled.
+ *
+ * @param <E> the type of the elements
+ */
+public interface CancellableAsyncGenerator<E> extends AsyncGenerator<E>, AutoCloseable {
+
+    /**
+     * Cancels the generator and the underlying graph run. Pending elements are discarded.
+     *
+     * @return true if this call cancelled the generator, false if it was already cancelled or completed
+     */
+    boolean cancel();
+
+    /**
+     * Checks if the generator has been cancelled.
+     *
+     * @return true if the generator has been cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Cancels the generator.
+     *
+     * @see #cancel()
+     */
+    @Override
+    default void close() {
+        cancel();
+    }
+}
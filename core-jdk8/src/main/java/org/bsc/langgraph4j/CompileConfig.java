@@ -3,7 +3,16 @@ package org.bsc.langgraph4j;
 import lombok.Getter;
 import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class CompileConfig {
@@ -13,9 +22,114 @@ public class CompileConfig {
     private String[] interruptBefore = {};
     @Getter
     private String[] interruptAfter = {};
+    private Executor parallelExecutor = ForkJoinPool.commonPool();
+    private Executor runExecutor = DefaultExecutors.runExecutor();
+    private Executor nodeExecutor;
+    private Duration nodeTimeout;
+    private final Map<String, Duration> nodeTimeouts = new HashMap<>();
+    private final Map<String, Integer> loopMaxIterations = new HashMap<>();
+    private LimiterRegistry limiters;
+    private final Map<String, String> nodeLimiters = new HashMap<>();
+    private final List<GraphListener> listeners = new ArrayList<>();
+    private GraphListener listener;
+    @Getter
+    private boolean inlineSubgraphs = true;
+    @Getter
+    private int streamCapacity = Integer.MAX_VALUE;
+    @Getter
+    private StreamOverflowPolicy streamOverflowPolicy = StreamOverflowPolicy.BLOCK;
+    @Getter
+    private Durability durability = Durability.STEP;
 
     public Optional<BaseCheckpointSaver> checkpointSaver() { return Optional.ofNullable(checkpointSaver); }
 
+    /**
+     * The executor used to run the branches of a parallel edge concurrently.
+     *
+     * @return the parallel executor
+     */
+    public Executor parallelExecutor() { return parallelExecutor; }
+
+    /**
+     * The executor used to drive the graph runs started by {@code stream} and {@code invoke}.
+     * It defaults to the common fork join pool or, on JDK 21+, to an executor starting each task on a new virtual thread:
+     * a run moves to a new virtual thread each time it resumes on the run executor.
+     *
+     * @return the run executor
+     */
+    public Executor runExecutor() { return runExecutor; }
+
+    /**
+     * The executor used to invoke node actions.
+     * If not present, node actions are invoked by the thread driving the run.
+     *
+     * @return an Optional containing the node executor if present
+     */
+    public Optional<Executor> nodeExecutor() { return Optional.ofNullable(nodeExecutor); }
+
+    /**
+     * The maximum duration of the execution of the given node. When it expires the run fails and
+     * the future returned by the node action is cancelled.
+     *
+     * @param nodeId the node identifier
+     * @return an Optional containing the node timeout if present
+     */
+    public Optional<Duration> nodeTimeout( String nodeId ) {
+        return Optional.ofNullable( nodeTimeouts.getOrDefault( nodeId, nodeTimeout ) );
+    }
+
+    /**
+     * The maximum number of iterations of the loops with their own limit.
+     *
+     * @return the maximum number of executions of each loop node with a limit
+     * @see Builder#maxIterations(String, int)
+     */
+    public Map<String, Integer> loopMaxIterations() {
+        return Collections.unmodifiableMap( loopMaxIterations );
+    }
+
+    /**
+     * The registry of the limiters the nodes are bound to.
+     *
+     * @return an Optional containing the limiter registry if present
+     */
+    public Optional<LimiterRegistry> limiters() { return Optional.ofNullable(limiters); }
+
+    /**
+     * The names of the limiters the nodes are bound to.
+     *
+     * @return the limiter name of each bound node
+     * @see Builder#nodeLimiter(String, String)
+     */
+    public Map<String, String> nodeLimiters() {
+        return Collections.unmodifiableMap( nodeLimiters );
+    }
+
+    /**
+     * The listener of the lifecycle events of the runs, forwarding them to all the registered listeners.
+     *
+     * @return an Optional containing the listener if at least one listener is registered
+     */
+    public Optional<GraphListener> listener() { return Optional.ofNullable(listener); }
+
+    /**
+     * Tells whether this configuration sets options applied by the runs of the graph itself: checkpoint saver,
+     * interruptions, node timeouts, loop limits, node limiters or durability. Inlining a subgraph with such
+     * options would drop them, so it is executed as a nested run instead.
+     *
+     * @return true if the graph runs depend on this configuration
+     */
+    boolean hasRunOptions() {
+        return checkpointSaver != null
+                || interruptBefore.length > 0
+                || interruptAfter.length > 0
+                || nodeTimeout != null
+                || !nodeTimeouts.isEmpty()
+                || !loopMaxIterations.isEmpty()
+                || !nodeLimiters.isEmpty()
+                || durability != Durability.STEP;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -35,7 +149,136 @@ public class CompileConfig {
             this.config.interruptAfter = interruptAfter;
             return this;
         }
+        public Builder parallelExecutor(Executor parallelExecutor) {
+            this.config.parallelExecutor = Objects.requireNonNull(parallelExecutor, "parallelExecutor cannot be null");
+            return this;
+        }
+        public Builder runExecutor(Executor runExecutor) {
+            this.config.runExecutor = Objects.requireNonNull(runExecutor, "runExecutor cannot be null");
+            return this;
+        }
+        public Builder nodeExecutor(Executor nodeExecutor) {
+            this.config.nodeExecutor = nodeExecutor;
+            return this;
+        }
+        /**
+         * Sets the default maximum duration of the execution of a node.
+         *
+         * @param nodeTimeout the node timeout, null for no timeout
+         * @return this builder
+         */
+        public Builder nodeTimeout(Duration nodeTimeout) {
+            this.config.nodeTimeout = nodeTimeout;
+            return this;
+        }
+        /**
+         * Sets the maximum duration of the execution of the given node, overriding the default one.
+         *
+         * @param nodeId the node identifier
+         * @param nodeTimeout the node timeout
+         * @return this builder
+         */
+        public Builder nodeTimeout(String nodeId, Duration nodeTimeout) {
+            this.config.nodeTimeouts.put(Objects.requireNonNull(nodeId, "nodeId cannot be null"), nodeTimeout);
+            return this;
+        }
+        /**
+         * Limits the iterations of the loop containing the given node, counting an iteration each time the node is executed.
+         * The steps executed in that loop don't count for the global maximum number of iterations of the graph.
+         * <p>
+         * The loops of a graph are reported by {@link CompiledGraph#getAnalysis()}.
+         *
+         * @param nodeId the identifier of a node belonging to a loop, usually its head
+         * @param maxIterations the maximum number of executions of the node in a run
+         * @return this builder
+         */
+        public Builder maxIterations(String nodeId, int maxIterations) {
+            if( maxIterations <= 0 ) {
+                throw new IllegalArgumentException("maxIterations must be greater than 0");
+            }
+            this.config.loopMaxIterations.put(Objects.requireNonNull(nodeId, "nodeId cannot be null"), maxIterations);
+            return this;
+        }
+        /**
+         * Sets the registry of the limiters the nodes are bound to. The same registry should be shared
+         * by all the graphs calling the same providers.
+         *
+         * @param limiters the limiter registry
+         * @return this builder
+         */
+        public Builder limiters(LimiterRegistry limiters) {
+            this.config.limiters = limiters;
+            return this;
+        }
+        /**
+         * Binds the given node to a limiter of the registry: each attempt of the node waits for a permit of the limiter.
+         * The node timeout doesn't include that wait.
+         *
+         * @param nodeId the node identifier
+         * @param limiterName the name of a limiter registered in the {@link #limiters(LimiterRegistry)} registry
+         * @return this builder
+         */
+        public Builder nodeLimiter(String nodeId, String limiterName) {
+            this.config.nodeLimiters.put(Objects.requireNonNull(nodeId, "nodeId cannot be null"),
+                                         Objects.requireNonNull(limiterName, "limiterName cannot be null"));
+            return this;
+        }
+        /**
+         * Registers a listener of the lifecycle events of the runs. Listeners are invoked in registration order.
+         *
+         * @param listener the listener
+         * @return this builder
+         */
+        public Builder listener(GraphListener listener) {
+            this.config.listeners.add(Objects.requireNonNull(listener, "listener cannot be null"));
+            return this;
+        }
+        /**
+         * Sets whether subgraphs are inlined in the execution plan or executed as nested runs. Enabled by default.
+         *
+         * @param inlineSubgraphs true to inline subgraphs
+         * @return this builder
+         */
+        public Builder inlineSubgraphs(boolean inlineSubgraphs) {
+            this.config.inlineSubgraphs = inlineSubgraphs;
+            return this;
+        }
+        /**
+         * Sets the maximum number of outputs kept pending for the stream consumer. Unbounded by default.
+         *
+         * @param streamCapacity the stream capacity
+         * @return this builder
+         */
+        public Builder streamCapacity(int streamCapacity) {
+            if( streamCapacity <= 0 ) {
+                throw new IllegalArgumentException("streamCapacity must be greater than 0");
+            }
+            this.config.streamCapacity = streamCapacity;
+            return this;
+        }
+        /**
+         * Sets the policy applied when the stream capacity is reached. {@link StreamOverflowPolicy#BLOCK} by default.
+         *
+         * @param streamOverflowPolicy the overflow policy
+         * @return this builder
+         */
+        public Builder streamOverflowPolicy(StreamOverflowPolicy streamOverflowPolicy) {
+            this.config.streamOverflowPolicy = Objects.requireNonNull(streamOverflowPolicy, "streamOverflowPolicy cannot be null");
+            return this;
+        }
+        /**
+         * Sets which states of a run are stored by the checkpoint saver. {@link Durability#STEP} by default.
+         * Without checkpoint saver, linear chains of nodes are always fused.
+         *
+         * @param durability the checkpoint durability
+         * @return this builder
+         */
+        public Builder durability(Durability durability) {
+            this.config.durability = Objects.requireNonNull(durability, "durability cannot be null");
+            return this;
+        }
         public CompileConfig build() {
+            config.listener = config.listeners.isEmpty() ? null : new GraphListeners( config.listeners );
             return config;
         }
     }
@@ -1,25 +1,29 @@
 package org.bsc.langgraph4j;
 
 import lombok.Getter;
-import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import lombok.var;
 import org.bsc.async.AsyncGenerator;
-import org.bsc.async.AsyncGeneratorQueue;
 import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.action.ChunkSink;
+import org.bsc.langgraph4j.cache.CacheStats;
+import org.bsc.langgraph4j.cache.NodeCache;
 import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
 import org.bsc.langgraph4j.checkpoint.Checkpoint;
-import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.checkpoint.PendingWrite;
+import org.bsc.langgraph4j.jfr.FlightEvent;
+import org.bsc.langgraph4j.jfr.FlightEvents;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.StateSnapshot;
-import org.bsc.langgraph4j.utils.TryConsumer;
 
-import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.completedFuture;
@@ -40,26 +44,76 @@ public class CompiledGraph<State extends AgentState> {
     final Map<String, AsyncNodeAction<State>> nodes = new LinkedHashMap<>();
     @Getter
     final Map<String, EdgeValue<State>> edges = new LinkedHashMap<>();
+    /**
+     * The parallel edges: for each source node, the list of target nodes executed concurrently.
+     */
+    @Getter
+    final Map<String, List<String>> parallelEdges = new LinkedHashMap<>();
 
     private int maxIterations = 25;
-    private final CompileConfig compileConfig;
-    private final StateSerializer stateSerializer = StateSerializer.of();
+    final CompileConfig compileConfig;
+    private final ExecutionPlan<State> plan;
 
     /**
      * Constructs a CompiledGraph with the given StateGraph.
      *
      * @param stateGraph the StateGraph to be used in this CompiledGraph
+     * @param compileConfig the compile configuration
+     * @throws GraphStateException if the execution plan cannot be built
      */
-    protected CompiledGraph(StateGraph<State> stateGraph, CompileConfig compileConfig ) {
+    protected CompiledGraph(StateGraph<State> stateGraph, CompileConfig compileConfig ) throws GraphStateException {
         this.stateGraph = stateGraph;
         this.compileConfig = compileConfig;
         stateGraph.nodes.forEach(n ->
                 nodes.put(n.id(), n.action())
         );
 
-        stateGraph.edges.forEach(e ->
-                edges.put(e.sourceId(), e.target())
-        );
+        stateGraph.edges.forEach(e -> {
+            if( e.isParallel() ) {
+                parallelEdges.put(e.sourceId(), e.targets().stream().map(EdgeValue::id).collect(Collectors.toList()));
+            }
+            else {
+                edges.put(e.sourceId(), e.target());
+            }
+        });
+        this.plan = new ExecutionPlan<>( stateGraph, compileConfig );
+    }
+
+    /**
+     * Returns the control flow analysis of the graph performed at compile time.
+     *
+     * @return the graph analysis
+     */
+    public GraphAnalysis getAnalysis() {
+        return plan.analysis;
+    }
+
+    /**
+     * Returns the statistics of the cache of the given node.
+     *
+     * @param nodeId the node identifier
+     * @return an Optional containing the cache statistics if the node results are memoized, otherwise an empty Optional
+     */
+    public Optional<CacheStats> getCacheStats( String nodeId ) {
+        final int id = plan.indexOf( nodeId );
+        if( id < 0 ) {
+            return Optional.empty();
+        }
+        return plan.cache( id ).map( NodeCache::stats );
+    }
+
+    /**
+     * Returns the statistics of the attempts of the given node.
+     *
+     * @param nodeId the node identifier
+     * @return an Optional containing the attempts statistics if the node has a retry policy, otherwise an empty Optional
+     */
+    public Optional<RetryStats> getRetryStats( String nodeId ) {
+        final int id = plan.indexOf( nodeId );
+        if( id < 0 || plan.retries[id] == null ) {
+            return Optional.empty();
+        }
+        return Optional.of( plan.retries[id].stats() );
     }
 
     public Collection<StateSnapshot<State>> getStateHistory( RunnableConfig config ) {
@@ -91,7 +145,10 @@ public class CompiledGraph<State extends AgentState> {
             nextNodeId = nextNodeId( asNode, stateGraph.getStateFactory().apply(updatedCheckpoint.getState()) );
         }
         // update checkpoint in saver
+        final FlightEvent event = FlightEvents.checkpointPut( config.threadId().orElse(null), updatedCheckpoint.getNodeId() )
+                .size( updatedCheckpoint.getState().size() );
         var newConfig = saver.put( config, updatedCheckpoint );
+        event.commit();
 
         return RunnableConfig.builder(newConfig)
                                 .checkPointId( updatedCheckpoint.getId() )
@@ -120,24 +177,21 @@ public class CompiledGraph<State extends AgentState> {
         this.maxIterations = maxIterations;
     }
 
-    private String nextNodeId( EdgeValue<State> route , State state, String nodeId ) throws Exception {
+    private CompletableFuture<Integer> nextNodeId( ExecutionPlan.Route<State> route , State state, String nodeId ) {
 
         if( route == null ) {
-            throw StateGraph.RunnableErrors.missingEdge.exception(nodeId);
+            return failedFuture( StateGraph.RunnableErrors.missingEdge.exception(nodeId) );
         }
-        if( route.id() != null ) {
-            return route.id();
+        if( !route.isConditional() ) {
+            return completedFuture( route.target );
         }
-        if( route.value() != null ) {
-            var condition = route.value().action();
-            var newRoute = condition.apply(state).get();
-            var result = route.value().mappings().get(newRoute);
-            if( result == null ) {
-                throw StateGraph.RunnableErrors.missingNodeInEdgeMapping.exception(nodeId, newRoute);
+        return apply( route.condition, state ).thenCompose( newRoute -> {
+            var result = route.resolve(newRoute);
+            if( result == ExecutionPlan.NONE ) {
+                return failedFuture( StateGraph.RunnableErrors.missingNodeInEdgeMapping.exception(nodeId, newRoute) );
             }
-            return result;
-        }
-        throw StateGraph.RunnableErrors.executionError.exception( format("invalid edge value for nodeId: [%s] !", nodeId) );
+            return completedFuture( result );
+        });
     }
 
     /**
@@ -145,39 +199,72 @@ public class CompiledGraph<State extends AgentState> {
      *
      * @param nodeId the current node ID
      * @param state the current state
-     * @return the next node ID
-     * @throws Exception if there is an error determining the next node ID
+     * @return a CompletableFuture completed with the next node ID
      */
-    private String nextNodeId(String nodeId, State state) throws Exception {
-        return nextNodeId(edges.get(nodeId), state, nodeId);
+    private CompletableFuture<Integer> nextNodeId(int nodeId, State state) {
+        return nextNodeId(plan.routes[nodeId], state, plan.nodeIds[nodeId]);
+    }
 
+    private String nextNodeId(String nodeId, State state) throws Exception {
+        var id = plan.indexOf(nodeId);
+        if( id < 0 ) {
+            throw StateGraph.RunnableErrors.missingNode.exception(nodeId);
+        }
+        return plan.nodeId( nextNodeId(id, state).get() );
     }
 
-    private String getEntryPoint( State state ) throws Exception {
-        return nextNodeId(stateGraph.getEntryPoint(), state, "entryPoint");
+    private CompletableFuture<Integer> getEntryPoint( State state ) {
+        return nextNodeId(plan.entryPoint, state, "entryPoint");
     }
 
-    private boolean shouldInterruptBefore(@NonNull String nodeId, String startNodeId ) {
-        if( nodeId.equals(startNodeId)) { // FIX RESUME ERROR
+    private boolean shouldInterruptBefore( int nodeId, int startNodeId ) {
+        if( nodeId == startNodeId ) { // FIX RESUME ERROR
             return false;
         }
-        return Arrays.asList(compileConfig.getInterruptBefore()).contains(nodeId);
+        return nodeId >= 0 && plan.interruptBefore.get(nodeId);
     }
 
-    private boolean shouldInterruptAfter( String nodeId ) {
-        return Arrays.asList(compileConfig.getInterruptAfter()).contains(nodeId);
+    private boolean shouldInterruptAfter( int nodeId ) {
+        return nodeId >= 0 && plan.interruptAfter.get(nodeId);
     }
 
-    private void addCheckpoint( RunnableConfig config, String nodeId, State state, String nextNodeId ) throws Exception {
+    private CompletableFuture<Checkpoint> addCheckpoint( RunnableConfig config, String nodeId, State state, String nextNodeId ) {
         if( compileConfig.checkpointSaver().isPresent() ) {
             Checkpoint cp =  Checkpoint.builder()
                                 .nodeId( nodeId )
                                 .state( state.data() )
                                 .nextNodeId( nextNodeId )
                                 .build();
-            compileConfig.checkpointSaver().get().put( config, cp );
+            final FlightEvent event = FlightEvents.checkpointPut( config.threadId().orElse(null), nodeId ).size( cp.getState().size() );
+            final CompletableFuture<RunnableConfig> result = compileConfig.checkpointSaver().get().putAsync( config, cp );
+            if( event != FlightEvent.DISABLED ) {
+                result.whenComplete( (c, ex) -> event.failure( ( ex != null ) ? unwrap(ex) : null ).commit() );
+            }
+            return result.thenApply( c -> cp );
         }
+        return completedFuture(null);
+    }
+
+    /**
+     * Invokes an asynchronous action turning any exception raised by the invocation itself into a failed future.
+     */
+    private static <T,R> CompletableFuture<R> apply( Function<T,CompletableFuture<R>> action, T input ) {
+        try {
+            return action.apply( input );
+        }
+        catch( Throwable ex ) {
+            return failedFuture( ex );
+        }
+    }
+
+    private static <T> CompletableFuture<T> failedFuture( Throwable ex ) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally( ex );
+        return result;
+    }
 
+    private static Throwable unwrap( Throwable ex ) {
+        return ( ex instanceof CompletionException && ex.getCause() != null ) ? ex.getCause() : ex;
     }
 
     Map<String,Object> getInitialStateFromSchema() {
@@ -196,90 +283,854 @@ public class CompiledGraph<State extends AgentState> {
                 .orElseGet( () -> AgentState.updateState(getInitialStateFromSchema(), inputs, stateGraph.getChannels() ));
     }
 
-    State cloneState( Map<String,Object> data ) throws IOException, ClassNotFoundException, InstantiationException, IllegalAccessException {
+    /**
+     * Creates a new state instance over the given data.
+     * No deep copy is performed: state data is never mutated by the engine (see {@link AgentState#updateState(Map, Map, Map)})
+     * so node inputs, outputs and checkpoints can safely share the unchanged values.
+     *
+     * @param data the state data
+     * @return a new state instance
+     */
+    State cloneState( Map<String,Object> data ) {
+        return stateGraph.getStateFactory().apply(data);
+    }
 
-        Map<String,Object> newData = stateSerializer.cloneObject(data);
+    /**
+     * A single graph run.
+     * <p>
+     * The run is a chain of {@link CompletableFuture}s: each step (node action, edge condition, checkpoint)
+     * continues on the thread that completes the previous one, so no thread is blocked while an asynchronous
+     * action is pending. Steps that complete synchronously are executed in a loop (trampoline) rather than
+     * by nesting callbacks, so that long runs don't grow the stack.
+     * <p>
+     * Node outputs are produced only if somebody observes them, otherwise the run only tracks the current state.
+     * <p>
+     * Once cancelled, the run stops at the next step and the futures of the node actions in progress are cancelled.
+     */
+    private class Execution {
+        final RunnableConfig config;
+        final Consumer<NodeOutput<State>> yieldData;
+        final RunCancellation cancellation;
+        final CompletableFuture<State> completion = new CompletableFuture<>();
+
+        State currentState;
+        int startNodeId;
+        int currentNodeId;
+        int iteration = 0;
+        int nodeOutputs = 0;
+        int steps = 0;
+        int[] loopIterations;
+        /**
+         * Whether linear chains of nodes are executed as a single step.
+         */
+        final boolean fusion;
+        /**
+         * The listener of the run events, null if none is registered so that no event is produced.
+         */
+        final GraphListener listener;
+        /**
+         * The thread of the run configuration, tagging the flight recorder events.
+         */
+        final String threadId;
+        /**
+         * The id of the last checkpoint of the run, and the number of node executions since it.
+         */
+        String checkpointId;
+        int writeSequence;
+        /**
+         * The pending writes recorded by a crashed run, by idempotency key, when resuming it.
+         */
+        Map<String,Map<String,Object>> replay;
+
+        Execution( State initialState, int startNodeId, RunnableConfig config, Consumer<NodeOutput<State>> yieldData, RunCancellation cancellation ) {
+            this.currentState = initialState;
+            this.startNodeId = startNodeId;
+            this.currentNodeId = startNodeId;
+            this.config = config;
+            this.yieldData = yieldData;
+            this.cancellation = cancellation;
+            this.fusion = yieldData == null &&
+                    ( !compileConfig.checkpointSaver().isPresent() || compileConfig.getDurability() != Durability.STEP );
+            this.listener = compileConfig.listener().orElse( null );
+            this.threadId = config.threadId().orElse( null );
+
+            if( listener != null ) {
+                final long startedAt = System.nanoTime();
+                completion.whenComplete( (state, ex) ->
+                        listener.onRunEnd( config, System.nanoTime() - startedAt, steps, ( ex != null ) ? unwrap(ex) : null ) );
+            }
 
-        return stateGraph.getStateFactory().apply(newData);
-    }
+            config.runTimeout().ifPresent( timeout -> {
+                final ScheduledFuture<?> timer = Deadlines.schedule( () ->
+                        cancellation.cancel( StateGraph.RunnableErrors.runTimeout.exception( String.valueOf(timeout) ) ), timeout );
+                completion.whenComplete( (state, ex) -> timer.cancel( false ) );
+            });
+        }
 
-    private void streamData( State initialState,
-                             String startNodeId,
-                             RunnableConfig config,
-                             Consumer<NodeOutput<State>> yieldData) throws Exception {
+        /**
+         * Starts the execution from the entry point of the graph.
+         *
+         * @return a CompletableFuture completed with the last state when the execution ends
+         */
+        CompletableFuture<State> start() {
+            log.trace( "START" );
+            if( listener != null ) {
+                listener.onRunStart( config, START );
+            }
 
-                var currentState = initialState;
+            yieldOutput( START, currentState );
 
-                var currentNodeId = startNodeId;
+            final long edgeStartedAt = ( listener != null ) ? System.nanoTime() : 0L;
+            final FlightEvent edge = FlightEvents.edgeEvaluation( threadId, START );
+            getEntryPoint( currentState ).thenCompose( entryPoint -> {
+                startNodeId = currentNodeId = entryPoint;
+                edge.target( plan.nodeId(entryPoint) ).commit();
+                if( listener != null ) {
+                    listener.onEdge( config, START, plan.nodeId(entryPoint), plan.entryPoint.isConditional(), System.nanoTime() - edgeStartedAt );
+                }
 
-                Map<String, Object> partialState;
+                if( shouldInterruptBefore( startNodeId, ExecutionPlan.NONE ) ) {
+                    interrupted( startNodeId, true );
+                    return completedFuture(false);
+                }
 
-                int iteration = 0;
+                return checkpoint( START, plan.nodeId(startNodeId) )
+                        .thenApply( v -> !shouldInterruptAfter( startNodeId ) );
+            })
+            .whenComplete( this::proceed );
 
-                while( !Objects.equals(currentNodeId, END) ) {
+            return completion;
+        }
 
-                    log.trace( "NEXT NODE: {}", currentNodeId);
-                    var action = nodes.get(currentNodeId);
+        /**
+         * Resumes the execution from the start node. The node executions recorded after the checkpoint
+         * by the pending writes aren't executed again.
+         *
+         * @param checkpoint the checkpoint the execution resumes from
+         * @return a CompletableFuture completed with the last state when the execution ends
+         */
+        CompletableFuture<State> resume( Checkpoint checkpoint ) {
+            log.trace( "RESUME FROM {}", plan.nodeId(startNodeId) );
+            if( listener != null ) {
+                listener.onRunStart( config, plan.nodeId(startNodeId) );
+            }
+            checkpointId = checkpoint.getId();
+            final Collection<PendingWrite> writes = compileConfig.checkpointSaver()
+                    .map( saver -> saver.getWrites( config, checkpointId ) )
+                    .orElse( Collections.emptyList() );
+            if( !writes.isEmpty() ) {
+                replay = new HashMap<>( writes.size() * 2 );
+                writes.forEach( write -> replay.put( write.getKey(), write.getValues() ) );
+            }
+            run();
+            return completion;
+        }
 
-                    if (action == null)
-                        throw StateGraph.RunnableErrors.missingNode.exception(currentNodeId);
+        private void proceed( Boolean hasNext, Throwable ex ) {
+            if( cancellation.isCancelled() ) {
+                completion.completeExceptionally( cancellation.reason() );
+            }
+            else if( ex != null ) {
+                completion.completeExceptionally( unwrap(ex) );
+            }
+            else if( hasNext ) {
+                run();
+            }
+            else {
+                log.trace( "STOP");
+                completion.complete( currentState );
+            }
+        }
 
-                    if ( shouldInterruptBefore( currentNodeId, startNodeId  )) {
-                        log.trace("interrupt before node {}", currentNodeId);
-                        addCheckpoint( config, currentNodeId, cloneState(currentState.data()), currentNodeId );
+        private void run() {
+            try {
+                CompletableFuture<Boolean> next;
+                while( (next = step()).isDone() && !next.isCompletedExceptionally() ) {
+                    if( !next.getNow(false) ) {
+                        proceed( false, null );
                         return;
                     }
+                }
+                next.whenComplete( this::proceed );
+            }
+            catch( Throwable ex ) {
+                proceed( null, ex );
+            }
+        }
 
-                    partialState = action.apply( cloneState(currentState.data())).get();
+        private void yieldOutput( String nodeId, State state ) {
+            if( yieldData != null ) {
+                yieldData.accept( NodeOutput.of( nodeId, cloneState(state.data()) ) );
+            }
+        }
 
-                    currentState = stateGraph.getStateFactory().apply(AgentState.updateState(currentState, partialState, stateGraph.getChannels()));
+        /**
+         * Produces the output of a node, according to the stream mode.
+         *
+         * @param nodeId the node identifier
+         * @param partialState the partial state returned by the node
+         * @param state the state updated with the partial state
+         */
+        private void yieldOutput( String nodeId, Map<String,Object> partialState, State state ) {
+            if( yieldData == null ) {
+                return;
+            }
+            final int snapshotInterval = config.snapshotInterval();
+            if( config.streamMode() == StreamMode.UPDATES && ( snapshotInterval == 0 || ++nodeOutputs % snapshotInterval != 0 ) ) {
+                final Map<String,Object> update = AgentState.updateState( Collections.emptyMap(), partialState, stateGraph.getChannels() );
+                yieldData.accept( UpdateOutput.of( nodeId, stateGraph.getStateFactory().apply( update ) ) );
+                return;
+            }
+            yieldOutput( nodeId, state );
+        }
 
-                    yieldData.accept( NodeOutput.of(currentNodeId, cloneState(currentState.data())) );
+        private void yieldEnd() {
+            yieldOutput( END, currentState );
+        }
+
+        /**
+         * Forwards the chunks emitted by a node to the consumer of the node outputs, until the node completes.
+         * <p>
+         * The chunks of a retried node are numbered by attempt: once an attempt has failed, the chunks it still emits
+         * are discarded, but those it emitted before failing have already been forwarded.
+         */
+        private class NodeChunkSink implements ChunkSink {
+            final String nodeId;
+            final State input;
+            // the current attempt, 0 once the node has completed
+            volatile int attempt = 1;
+
+            NodeChunkSink( String nodeId, State input ) {
+                this.nodeId = nodeId;
+                this.input = input;
+            }
 
-                    if ( Objects.equals(currentNodeId, stateGraph.getFinishPoint()) ) {
-                        addCheckpoint( config, currentNodeId, cloneState(currentState.data()), stateGraph.getFinishPoint() );
-                        break;
+            @Override
+            public void emit( String chunk ) {
+                emit( 1, chunk );
+            }
+
+            private void emit( int attempt, String chunk ) {
+                if( this.attempt == attempt ) {
+                    yieldData.accept( StreamingOutput.of( nodeId, chunk, input, attempt ) );
+                }
+            }
+
+            /**
+             * Returns the sink of the chunks of the given attempt.
+             */
+            ChunkSink attempt( int attempt ) {
+                return chunk -> emit( attempt, chunk );
+            }
+
+            /**
+             * Discards the chunks of the previous attempts.
+             */
+            void retry( int attempt ) {
+                this.attempt = attempt;
+            }
+
+            void close() {
+                attempt = 0;
+            }
+        }
+
+        /**
+         * Executes the current node and moves to the next one.
+         *
+         * @return a CompletableFuture completed with true if the execution must go on, false otherwise
+         */
+        private CompletableFuture<Boolean> step() {
+            if( cancellation.isCancelled() ) {
+                return failedFuture( cancellation.reason() );
+            }
+            if( currentNodeId == ExecutionPlan.END_ID ) {
+                yieldEnd();
+                return completedFuture(false);
+            }
+
+            final int nodeId = currentNodeId;
+            final String nodeName = plan.nodeIds[nodeId];
+
+            log.trace( "NEXT NODE: {}", nodeName);
+
+            if ( shouldInterruptBefore( nodeId, startNodeId  )) {
+                log.trace("interrupt before node {}", nodeName);
+                interrupted( nodeId, true );
+                return checkpoint( nodeName, nodeName ).thenApply( v -> false );
+            }
+
+            return executeChain( nodeId, cloneState(currentState.data()) ).thenCompose( this::moveOn );
+        }
+
+        /**
+         * Executes the given node, then the nodes fused with it, updating the current state.
+         *
+         * @param nodeId the node id
+         * @param input the state given to the node
+         * @return a CompletableFuture completed with the id of the last executed node
+         */
+        private CompletableFuture<Integer> executeChain( int nodeId, State input ) {
+            int id = nodeId;
+            CompletableFuture<State> result = executeStep( id, input );
+
+            // fused nodes that complete synchronously are executed in a loop
+            while( result.isDone() && !result.isCompletedExceptionally() ) {
+                currentState = result.join();
+                final int next = fusedNodeId( id );
+                if( next == ExecutionPlan.NONE ) {
+                    return completedFuture( id );
+                }
+                id = next;
+                // the state has just been built and nobody else sees it, so it isn't cloned
+                result = executeStep( id, currentState );
+            }
+            final int lastNodeId = id;
+            return result.thenCompose( newState -> {
+                currentState = newState;
+                final int next = fusedNodeId( lastNodeId );
+                return ( next == ExecutionPlan.NONE ) ? completedFuture( lastNodeId ) : executeChain( next, newState );
+            });
+        }
+
+        /**
+         * Returns the node to execute in the same step after the given one.
+         *
+         * @param nodeId the node id
+         * @return the fused node id, or {@link ExecutionPlan#NONE} if the step ends after the given node
+         */
+        private int fusedNodeId( int nodeId ) {
+            if( !fusion || cancellation.isCancelled() ) {
+                return ExecutionPlan.NONE;
+            }
+            final int next = plan.fusedNext[nodeId];
+            if( next == ExecutionPlan.NONE || iteration >= maxIterations ) {
+                return ExecutionPlan.NONE;
+            }
+            ++iteration;
+            log.trace( "FUSED NODE: {}", plan.nodeIds[next] );
+            if( listener != null ) {
+                listener.onEdge( config, plan.nodeIds[nodeId], plan.nodeIds[next], false, 0L );
+            }
+            return next;
+        }
+
+        /**
+         * Executes a node, the branches of a parallel node or the invocations of a send node, and merges the result into the current state.
+         *
+         * @param nodeId the node id
+         * @param input the state given to the node, ignored by parallel and send nodes
+         * @return a CompletableFuture completed with the new state
+         */
+        private CompletableFuture<State> executeStep( int nodeId, State input ) {
+            ++steps;
+            if( plan.isParallel( nodeId ) ) {
+                return executeParallel( plan.branches[nodeId] );
+            }
+            if( plan.isSend( nodeId ) ) {
+                return executeSend( plan.sends[nodeId] );
+            }
+            return executeNode( nodeId, input ).thenApply( partialState -> {
+                State newState = stateGraph.getStateFactory().apply(AgentState.updateState(currentState, partialState, stateGraph.getChannels()));
+                yieldOutput( plan.nodeIds[nodeId], partialState, newState );
+                return newState;
+            });
+        }
+
+        /**
+         * Completes the step of the given node, once the current state has been updated:
+         * stores a checkpoint and moves to the next node.
+         *
+         * @param nodeId the id of the last node executed by the step
+         * @return a CompletableFuture completed with true if the execution must go on, false otherwise
+         */
+        private CompletableFuture<Boolean> moveOn( int nodeId ) {
+            final String nodeName = plan.nodeIds[nodeId];
+
+            if ( nodeId == plan.finishPoint ) {
+                return checkpoint( nodeName, stateGraph.getFinishPoint() )
+                        .thenApply( v -> {
+                            yieldEnd();
+                            return false;
+                        });
+            }
+
+            final long edgeStartedAt = ( listener != null ) ? System.nanoTime() : 0L;
+            final FlightEvent edge = FlightEvents.edgeEvaluation( threadId, nodeName );
+            return nextNodeId( nodeId, currentState ).thenCompose( nextNodeId -> {
+                edge.target( plan.nodeId(nextNodeId) ).commit();
+                if( listener != null ) {
+                    listener.onEdge( config, nodeName, plan.nodeId(nextNodeId), plan.routes[nodeId].isConditional(), System.nanoTime() - edgeStartedAt );
+                }
+                return ( isDurable( nodeId, nextNodeId ) ? checkpoint( nodeName, plan.nodeId(nextNodeId) ) : completedFuture( (Void)null ) )
+                    .thenApply( v -> {
+                        if ( shouldInterruptAfter( nodeId ) ) {
+                            log.trace( "interrupt after node {}", nodeName);
+                            interrupted( nodeId, false );
+                            return false;
+                        }
+
+                        currentNodeId = nextNodeId;
+
+                        if ( currentNodeId == ExecutionPlan.END_ID ) {
+                            yieldEnd();
+                            return false;
+                        }
+
+                        final int loopMaxIterations = plan.loopMaxIterations[nodeId];
+                        if( loopMaxIterations > 0 ) {
+                            if( loopIterations == null ) {
+                                loopIterations = new int[plan.nodeIds.length];
+                            }
+                            if( ++loopIterations[nodeId] >= loopMaxIterations ) {
+                                log.warn( "Maximum number of iterations ({}) of the loop of node {} reached!", loopMaxIterations, nodeName );
+                                if( listener != null ) {
+                                    listener.onMaxIterations( config, nodeName, loopMaxIterations );
+                                }
+                                yieldEnd();
+                                return false;
+                            }
+                        }
+                        else if( !plan.limitedLoops.get( nodeId ) && ++iteration > maxIterations ) {
+                            log.warn( "Maximum number of iterations ({}) reached!", maxIterations);
+                            if( listener != null ) {
+                                listener.onMaxIterations( config, nodeName, maxIterations );
+                            }
+                            yieldEnd();
+                            return false;
+                        }
+                        return true;
+                    });
+            });
+        }
+
+        /**
+         * Checks if a checkpoint must be stored after the given node, according to the durability.
+         */
+        private boolean isDurable( int nodeId, int nextNodeId ) {
+            return compileConfig.getDurability() != Durability.EXIT ||
+                    nextNodeId == ExecutionPlan.END_ID ||
+                    shouldInterruptAfter( nodeId );
+        }
+
+        /**
+         * Stores a checkpoint of the current state, unless the run has been cancelled.
+         */
+        private CompletableFuture<Void> checkpoint( String nodeId, String nextNodeId ) {
+            if( cancellation.isCancelled() ) {
+                return failedFuture( cancellation.reason() );
+            }
+            if( !compileConfig.checkpointSaver().isPresent() ) {
+                return completedFuture(null);
+            }
+            final long startedAt = ( listener != null ) ? System.nanoTime() : 0L;
+            return addCheckpoint( config, nodeId, cloneState(currentState.data()), nextNodeId ).thenAccept( checkpoint -> {
+                checkpointId = checkpoint.getId();
+                writeSequence = 0;
+                if( listener != null ) {
+                    listener.onCheckpoint( config, checkpoint, System.nanoTime() - startedAt );
+                }
+            });
+        }
+
+        /**
+         * Creates a new state instance over the given data, recording a flight event tagged with the run thread.
+         */
+        private State cloneState( Map<String,Object> data ) {
+            final FlightEvent event = FlightEvents.stateClone( threadId );
+            final State result = CompiledGraph.this.cloneState( data );
+            event.size( data.size() ).commit();
+            return result;
+        }
+
+        private void interrupted( int nodeId, boolean before ) {
+            if( listener != null ) {
+                listener.onInterrupt( config, plan.nodeIds[nodeId], before );
+            }
+        }
+
+        /**
+         * Invokes a node action, on the node executor if configured, otherwise in the calling thread.
+         * When the action runs on the node executor, the run is handed back to the run executor once it completes.
+         *
+         * @param nodeId the node id
+         * @param input the state given to the action
+         * @return a CompletableFuture completed with the partial state returned by the action
+         */
+        private CompletableFuture<Map<String,Object>> executeNode( int nodeId, State input ) {
+            final Executor executor = compileConfig.nodeExecutor().orElse( null );
+            final CompletableFuture<Map<String,Object>> result = invokeLogged( nodeId, input, executor );
+            cancellation.track( result );
+
+            return ( executor != null ) ? result.thenApplyAsync( Function.identity(), compileConfig.runExecutor() ) : result;
+        }
+
+        /**
+         * Invokes a node, recording its result in the pending writes of the checkpoint saver before it is merged
+         * into the state. When resuming a crashed run, the recorded result is returned instead.
+         *
+         * @param nodeId the node id
+         * @param input the state given to the action
+         * @param executor the executor, null to invoke the action in the calling thread
+         * @return a CompletableFuture completed with the partial state returned by the action
+         */
+        private CompletableFuture<Map<String,Object>> invokeLogged( int nodeId, State input, Executor executor ) {
+            if( checkpointId == null ) {
+                return invokeNode( nodeId, input, executor );
+            }
+            final String nodeName = plan.nodeIds[nodeId];
+            // executions are numbered in the order they are started, which doesn't depend on their completion
+            final String key = format( "%s/%d/%s", checkpointId, writeSequence++, nodeName );
+
+            final Map<String,Object> recorded = ( replay != null ) ? replay.remove( key ) : null;
+            if( recorded != null ) {
+                log.debug( "node {} has completed before the run was resumed, its result is replayed", nodeName );
+                return completedFuture( recorded );
+            }
+            final BaseCheckpointSaver saver = compileConfig.checkpointSaver().get();
+            final String writeCheckpointId = checkpointId;
+            final CompletableFuture<Map<String,Object>> future = invokeNode( nodeId, input, executor );
+            final CompletableFuture<Map<String,Object>> result = future.thenCompose( partialState ->
+                    saver.putWriteAsync( config, new PendingWrite( writeCheckpointId, key, nodeName, partialState ) )
+                         .thenApply( v -> partialState ) );
+            result.whenComplete( (v, ex) -> {
+                if( result.isCancelled() ) {
+                    future.cancel( true );
+                }
+            });
+            return result;
+        }
+
+        /**
+         * Invokes a node action within the node timeout, retrying it if the node has a retry policy.
+         *
+         * @param nodeId the node id
+         * @param input the state given to the action, shared by all the attempts
+         * @param executor the executor, null to invoke the action in the calling thread
+         * @return a CompletableFuture completed with the partial state returned by the action
+         */
+        private CompletableFuture<Map<String,Object>> invokeNode( int nodeId, State input, Executor executor ) {
+            // chunks are emitted only if somebody observes them
+            final NodeChunkSink sink = ( yieldData != null ) ? new NodeChunkSink( plan.nodeIds[nodeId], input ) : null;
+            final ChunkSink chunks = ( sink != null ) ? sink : ChunkSink.NONE;
+
+            if( listener != null ) {
+                listener.onNodeStart( config, plan.nodeIds[nodeId] );
+            }
+            final long startedAt = ( listener != null ) ? System.nanoTime() : 0L;
+            final FlightEvent event = FlightEvents.nodeExecution( threadId, plan.nodeIds[nodeId] );
+
+            final NodeRetry retry = plan.retries[nodeId];
+            final CompletableFuture<Map<String,Object>> result;
+            if( retry == null ) {
+                result = invokeAttempt( nodeId, plan.actions[nodeId], input, chunks, executor );
+            }
+            else {
+                result = invokeRetried( nodeId, input, sink, executor, retry );
+            }
+            if( listener != null ) {
+                result.whenComplete( (partialState, ex) -> listener.onNodeEnd( config, plan.nodeIds[nodeId], System.nanoTime() - startedAt,
+                        ( partialState != null ) ? partialState.size() : 0, ( ex != null ) ? unwrap(ex) : null ) );
+            }
+            if( event != FlightEvent.DISABLED ) {
+                result.whenComplete( (partialState, ex) -> event.size( ( partialState != null ) ? partialState.size() : 0 )
+                        .failure( ( ex != null ) ? unwrap(ex) : null )
+                        .commit() );
+            }
+            return ( sink != null ) ? andThen( result, sink::close ) : result;
+        }
+
+        /**
+         * Invokes a node action with a retry policy. The cache of the node, if any, is looked up before the first
+         * attempt, so that a cache hit doesn't count as an attempt.
+         */
+        private CompletableFuture<Map<String,Object>> invokeRetried( int nodeId, State input, NodeChunkSink sink, Executor executor, NodeRetry retry ) {
+            AsyncNodeAction<State> action = plan.actions[nodeId];
+            if( action instanceof CachedNodeAction ) {
+                final CachedNodeAction<State> cachedAction = (CachedNodeAction<State>)action;
+                final Object key;
+                final Optional<Map<String,Object>> cached;
+                try {
+                    key = cachedAction.key( input );
+                    cached = cachedAction.cache.get( key );
+                }
+                catch( Throwable ex ) {
+                    return failedFuture( ex );
+                }
+                if( cached.isPresent() ) {
+                    return completedFuture( cached.get() );
+                }
+                action = cachedAction.missed( key );
+            }
+            final CompletableFuture<Map<String,Object>> result = new CompletableFuture<>();
+            attempt( nodeId, action, input, sink, executor, retry, 1, result );
+            return result;
+        }
+
+        private void attempt( int nodeId, AsyncNodeAction<State> action, State input, NodeChunkSink sink, Executor executor, NodeRetry retry, int attempt, CompletableFuture<Map<String,Object>> result ) {
+            retry.attempts.increment();
+            final ChunkSink chunks = ( sink != null ) ? sink.attempt( attempt ) : ChunkSink.NONE;
+            final CompletableFuture<Map<String,Object>> future = invokeAttempt( nodeId, action, input, chunks, executor );
+            result.whenComplete( (v, ex) -> {
+                if( result.isCancelled() ) {
+                    future.cancel( true );
+                }
+            });
+
+            future.whenComplete( (partialState, ex) -> {
+                if( ex == null ) {
+                    result.complete( partialState );
+                    return;
+                }
+                final Throwable error = unwrap( ex );
+                if( result.isDone() || cancellation.isCancelled() || attempt >= retry.policy.maxAttempts() || !retry.policy.isRetryable( error ) ) {
+                    retry.failures.increment();
+                    result.completeExceptionally( error );
+                    return;
+                }
+                retry.retries.increment();
+                if( sink != null ) {
+                    sink.retry( attempt + 1 );
+                }
+                if( listener != null ) {
+                    listener.onNodeRetry( config, plan.nodeIds[nodeId], attempt, error );
+                }
+                final Duration backoff = retry.policy.backoff( attempt );
+                log.debug( "attempt {} of node {} failed, retrying in {}", attempt, plan.nodeIds[nodeId], backoff, error );
+
+                // the next attempt must not run on the scheduler thread
+                final Executor retryExecutor = ( executor != null ) ? executor : compileConfig.runExecutor();
+                Deadlines.schedule( () -> {
+                    if( !result.isDone() ) {
+                        attempt( nodeId, action, input, sink, retryExecutor, retry, attempt + 1, result );
                     }
+                }, backoff );
+            });
+        }
 
-                    final String nextNodeId = nextNodeId(currentNodeId, currentState);
-                    addCheckpoint( config, currentNodeId, cloneState(currentState.data()), nextNodeId );
+        /**
+         * Invokes a node action within the node timeout, once a permit of the node limiter, if any, has been granted.
+         * A permit granted asynchronously hands the invocation over to the executor, or to the run executor.
+         */
+        private CompletableFuture<Map<String,Object>> invokeAttempt( int nodeId, AsyncNodeAction<State> action, State input, ChunkSink chunks, Executor executor ) {
+            final Limiter limiter = plan.limiters[nodeId];
+            if( limiter == null ) {
+                return withNodeTimeout( plan.nodeIds[nodeId], invokeAction( action, input, chunks, executor ) );
+            }
+            final CompletableFuture<Limiter.Permit> permit = limiter.acquire();
+            final CompletableFuture<Map<String,Object>> result = new CompletableFuture<>();
+            result.whenComplete( (v, ex) -> {
+                if( result.isCancelled() ) {
+                    permit.cancel( true );
+                }
+            });
 
-                    if ( shouldInterruptAfter( currentNodeId ) ) {
-                        log.trace( "interrupt after node {}", currentNodeId);
-                        return;
+            final BiConsumer<Limiter.Permit,Throwable> invoke = (granted, ex) -> {
+                if( ex != null ) {
+                    result.completeExceptionally( unwrap( ex ) );
+                    return;
+                }
+                if( result.isDone() ) {
+                    granted.release( new CancellationException() );
+                    return;
+                }
+                final CompletableFuture<Map<String,Object>> future = withNodeTimeout( plan.nodeIds[nodeId], invokeAction( action, input, chunks, executor ) );
+                result.whenComplete( (v, e) -> {
+                    if( result.isCancelled() ) {
+                        future.cancel( true );
+                    }
+                });
+                future.whenComplete( (partialState, e) -> {
+                    final Throwable error = ( e != null ) ? unwrap( e ) : null;
+                    granted.release( error );
+                    if( error != null ) {
+                        result.completeExceptionally( error );
+                    }
+                    else {
+                        result.complete( partialState );
                     }
+                });
+            };
+            if( permit.isDone() ) {
+                permit.whenComplete( invoke );
+            }
+            else {
+                permit.whenCompleteAsync( invoke, ( executor != null ) ? executor : compileConfig.runExecutor() );
+            }
+            return result;
+        }
 
-                    currentNodeId = nextNodeId;
+        private CompletableFuture<Map<String,Object>> withNodeTimeout( String nodeId, CompletableFuture<Map<String,Object>> result ) {
+            final Duration timeout = compileConfig.nodeTimeout( nodeId ).orElse( null );
+            return Deadlines.withTimeout( result, timeout, () ->
+                    StateGraph.RunnableErrors.nodeTimeout.exception( nodeId, String.valueOf(timeout) ) );
+        }
 
-                    if ( Objects.equals(currentNodeId, END) )
-                        break;
+        /**
+         * Executes the branches of a parallel edge concurrently, then merges their partial states
+         * into the current state, through the channels, following the declaration order.
+         *
+         * @param branches the node ids of the branches
+         * @return a CompletableFuture completed with the merged state
+         */
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<State> executeParallel( int[] branches ) {
+            final CompletableFuture<Map<String,Object>>[] futures = new CompletableFuture[branches.length];
+
+            for( int i = 0; i < branches.length; ++i ) {
+                futures[i] = invokeLogged( branches[i], cloneState(currentState.data()), compileConfig.parallelExecutor() );
+            }
+            cancellation.track( futures );
 
+            return CompletableFuture.allOf( futures ).thenApply( v -> {
+                var result = currentState;
+                for( int i = 0; i < branches.length; ++i ) {
+                    final Map<String,Object> partialState = futures[i].join();
+                    result = stateGraph.getStateFactory().apply(AgentState.updateState(result, partialState, stateGraph.getChannels()));
 
-                    if( ++iteration > maxIterations ) {
-                        log.warn( "Maximum number of iterations ({}) reached!", maxIterations);
-                        break;
-                    }
+                    yieldOutput( plan.nodeIds[branches[i]], partialState, result );
+                }
+                return result;
+            });
+        }
 
+        /**
+         * Invokes the target of a send edge concurrently, once per work item returned by the send action,
+         * then merges their partial states into the current state, through the channels, following the work items order.
+         * Each invocation gets the current state overlaid with its work item.
+         *
+         * @param send the send edge
+         * @return a CompletableFuture completed with the merged state
+         */
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<State> executeSend( ExecutionPlan.Send<State> send ) {
+            return apply( send.action, currentState ).thenCompose( items -> {
+                if( items == null || items.isEmpty() ) {
+                    return completedFuture( currentState );
                 }
+                final CompletableFuture<Map<String,Object>>[] futures = new CompletableFuture[items.size()];
 
-                yieldData.accept( NodeOutput.of(END, cloneState(currentState.data())) );
+                for( int i = 0; i < futures.length; ++i ) {
+                    final Map<String,Object> input = new HashMap<>( currentState.data() );
+                    input.putAll( items.get(i) );
+                    futures[i] = invokeLogged( send.target, cloneState(input), compileConfig.parallelExecutor() );
+                }
+                cancellation.track( futures );
 
-                // addCheckpoint( config, END, currentState, null );
+                final String targetName = plan.nodeIds[send.target];
+                return CompletableFuture.allOf( futures ).thenApply( v -> {
+                    var result = currentState;
+                    for( CompletableFuture<Map<String,Object>> future : futures ) {
+                        final Map<String,Object> partialState = future.join();
+                        result = stateGraph.getStateFactory().apply(AgentState.updateState(result, partialState, stateGraph.getChannels()));
 
-                log.trace( "STOP");
+                        yieldOutput( targetName, partialState, result );
+                    }
+                    return result;
+                });
+            });
+        }
+    }
 
+    /**
+     * Invokes a node action, on the given executor if not null, otherwise in the calling thread.
+     * Cancelling the returned future cancels the future returned by the action.
+     *
+     * @param action the node action
+     * @param input the state given to the action
+     * @param chunks the sink of the chunks produced by the action
+     * @param executor the executor, null to invoke the action in the calling thread
+     * @return a CompletableFuture completed with the partial state returned by the action
+     */
+    private static <State extends AgentState> CompletableFuture<Map<String,Object>> invokeAction( AsyncNodeAction<State> action,
+                                                                                                  State input,
+                                                                                                  ChunkSink chunks,
+                                                                                                  Executor executor ) {
+        if( executor == null ) {
+            return apply( state -> action.apply( state, chunks ), input );
+        }
+        final CompletableFuture<Map<String,Object>> result = new CompletableFuture<>();
+        try {
+            executor.execute( () -> {
+                final CompletableFuture<Map<String,Object>> source = apply( state -> action.apply( state, chunks ), input );
+                result.whenComplete( (v, ex) -> {
+                    if( result.isCancelled() ) {
+                        source.cancel( true );
+                    }
+                });
+                source.whenComplete( (v, ex) -> {
+                    if( ex != null ) {
+                        result.completeExceptionally( unwrap(ex) );
+                    }
+                    else {
+                        result.complete( v );
+                    }
+                });
+            });
+        }
+        catch( RejectedExecutionException ex ) {
+            result.completeExceptionally( ex );
+        }
+        return result;
     }
 
+    /**
+     * Returns a future completed as the given one, once the given task has been executed.
+     * Cancelling the returned future cancels the given one.
+     *
+     * @param future the future
+     * @param task the task executed when the given future completes
+     * @return the future completed after the task
+     */
+    private static <T> CompletableFuture<T> andThen( CompletableFuture<T> future, Runnable task ) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        result.whenComplete( (v, ex) -> {
+            if( result.isCancelled() ) {
+                future.cancel( true );
+            }
+        });
+        future.whenComplete( (v, ex) -> {
+            task.run();
+            if( ex != null ) {
+                result.completeExceptionally( unwrap(ex) );
+            }
+            else {
+                result.complete( v );
+            }
+        });
+        return result;
+    }
 
     /**
-     * Creates an AsyncGenerator stream of NodeOutput based on the provided inputs.
+     * Cancels the run when the given future is cancelled.
      *
-     * @param inputs the input map
+     * @param future the future of the run result
+     * @param cancellation the cancellation state of the run
+     * @return the given future
+     */
+    private static <T> CompletableFuture<T> cancellable( CompletableFuture<T> future, RunCancellation cancellation ) {
+        future.whenComplete( (v, ex) -> {
+            if( future.isCancelled() ) {
+                cancellation.cancel( new CancellationException("run has been cancelled") );
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Prepares a graph run. A resume request is validated immediately.
+     *
+     * @param inputs the input map, null to resume from the last checkpoint
      * @param config the invoke configuration
-     * @return an AsyncGenerator stream of NodeOutput
-     * @throws Exception if there is an error creating the stream
+     * @param yieldData the consumer of the node outputs, null if nobody observes them
+     * @param cancellation the cancellation state of the run
+     * @return the callable that starts the run
+     * @throws Exception if the run cannot be prepared
      */
-    public AsyncGenerator<NodeOutput<State>> stream(Map<String,Object> inputs, RunnableConfig config ) throws Exception {
+    private Callable<CompletableFuture<State>> prepare( Map<String,Object> inputs,
+                                                        RunnableConfig config,
+                                                        Consumer<NodeOutput<State>> yieldData,
+                                                        RunCancellation cancellation ) throws Exception {
         Objects.requireNonNull(config, "config cannot be null");
 
         final boolean isResumeRequest =  (inputs == null);
@@ -290,9 +1141,7 @@ public class CompiledGraph<State extends AgentState> {
 
             Checkpoint startCheckpoint = saver.get( config ).orElseThrow( () -> (new IllegalStateException("Resume request without a saved checkpoint!")) );
 
-            return AsyncGeneratorQueue.of(new LinkedBlockingQueue<>(), TryConsumer.Try(queue -> {
-
-                log.trace( "RESUME FROM {}", startCheckpoint.getNodeId() );
+            return () -> {
 
                 State startState = stateGraph.getStateFactory().apply( startCheckpoint.getState() );
 
@@ -301,36 +1150,78 @@ public class CompiledGraph<State extends AgentState> {
                         .checkPointId(null)
                         .build();
 
-                streamData( startState,
-                            startCheckpoint.getNextNodeId(),
-                            resumeConfig,
-                            data -> queue.add( AsyncGenerator.Data.of( completedFuture(data) ) )
-                            );
-            }));
+                int startNodeId = plan.indexOf( startCheckpoint.getNextNodeId() );
+                if( startNodeId == ExecutionPlan.NONE ) {
+                    throw StateGraph.RunnableErrors.missingNode.exception( startCheckpoint.getNextNodeId() );
+                }
 
+                return new Execution( startState, startNodeId, resumeConfig, yieldData, cancellation ).resume( startCheckpoint );
+            };
         }
 
-        return AsyncGeneratorQueue.of(new LinkedBlockingQueue<>(), TryConsumer.Try(queue -> {
-
-            log.trace( "START" );
+        return () -> {
 
             State startState = stateGraph.getStateFactory().apply(getInitialState(inputs, config )) ;
 
-            queue.add( AsyncGenerator.Data.of( NodeOutput.of( START, cloneState(startState.data()) ) ));
-
-            String startNodeId = this.getEntryPoint( startState );
-            if( shouldInterruptBefore( startNodeId, null ) ) return;
-
-            addCheckpoint( config, START, cloneState(startState.data()), startNodeId );
+            return new Execution( startState, ExecutionPlan.NONE, config, yieldData, cancellation ).start();
+        };
+    }
 
-            if( shouldInterruptAfter( startNodeId ) ) return;
+    /**
+     * Starts a prepared run, turning any exception raised while starting it into a failed future.
+     */
+    private static <T> CompletableFuture<T> start( Callable<CompletableFuture<T>> execution ) {
+        try {
+            return execution.call();
+        }
+        catch( Throwable ex ) {
+            return failedFuture( ex );
+        }
+    }
 
-            streamData( startState,
-                        startNodeId,
-                        config,
-                        data -> queue.add( AsyncGenerator.Data.of( completedFuture(data) ) ) );
-        }));
+    /**
+     * Creates an AsyncGenerator stream of NodeOutput based on the provided inputs.
+     * <p>
+     * Cancelling the returned generator cancels the run.
+     *
+     * @param inputs the input map
+     * @param config the invoke configuration
+     * @return an AsyncGenerator stream of NodeOutput
+     * @throws Exception if there is an error creating the stream
+     */
+    public CancellableAsyncGenerator<NodeOutput<State>> stream(Map<String,Object> inputs, RunnableConfig config ) throws Exception {
+
+        final RunCancellation cancellation = new RunCancellation();
+
+        final AsyncQueueGenerator<NodeOutput<State>> generator = new AsyncQueueGenerator<>(
+                compileConfig.getStreamCapacity(),
+                compileConfig.getStreamOverflowPolicy(),
+                output -> !START.equals(output.node()) && !END.equals(output.node()),
+                StreamingOutput::coalesce,
+                () -> cancellation.cancel( new CancellationException("stream has been cancelled") ) );
+
+        final Callable<CompletableFuture<State>> execution = prepare( inputs, config, generator::emit, cancellation );
+
+        CompletableFuture.runAsync( () ->
+            start( execution ).whenComplete( (v, ex) -> {
+                if( ex != null ) {
+                    final Throwable cause = unwrap(ex);
+                    // a consumer cancelling or closing the stream is not an error
+                    if( cause instanceof CancellationException ) {
+                        log.debug( "stream cancelled: {}", cause.getMessage() );
+                    }
+                    else {
+                        log.error( cause.getMessage(), cause );
+                    }
+                    generator.fail( cause );
+                }
+                else {
+                    generator.complete();
+                }
+            })
+        , compileConfig.runExecutor() );
 
+        return generator;
     }
 
     /**
@@ -340,11 +1231,14 @@ public class CompiledGraph<State extends AgentState> {
      * @return an AsyncGenerator stream of NodeOutput
      * @throws Exception if there is an error creating the stream
      */
-    public AsyncGenerator<NodeOutput<State>> stream(Map<String,Object> inputs ) throws Exception {
+    public CancellableAsyncGenerator<NodeOutput<State>> stream(Map<String,Object> inputs ) throws Exception {
         return this.stream( inputs, RunnableConfig.builder().build() );
     }
+
     /**
      * Invokes the graph execution with the provided inputs and returns the final state.
+     * <p>
+     * The graph is executed in the calling thread, and no node output is produced.
      *
      * @param inputs the input map
      * @param config the invoke configuration
@@ -352,14 +1246,17 @@ public class CompiledGraph<State extends AgentState> {
      * @throws Exception if there is an error during invocation
      */
     public Optional<State> invoke(Map<String,Object> inputs, RunnableConfig config ) throws Exception {
-
-        var sourceIterator = stream(inputs, config).iterator();
-
-        var result = StreamSupport.stream(
-                Spliterators.spliteratorUnknownSize(sourceIterator, Spliterator.ORDERED),
-                false);
-
-        return  result.reduce((a, b) -> b).map( NodeOutput::state);
+        final Callable<CompletableFuture<State>> execution = prepare( inputs, config, null, new RunCancellation() );
+        try {
+            return Optional.ofNullable( start( execution ).join() );
+        }
+        catch( CompletionException ex ) {
+            final Throwable cause = unwrap( ex );
+            if( cause instanceof Error ) {
+                throw (Error)cause;
+            }
+            throw (Exception)cause;
+        }
     }
 
     /**
@@ -373,6 +1270,249 @@ public class CompiledGraph<State extends AgentState> {
         return this.invoke( inputs, RunnableConfig.builder().build() );
     }
 
+    /**
+     * Executes the graph as a nested run of another graph, in the calling thread.
+     * <p>
+     * Cancelling the returned future cancels the run.
+     *
+     * @param inputs the input map
+     * @param chunks the sink of the chunks emitted by the nodes of the graph
+     * @return a CompletableFuture completed with the final state
+     */
+    CompletableFuture<State> invokeNested( Map<String,Object> inputs, ChunkSink chunks ) {
+        final RunCancellation cancellation = new RunCancellation();
+        final CompletableFuture<State> result = new CompletableFuture<>();
+
+        final Consumer<NodeOutput<State>> yieldChunks = ( chunks == ChunkSink.NONE ) ? null : output -> {
+            if( output instanceof StreamingOutput ) {
+                chunks.emit( ((StreamingOutput<State>)output).chunk() );
+            }
+        };
+
+        start( () -> prepare( inputs, RunnableConfig.builder().build(), yieldChunks, cancellation ).call() )
+            .whenComplete( (state, ex) -> {
+                if( ex != null ) {
+                    result.completeExceptionally( unwrap(ex) );
+                }
+                else {
+                    result.complete( state );
+                }
+            });
+        return cancellable( result, cancellation );
+    }
+
+    /**
+     * Asynchronously invokes the graph execution with the provided inputs.
+     * <p>
+     * The graph is executed by the run executor, and no node output is produced.
+     * Cancelling the returned future cancels the run.
+     *
+     * @param inputs the input map
+     * @param config the invoke configuration
+     * @return a CompletableFuture completed with the final state
+     */
+    public CompletableFuture<State> invokeAsync(Map<String,Object> inputs, RunnableConfig config ) {
+        final RunCancellation cancellation = new RunCancellation();
+        final Callable<CompletableFuture<State>> execution;
+        try {
+            execution = prepare( inputs, config, null, cancellation );
+        }
+        catch( Exception ex ) {
+            return failedFuture( ex );
+        }
+        return cancellable( CompletableFuture.supplyAsync( () -> start( execution ), compileConfig.runExecutor() )
+                                .thenCompose( Function.identity() ), cancellation );
+    }
+
+    /**
+     * Asynchronously invokes the graph execution with the provided inputs.
+     *
+     * @param inputs the input map
+     * @return a CompletableFuture completed with the final state
+     */
+    public CompletableFuture<State> invokeAsync(Map<String,Object> inputs ) {
+        return this.invokeAsync( inputs, RunnableConfig.builder().build() );
+    }
+
+    private interface BatchCallback<State> {
+        void accept( int index, State state, Throwable error );
+
+        default boolean proceed() { return true; }
+    }
+
+    /**
+     * Runs a list of inputs through the graph, keeping at most {@code maxConcurrency} runs in progress.
+     * <p>
+     * The batch is made of {@code maxConcurrency} lanes: each lane starts the next pending run once its
+     * current run completes, so no thread waits for a free slot. Runs that complete synchronously are
+     * chained in a loop (trampoline) rather than recursively, so the stack doesn't grow with the inputs.
+     */
+    private class Batch {
+        final List<Map<String,Object>> inputs;
+        final List<RunnableConfig> configs;
+        final BatchCallback<State> onComplete;
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final AtomicInteger activeLanes;
+        final Set<CompletableFuture<State>> running = ConcurrentHashMap.newKeySet();
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        /**
+         * @param inputs the inputs of the runs
+         * @param configs the configurations of the runs: none, a single one shared by all the runs, or one per input
+         * @param maxConcurrency the maximum number of concurrent runs
+         * @param onComplete invoked with the index of each run when it completes
+         */
+        Batch( List<Map<String,Object>> inputs, List<RunnableConfig> configs, int maxConcurrency, BatchCallback<State> onComplete ) {
+            this.inputs = Objects.requireNonNull(inputs, "inputs cannot be null");
+            this.configs = Objects.requireNonNull(configs, "configs cannot be null");
+            this.onComplete = onComplete;
+            if( maxConcurrency <= 0 ) {
+                throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+            }
+            if( configs.size() > 1 && configs.size() != inputs.size() ) {
+                throw new IllegalArgumentException( format("configs size (%d) must be 0, 1 or match the inputs size (%d)", configs.size(), inputs.size()) );
+            }
+            this.activeLanes = new AtomicInteger( Math.min( maxConcurrency, inputs.size() ) );
+        }
+
+        /**
+         * Starts the lanes.
+         *
+         * @return a CompletableFuture completed when all the started runs are completed
+         */
+        CompletableFuture<Void> start() {
+            final int lanes = activeLanes.get();
+            if( lanes == 0 ) {
+                completion.complete(null);
+            }
+            for( int i = 0; i < lanes; ++i ) {
+                runNext();
+            }
+            return completion;
+        }
+
+        /**
+         * Cancels the runs in progress. The lanes stop once {@link BatchCallback#proceed()} returns false.
+         */
+        void cancel() {
+            running.forEach( run -> run.cancel(true) );
+        }
+
+        private void runNext() {
+            while( true ) {
+                final int index = nextIndex.getAndIncrement();
+                if( index >= inputs.size() || !onComplete.proceed() ) {
+                    if( activeLanes.decrementAndGet() == 0 ) {
+                        completion.complete(null);
+                    }
+                    return;
+                }
+                final RunnableConfig config = configs.isEmpty() ?
+                        RunnableConfig.builder().build() :
+                        configs.get( configs.size() == 1 ? 0 : index );
+
+                final CompletableFuture<State> run = invokeAsync( inputs.get(index), config );
+                running.add( run );
+                if( !onComplete.proceed() ) {
+                    // the batch stopped while this run was starting, after the running ones were cancelled
+                    run.cancel(true);
+                }
+                if( !run.isDone() ) {
+                    run.whenComplete( (state, ex) -> {
+                        completed( index, run, state, ex );
+                        runNext();
+                    });
+                    return;
+                }
+                // already completed: the callback runs on this thread, then the loop starts the next run
+                run.whenComplete( (state, ex) -> completed( index, run, state, ex ) );
+            }
+        }
+
+        private void completed( int index, CompletableFuture<State> run, State state, Throwable ex ) {
+            running.remove( run );
+            onComplete.accept( index, state, (ex != null) ? unwrap(ex) : null );
+        }
+    }
+
+    /**
+     * Invokes the graph once per input, with at most {@code maxConcurrency} concurrent runs.
+     * <p>
+     * The runs share this compiled graph and its executors. On the first failure no more runs are started,
+     * the runs in progress are cancelled and the returned future completes exceptionally. Cancelling the
+     * returned future cancels the runs in progress as well.
+     *
+     * @param inputs the inputs of the runs
+     * @param configs the configurations of the runs: none, a single one shared by all the runs, or one per input
+     * @param maxConcurrency the maximum number of concurrent runs
+     * @return a CompletableFuture completed with the final states, in the same order as the inputs
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<List<State>> batch( List<Map<String,Object>> inputs, List<RunnableConfig> configs, int maxConcurrency ) {
+        final CompletableFuture<List<State>> result = new CompletableFuture<>();
+        final Object[] states = new Object[inputs.size()];
+
+        final Batch batch = new Batch( inputs, configs, maxConcurrency, new BatchCallback<State>() {
+            @Override
+            public void accept(int index, State state, Throwable error) {
+                if( error != null ) {
+                    result.completeExceptionally( error );
+                }
+                states[index] = state;
+            }
+            @Override
+            public boolean proceed() {
+                return !result.isDone();
+            }
+        });
+
+        result.whenComplete( (value, ex) -> {
+            if( ex != null ) {
+                batch.cancel();
+            }
+        });
+
+        batch.start().thenRun( () -> {
+            // each lane stores its results before leaving, so they are all visible once the last lane is done
+            result.complete( Collections.unmodifiableList( (List<State>) (List<?>) Arrays.asList( states ) ) );
+        });
+
+        return result;
+    }
+
+    /**
+     * Invokes the graph once per input, with at most {@code maxConcurrency} concurrent runs, using the default configuration.
+     *
+     * @param inputs the inputs of the runs
+     * @param maxConcurrency the maximum number of concurrent runs
+     * @return a CompletableFuture completed with the final states, in the same order as the inputs
+     */
+    public CompletableFuture<List<State>> batch( List<Map<String,Object>> inputs, int maxConcurrency ) {
+        return batch( inputs, Collections.emptyList(), maxConcurrency );
+    }
+
+    /**
+     * Invokes the graph once per input, with at most {@code maxConcurrency} concurrent runs, and streams
+     * the outcome of each run as soon as it completes.
+     * <p>
+     * A failed run doesn't stop the batch: its error is reported by the corresponding {@link BatchOutput}.
+     *
+     * @param inputs the inputs of the runs
+     * @param configs the configurations of the runs: none, a single one shared by all the runs, or one per input
+     * @param maxConcurrency the maximum number of concurrent runs
+     * @return an AsyncGenerator of the run outcomes, in completion order
+     */
+    public AsyncGenerator<BatchOutput<State>> batchStream( List<Map<String,Object>> inputs, List<RunnableConfig> configs, int maxConcurrency ) {
+        final AsyncQueueGenerator<BatchOutput<State>> generator =
+                new AsyncQueueGenerator<>( Integer.MAX_VALUE, StreamOverflowPolicy.BLOCK, output -> false );
+
+        new Batch( inputs, configs, maxConcurrency, (index, state, error) -> generator.emit( BatchOutput.of( index, state, error ) ) )
+                .start()
+                .thenRun( generator::complete );
+
+        return generator;
+    }
+
     /**
      * Generates a drawable graph representation of the state graph.
      *
@@ -0,0 +1,84 @@
+package org.bsc.langgraph4j;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Enforces deadlines on {@link CompletableFuture}s, a feature missing from JDK 8.
+ * <p>
+ * A single daemon thread is shared by all the graphs: it only completes futures, the continuations
+ * are executed by the run executor when possible.
+ */
+final class Deadlines {
+
+    private static final class SchedulerHolder {
+        static final ScheduledExecutorService INSTANCE = newScheduler();
+
+        private static ScheduledExecutorService newScheduler() {
+            final ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor( 1, task -> {
+                final Thread thread = new Thread( task, "langgraph4j-deadlines" );
+                thread.setDaemon( true );
+                return thread;
+            });
+            result.setRemoveOnCancelPolicy( true );
+            return result;
+        }
+    }
+
+    private Deadlines() {}
+
+    /**
+     * Schedules a task.
+     *
+     * @param task the task
+     * @param delay the delay after which the task is executed
+     * @return the scheduled task
+     */
+    static ScheduledFuture<?> schedule( Runnable task, Duration delay ) {
+        return SchedulerHolder.INSTANCE.schedule( task, delay.toNanos(), TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * Returns a future completed as the given one, or failed with the given error if the timeout expires first.
+     * In the latter case the given future is cancelled, as it is when the returned future is cancelled.
+     *
+     * @param future the future
+     * @param timeout the timeout, null for no timeout
+     * @param error the supplier of the timeout error
+     * @param <T> the type of the result
+     * @return the future with a deadline
+     */
+    static <T> CompletableFuture<T> withTimeout( CompletableFuture<T> future, Duration timeout, Supplier<Throwable> error ) {
+        if( timeout == null || future.isDone() ) {
+            return future;
+        }
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicReference<Throwable> timeoutError = new AtomicReference<>();
+        final ScheduledFuture<?> timer = schedule( () -> {
+            timeoutError.set( error.get() );
+            // the given future is cancelled before the result fails, so that callers never observe it in progress
+            future.cancel( true );
+            result.completeExceptionally( timeoutError.get() );
+        }, timeout );
+
+        result.whenComplete( (value, ex) -> {
+            if( result.isCancelled() ) {
+                future.cancel( true );
+            }
+        });
+        future.whenComplete( (value, ex) -> {
+            timer.cancel( false );
+            if( ex != null ) {
+                final Throwable timedOut = timeoutError.get();
+                result.completeExceptionally( ( timedOut != null ) ? timedOut :
+                        ( ex instanceof CompletionException && ex.getCause() != null ) ? ex.getCause() : ex );
+            }
+            else {
+                result.complete( value );
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,24 @@
+package org.bsc.langgraph4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Provides the default executors used by {@link CompileConfig}.
+ * <p>
+ * The library is packaged as a multi-release jar: on JDK 21+ this class is replaced by a variant
+ * that starts each task submitted to the run executor on a new virtual thread.
+ */
+final class DefaultExecutors {
+
+    private DefaultExecutors() {}
+
+    /**
+     * The executor used to drive graph runs when none has been configured.
+     *
+     * @return the default run executor
+     */
+    static Executor runExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+}
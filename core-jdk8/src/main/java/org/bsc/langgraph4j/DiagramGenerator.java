@@ -62,6 +62,9 @@ public abstract class DiagramGenerator {
 
             }
         });
+        compiledGraph.getParallelEdges().forEach( (k, targets) ->
+                targets.forEach( to -> call( sb, k, to ) )
+        );
         if( compiledGraph.getFinishPoint() != null ) {
            finish( sb, compiledGraph.getFinishPoint() ) ;
         }
@@ -0,0 +1,23 @@
+package org.bsc.langgraph4j;
+
+/**
+ * Tells which states of a run are stored by the checkpoint saver.
+ * <p>
+ * Fewer checkpoints make runs faster, at the cost of the progress lost if a run fails.
+ * Checkpoints required to resume an interrupted run, and the checkpoint of the end of the run, are always stored.
+ */
+public enum Durability {
+    /**
+     * A checkpoint is stored after each node.
+     */
+    STEP,
+    /**
+     * Nodes linked by a single unconditional edge, without interruption, are fused into a single step when nobody
+     * observes the node outputs: a checkpoint is stored only at the end of each chain of fused nodes.
+     */
+    CHAIN,
+    /**
+     * Nodes are fused as with {@link #CHAIN}, and a checkpoint is stored only when the run is interrupted or ends.
+     */
+    EXIT
+}
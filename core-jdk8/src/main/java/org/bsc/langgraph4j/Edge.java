@@ -3,8 +3,11 @@ package org.bsc.langgraph4j;
 
 import lombok.Value;
 import lombok.experimental.Accessors;
+import org.bsc.langgraph4j.action.AsyncSendAction;
 import org.bsc.langgraph4j.state.AgentState;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -22,9 +25,66 @@ class Edge<State extends AgentState> {
     String sourceId;
 
     /**
-     * The target value associated with the edge.
+     * The target values associated with the edge.
+     * More than one target means that the targets are executed in parallel.
      */
-    EdgeValue<State> target;
+    List<EdgeValue<State>> targets;
+
+    /**
+     * The action computing the work items of a send edge, null if the edge is not a send edge.
+     */
+    AsyncSendAction<State> send;
+
+    /**
+     * Constructs an edge with a single target.
+     *
+     * @param sourceId the ID of the source node
+     * @param target the target value
+     */
+    Edge(String sourceId, EdgeValue<State> target) {
+        this(sourceId, target, null);
+    }
+
+    /**
+     * Constructs a send edge, invoking the target node once per work item.
+     *
+     * @param sourceId the ID of the source node
+     * @param target the target value
+     * @param send the action computing the work items, null for a plain edge
+     */
+    Edge(String sourceId, EdgeValue<State> target, AsyncSendAction<State> send) {
+        this.sourceId = sourceId;
+        this.targets = new ArrayList<>(1);
+        this.targets.add(target);
+        this.send = send;
+    }
+
+    /**
+     * Returns the first (and usually the only) target of this edge.
+     *
+     * @return the target value
+     */
+    public EdgeValue<State> target() {
+        return targets.get(0);
+    }
+
+    /**
+     * Checks if this edge fans out to several targets to be executed in parallel.
+     *
+     * @return true if this edge has more than one target, false otherwise
+     */
+    public boolean isParallel() {
+        return targets.size() > 1;
+    }
+
+    /**
+     * Checks if this edge invokes its target once per work item.
+     *
+     * @return true if this edge is a send edge, false otherwise
+     */
+    public boolean isSend() {
+        return send != null;
+    }
 
     /**
      * Checks if this edge is equal to another object.
@@ -0,0 +1,481 @@
+package org.bsc.langgraph4j;
+
+import lombok.var;
+import org.bsc.langgraph4j.action.AsyncEdgeAction;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.action.AsyncSendAction;
+import org.bsc.langgraph4j.cache.NodeCache;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+import static org.bsc.langgraph4j.StateGraph.END;
+
+/**
+ * Immutable, index-based representation of a {@link StateGraph} used by {@link CompiledGraph} at runtime.
+ * <p>
+ * Each node is identified by a dense int id, so that the execution loop works on arrays and bitsets
+ * and never hashes node identifiers or allocates per step.
+ * The special id {@link #END_ID} identifies the end of the graph.
+ * <p>
+ * The plan contains only the nodes reachable from the entry point, according to the {@link GraphAnalysis}.
+ *
+ * @param <State> the type of the state associated with the graph
+ */
+final class ExecutionPlan<State extends AgentState> {
+
+    static final int END_ID = -1;
+    static final int NONE = -2;
+
+    /**
+     * A resolved edge: either a direct target or a condition with its mapping table.
+     */
+    static final class Route<State extends AgentState> {
+        final int target;
+        final AsyncEdgeAction<State> condition;
+        final String[] conditions;
+        final int[] targets;
+
+        private Route( int target, AsyncEdgeAction<State> condition, String[] conditions, int[] targets ) {
+            this.target = target;
+            this.condition = condition;
+            this.conditions = conditions;
+            this.targets = targets;
+        }
+
+        boolean isConditional() {
+            return condition != null;
+        }
+
+        /**
+         * Resolves the value returned by the edge condition into a node id.
+         * Mapping tables are small, so a linear scan (identity first) is cheaper than hashing.
+         *
+         * @param value the value returned by the edge condition
+         * @return the target node id or {@link #NONE} if there is no mapping for the given value
+         */
+        int resolve( String value ) {
+            for( int i = 0; i < conditions.length; ++i ) {
+                if( conditions[i] == value ) {
+                    return targets[i];
+                }
+            }
+            for( int i = 0; i < conditions.length; ++i ) {
+                if( conditions[i].equals(value) ) {
+                    return targets[i];
+                }
+            }
+            return NONE;
+        }
+    }
+
+    /**
+     * A resolved send edge: the action computing the work items and the node invoked for each of them.
+     */
+    static final class Send<State extends AgentState> {
+        final AsyncSendAction<State> action;
+        final int target;
+
+        private Send( AsyncSendAction<State> action, int target ) {
+            this.action = action;
+            this.target = target;
+        }
+    }
+
+    private final Map<String,Integer> indexById;
+    final String[] nodeIds;
+    final AsyncNodeAction<State>[] actions;
+    final NodeRetry[] retries;
+    final Limiter[] limiters;
+    final int[][] branches;
+    final Send<State>[] sends;
+    final Route<State>[] routes;
+    final Route<State> entryPoint;
+    final int finishPoint;
+    final BitSet interruptBefore;
+    final BitSet interruptAfter;
+    final GraphAnalysis analysis;
+    final int[] loopMaxIterations;
+    final BitSet limitedLoops;
+    /**
+     * For each node, the node that can be executed right after it in the same step, or {@link #NONE}.
+     */
+    final int[] fusedNext;
+
+    /**
+     * Returns the identifier of the synthetic node that executes the branches of a parallel edge.
+     *
+     * @param sourceId the source node of the parallel edge
+     * @return the parallel node identifier
+     */
+    static String parallelNodeId( String sourceId ) {
+        return format( "__PARALLEL__(%s)", sourceId );
+    }
+
+    /**
+     * Returns the identifier of the synthetic node that invokes the target of a send edge for each work item.
+     *
+     * @param sourceId the source node of the send edge
+     * @return the send node identifier
+     */
+    static String sendNodeId( String sourceId ) {
+        return format( "__SEND__(%s)", sourceId );
+    }
+
+    @SuppressWarnings("unchecked")
+    ExecutionPlan( StateGraph<State> stateGraph, CompileConfig compileConfig ) throws GraphStateException {
+        final List<Node<State>> graphNodes = new ArrayList<>();
+        final List<Edge<State>> graphEdges = new ArrayList<>();
+        flatten( stateGraph.nodes, stateGraph.edges, compileConfig.isInlineSubgraphs(), graphNodes, graphEdges );
+
+        analysis = analyze( stateGraph, compileConfig, graphNodes, graphEdges );
+        // dead path elimination
+        graphNodes.removeIf( node -> analysis.getUnreachableNodes().contains( node.id() ) );
+        graphEdges.removeIf( edge -> analysis.getUnreachableNodes().contains( edge.sourceId() ) );
+
+        final int syntheticNodes = (int)graphEdges.stream().filter( edge -> edge.isParallel() || edge.isSend() ).count();
+        final int size = graphNodes.size() + syntheticNodes;
+
+        indexById = new HashMap<>( size * 2 );
+        nodeIds = new String[size];
+        actions = new AsyncNodeAction[size];
+        retries = new NodeRetry[size];
+        limiters = new Limiter[size];
+        branches = new int[size][];
+        sends = new Send[size];
+
+        int index = 0;
+        for( var node : graphNodes ) {
+            indexById.put( node.id(), index );
+            nodeIds[index] = node.id();
+            actions[index] = ( node.cachePolicy() != null ) ?
+                    new CachedNodeAction<>( node.action(), node.cachePolicy() ) :
+                    node.action();
+            if( node.retryPolicy() != null ) {
+                retries[index] = new NodeRetry( node.retryPolicy() );
+            }
+            ++index;
+        }
+        // each parallel or send edge is executed by a synthetic node placed after the declared ones
+        for( var edge : graphEdges ) {
+            if( edge.isParallel() || edge.isSend() ) {
+                final String id = edge.isSend() ? sendNodeId( edge.sourceId() ) : parallelNodeId( edge.sourceId() );
+                indexById.put( id, index );
+                nodeIds[index] = id;
+                ++index;
+            }
+        }
+
+        routes = new Route[size];
+        for( var edge : graphEdges ) {
+            if( !edge.isParallel() ) {
+                routes[ indexOf( edge.sourceId() ) ] = route( edge.target() );
+            }
+        }
+        for( var edge : graphEdges ) {
+            if( edge.isParallel() ) {
+                final int parallelId = indexOf( parallelNodeId( edge.sourceId() ) );
+                branches[parallelId] = edge.targets().stream().mapToInt( t -> indexOf( t.id() ) ).toArray();
+                // branches have been validated to converge on the same node
+                routes[parallelId] = routes[ branches[parallelId][0] ];
+                routes[ indexOf( edge.sourceId() ) ] = new Route<>( parallelId, null, null, null );
+            }
+        }
+        for( var edge : graphEdges ) {
+            if( edge.isSend() ) {
+                final int sendId = indexOf( sendNodeId( edge.sourceId() ) );
+                final int target = indexOf( edge.target().id() );
+                sends[sendId] = new Send<>( edge.send(), target );
+                // once the invocations are merged, the edge of the target node is followed
+                routes[sendId] = routes[target];
+                routes[ indexOf( edge.sourceId() ) ] = new Route<>( sendId, null, null, null );
+            }
+        }
+
+        for( var e : compileConfig.nodeLimiters().entrySet() ) {
+            final Limiter limiter = compileConfig.limiters()
+                    .flatMap( registry -> registry.limiter( e.getValue() ) )
+                    .orElseThrow( () -> StateGraph.Errors.unknownLimiter.exception( e.getValue(), e.getKey() ) );
+            final int id = indexOf( e.getKey() );
+            if( id >= 0 ) {
+                limiters[id] = limiter;
+            }
+        }
+
+        entryPoint = route( stateGraph.getEntryPoint() );
+        finishPoint = ( stateGraph.getFinishPoint() != null ) ? indexOf( stateGraph.getFinishPoint() ) : NONE;
+
+        interruptBefore = bitSetOf( compileConfig.getInterruptBefore() );
+        interruptAfter = bitSetOf( compileConfig.getInterruptAfter() );
+
+        loopMaxIterations = new int[size];
+        limitedLoops = new BitSet( size );
+        for( var e : compileConfig.loopMaxIterations().entrySet() ) {
+            final Set<String> loop = analysis.loopOf( e.getKey() )
+                    .orElseThrow( () -> StateGraph.Errors.nodeNotInLoop.exception( e.getKey() ) );
+            loopMaxIterations[ indexOf( e.getKey() ) ] = e.getValue();
+            loop.forEach( id -> limitedLoops.set( indexOf( id ) ) );
+        }
+
+        // a node is fused with the target of its single unconditional edge, unless an interruption may occur between them
+        fusedNext = new int[size];
+        Arrays.fill( fusedNext, NONE );
+        for( int i = 0; i < size; ++i ) {
+            final Route<State> route = routes[i];
+            if( route == null || route.isConditional() || route.target < 0 || route.target == i ) {
+                continue;
+            }
+            if( i == finishPoint || interruptAfter.get( i ) || interruptBefore.get( route.target ) || limitedLoops.get( i ) ) {
+                continue;
+            }
+            fusedNext[i] = route.target;
+        }
+    }
+
+    /**
+     * Builds the control flow graph of the given nodes and edges, and analyzes it.
+     */
+    private static <State extends AgentState> GraphAnalysis analyze( StateGraph<State> stateGraph,
+                                                                     CompileConfig compileConfig,
+                                                                     List<Node<State>> graphNodes,
+                                                                     List<Edge<State>> graphEdges ) {
+        final List<String> nodeIds = new ArrayList<>( graphNodes.size() );
+        graphNodes.forEach( node -> nodeIds.add( node.id() ) );
+
+        final Map<String,List<String>> successors = new HashMap<>();
+        for( var edge : graphEdges ) {
+            final List<String> targets = successors.computeIfAbsent( edge.sourceId(), k -> new ArrayList<>() );
+            edge.targets().forEach( target -> addTargets( target, targets ) );
+        }
+        if( stateGraph.getFinishPoint() != null ) {
+            successors.computeIfAbsent( stateGraph.getFinishPoint(), k -> new ArrayList<>() ).add( END );
+        }
+        final List<String> entryPoints = new ArrayList<>();
+        addTargets( stateGraph.getEntryPoint(), entryPoints );
+
+        final Set<String> interruptible = new HashSet<>( Arrays.asList( compileConfig.getInterruptBefore() ) );
+        interruptible.addAll( Arrays.asList( compileConfig.getInterruptAfter() ) );
+
+        return GraphAnalysis.of( nodeIds, entryPoints, successors, interruptible, compileConfig.checkpointSaver().isPresent() );
+    }
+
+    private static <State extends AgentState> void addTargets( EdgeValue<State> value, List<String> targets ) {
+        if( value.id() != null ) {
+            targets.add( value.id() );
+        }
+        else if( value.value() != null ) {
+            targets.addAll( value.value().mappings().values() );
+        }
+    }
+
+    /**
+     * Expands the subgraphs into the given nodes and edges.
+     * <p>
+     * An inlined subgraph {@code id} becomes:
+     * <ul>
+     * <li>a no-op node {@code id}, so that the edges targeting the subgraph are unchanged, whose edge is the subgraph entry point</li>
+     * <li>a node {@code id/nodeId} for each subgraph node, whose action is adapted to this graph state</li>
+     * <li>the subgraph edges, where {@link StateGraph#END} is replaced by the target of the edge leaving {@code id},
+     * or by a no-op node {@code id/__END__} holding that edge if it isn't a plain edge</li>
+     * </ul>
+     * Subgraphs that are parallel branches, that have no outgoing edge or whose compile configuration sets run
+     * options (see {@link Subgraph#isInlinable()}) are executed as nested runs.
+     */
+    private static <State extends AgentState> void flatten( Collection<Node<State>> nodes,
+                                                            Collection<Edge<State>> edges,
+                                                            boolean inline,
+                                                            List<Node<State>> resultNodes,
+                                                            List<Edge<State>> resultEdges ) {
+        final Map<String,Edge<State>> edgeBySource = new HashMap<>();
+        final Set<String> branchIds = new HashSet<>();
+        for( var edge : edges ) {
+            edgeBySource.put( edge.sourceId(), edge );
+            if( edge.isParallel() ) {
+                edge.targets().forEach( t -> branchIds.add( t.id() ) );
+            }
+        }
+
+        final Set<String> inlined = new HashSet<>();
+        for( var node : nodes ) {
+            final Edge<State> exitEdge = edgeBySource.get( node.id() );
+            if( !inline || node.subgraph() == null || exitEdge == null || branchIds.contains( node.id() ) || !node.subgraph().isInlinable() ) {
+                resultNodes.add( node );
+                continue;
+            }
+            inline( node.id(), node.subgraph(), exitEdge, resultNodes, resultEdges );
+            inlined.add( node.id() );
+        }
+        for( var edge : edges ) {
+            if( !inlined.contains( edge.sourceId() ) ) {
+                resultEdges.add( edge );
+            }
+        }
+    }
+
+    private static <State extends AgentState, S extends AgentState> void inline( String id,
+                                                                                  Subgraph<S> subgraph,
+                                                                                  Edge<State> exitEdge,
+                                                                                  List<Node<State>> resultNodes,
+                                                                                  List<Edge<State>> resultEdges ) {
+        final StateGraph<S> child = subgraph.graph.stateGraph;
+        final String prefix = id + "/";
+
+        final List<Node<S>> childNodes = new ArrayList<>();
+        final List<Edge<S>> childEdges = new ArrayList<>();
+        flatten( child.nodes, child.edges, true, childNodes, childEdges );
+
+        final String exitId;
+        if( !exitEdge.isParallel() && !exitEdge.isSend() && exitEdge.target().id() != null ) {
+            exitId = exitEdge.target().id();
+        }
+        else {
+            exitId = prefix + END;
+            resultNodes.add( new Node<>( exitId, ExecutionPlan::noop ) );
+            final Edge<State> edge = new Edge<>( exitId, exitEdge.targets().get(0), exitEdge.send() );
+            edge.targets().addAll( exitEdge.targets().subList( 1, exitEdge.targets().size() ) );
+            resultEdges.add( edge );
+        }
+
+        final Function<String,String> nodeId = childId -> Objects.equals( childId, END ) ? exitId : prefix + childId;
+
+        resultNodes.add( new Node<>( id, ExecutionPlan::noop ) );
+        resultEdges.add( new Edge<>( id, inline( subgraph, child.getEntryPoint(), nodeId ) ) );
+
+        final Set<String> sources = new HashSet<>();
+        for( var edge : childEdges ) {
+            sources.add( edge.sourceId() );
+            final Edge<State> result = new Edge<>( nodeId.apply( edge.sourceId() ),
+                                                   inline( subgraph, edge.target(), nodeId ),
+                                                   edge.isSend() ? subgraph.inline( edge.send() ) : null );
+            for( int i = 1; i < edge.targets().size(); ++i ) {
+                result.targets().add( inline( subgraph, edge.targets().get(i), nodeId ) );
+            }
+            resultEdges.add( result );
+        }
+        for( var node : childNodes ) {
+            final AsyncNodeAction<S> action = ( node.cachePolicy() != null ) ?
+                    new CachedNodeAction<>( node.action(), node.cachePolicy() ) :
+                    node.action();
+            resultNodes.add( new Node<>( nodeId.apply( node.id() ), subgraph.inline( action ), null, node.retryPolicy(), null ) );
+        }
+        // deprecated finish point: the subgraph ends after it
+        if( child.getFinishPoint() != null && !sources.contains( child.getFinishPoint() ) ) {
+            resultEdges.add( new Edge<>( nodeId.apply( child.getFinishPoint() ), new EdgeValue<>( exitId, null ) ) );
+        }
+    }
+
+    private static <State extends AgentState, S extends AgentState> EdgeValue<State> inline( Subgraph<S> subgraph,
+                                                                                              EdgeValue<S> value,
+                                                                                              Function<String,String> nodeId ) {
+        if( value.id() != null ) {
+            return new EdgeValue<>( nodeId.apply( value.id() ), null );
+        }
+        final Map<String,String> mappings = new LinkedHashMap<>();
+        value.value().mappings().forEach( (k, v) -> mappings.put( k, nodeId.apply( v ) ) );
+        return new EdgeValue<>( null, new EdgeCondition<>( subgraph.inline( value.value().action() ), mappings ) );
+    }
+
+    private static CompletableFuture<Map<String,Object>> noop( AgentState state ) {
+        return CompletableFuture.completedFuture( Collections.emptyMap() );
+    }
+
+    private BitSet bitSetOf( String[] ids ) {
+        var result = new BitSet( nodeIds.length );
+        for( String id : ids ) {
+            var i = indexById.get(id);
+            if( i != null ) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private Route<State> route( EdgeValue<State> value ) {
+        if( value == null ) {
+            return null;
+        }
+        if( value.id() != null ) {
+            return new Route<>( indexOf( value.id() ), null, null, null );
+        }
+        if( value.value() != null ) {
+            var mappings = value.value().mappings();
+            var conditions = new String[mappings.size()];
+            var targets = new int[mappings.size()];
+            int i = 0;
+            for( var e : mappings.entrySet() ) {
+                conditions[i] = e.getKey();
+                targets[i] = indexOf( e.getValue() );
+                ++i;
+            }
+            return new Route<>( NONE, value.value().action(), conditions, targets );
+        }
+        throw new IllegalArgumentException( "invalid edge value!" );
+    }
+
+    /**
+     * Returns the cache of the given node.
+     *
+     * @param id the node id
+     * @return an Optional containing the node cache if the node results are memoized, otherwise an empty Optional
+     */
+    @SuppressWarnings("unchecked")
+    Optional<NodeCache<Object,Map<String,Object>>> cache( int id ) {
+        return ( actions[id] instanceof CachedNodeAction ) ?
+                Optional.of( ((CachedNodeAction<State>)actions[id]).cache ) :
+                Optional.empty();
+    }
+
+    /**
+     * Checks if the given node id identifies a synthetic node executing parallel branches.
+     *
+     * @param id the node id
+     * @return true if the node executes parallel branches, false otherwise
+     */
+    boolean isParallel( int id ) {
+        return branches[id] != null;
+    }
+
+    /**
+     * Checks if the given node id identifies a synthetic node executing a send edge.
+     *
+     * @param id the node id
+     * @return true if the node executes a send edge, false otherwise
+     */
+    boolean isSend( int id ) {
+        return sends[id] != null;
+    }
+
+    /**
+     * Returns the node id associated with the given node identifier.
+     *
+     * @param nodeId the node identifier
+     * @return the node id, {@link #END_ID} for {@link StateGraph#END}, or {@link #NONE} if the node doesn't exist
+     */
+    int indexOf( String nodeId ) {
+        if( Objects.equals( nodeId, END ) ) {
+            return END_ID;
+        }
+        var result = indexById.get( nodeId );
+        return ( result != null ) ? result : NONE;
+    }
+
+    /**
+     * Returns the node identifier associated with the given node id.
+     *
+     * @param id the node id
+     * @return the node identifier
+     */
+    String nodeId( int id ) {
+        if( id == END_ID ) {
+            return END;
+        }
+        if( id < 0 || id >= nodeIds.length ) {
+            throw new IllegalArgumentException( format( "invalid node id: %d", id ) );
+        }
+        return nodeIds[id];
+    }
+
+}
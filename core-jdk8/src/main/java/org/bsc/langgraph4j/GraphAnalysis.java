@@ -0,0 +1,237 @@
+package org.bsc.langgraph4j;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.*;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+import static org.bsc.langgraph4j.StateGraph.END;
+
+/**
+ * The control flow analysis of a graph, performed at compile time.
+ * <p>
+ * The control flow graph is built from the simple, conditional and parallel edges, every value of an edge mapping
+ * being a possible successor. Node identifiers are those of the execution plan, so the nodes of an inlined
+ * subgraph appear as {@code id/nodeId}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class GraphAnalysis {
+
+    /**
+     * The nodes reachable from the entry point, in declaration order.
+     */
+    Set<String> reachableNodes;
+    /**
+     * The nodes that cannot be reached from the entry point. They are not part of the execution plan.
+     */
+    Set<String> unreachableNodes;
+    /**
+     * The reachable nodes from which {@link StateGraph#END} cannot be reached: a run entering them
+     * never ends normally.
+     */
+    Set<String> deadEndNodes;
+    /**
+     * The loops of the graph, that is the strongly connected components that contain a cycle.
+     */
+    List<Set<String>> loops;
+    /**
+     * The reachable nodes that can be interrupted, before or after their execution.
+     */
+    Set<String> interruptibleNodes;
+    /**
+     * The reachable nodes after which a checkpoint is stored, none if there is no checkpoint saver.
+     */
+    Set<String> checkpointedNodes;
+
+    /**
+     * Returns the loop the given node belongs to.
+     *
+     * @param nodeId the node identifier
+     * @return an Optional containing the nodes of the loop if the node belongs to a loop, otherwise an empty Optional
+     */
+    public Optional<Set<String>> loopOf( String nodeId ) {
+        for( Set<String> loop : loops ) {
+            if( loop.contains( nodeId ) ) {
+                return Optional.of( loop );
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Analyzes a control flow graph.
+     *
+     * @param nodeIds the node identifiers, in declaration order
+     * @param entryPoints the possible first nodes
+     * @param successors the possible next nodes of each node, {@link StateGraph#END} included
+     * @param interruptible the identifiers of the nodes configured to be interrupted
+     * @param checkpointed true if a checkpoint is stored after each node
+     * @return the analysis
+     */
+    static GraphAnalysis of( List<String> nodeIds,
+                             Collection<String> entryPoints,
+                             Map<String, ? extends Collection<String>> successors,
+                             Set<String> interruptible,
+                             boolean checkpointed ) {
+
+        final Map<String,Integer> indexById = new HashMap<>( nodeIds.size() * 2 );
+        for( int i = 0; i < nodeIds.size(); ++i ) {
+            indexById.put( nodeIds.get(i), i );
+        }
+        final int end = nodeIds.size();
+        final int[][] next = new int[end + 1][];
+        next[end] = new int[0];
+        for( int i = 0; i < end; ++i ) {
+            final Collection<String> targets = successors.get( nodeIds.get(i) );
+            next[i] = ( targets == null ) ? new int[0] : targets.stream()
+                    .mapToInt( t -> Objects.equals( t, END ) ? end : indexById.getOrDefault( t, -1 ) )
+                    .filter( t -> t >= 0 )
+                    .distinct()
+                    .toArray();
+        }
+
+        // forward reachability from the entry points
+        final BitSet reachable = new BitSet( end + 1 );
+        final Deque<Integer> stack = new ArrayDeque<>();
+        for( String entryPoint : entryPoints ) {
+            final int id = Objects.equals( entryPoint, END ) ? end : indexById.getOrDefault( entryPoint, -1 );
+            if( id >= 0 && !reachable.get( id ) ) {
+                reachable.set( id );
+                stack.push( id );
+            }
+        }
+        while( !stack.isEmpty() ) {
+            for( int t : next[stack.pop()] ) {
+                if( !reachable.get( t ) ) {
+                    reachable.set( t );
+                    stack.push( t );
+                }
+            }
+        }
+
+        // backward reachability from END
+        final List<List<Integer>> previous = new ArrayList<>( end + 1 );
+        for( int i = 0; i <= end; ++i ) {
+            previous.add( new ArrayList<>() );
+        }
+        for( int i = 0; i < end; ++i ) {
+            for( int t : next[i] ) {
+                previous.get( t ).add( i );
+            }
+        }
+        final BitSet reachesEnd = new BitSet( end + 1 );
+        reachesEnd.set( end );
+        stack.push( end );
+        while( !stack.isEmpty() ) {
+            for( int p : previous.get( stack.pop() ) ) {
+                if( !reachesEnd.get( p ) ) {
+                    reachesEnd.set( p );
+                    stack.push( p );
+                }
+            }
+        }
+
+        final Set<String> reachableNodes = new LinkedHashSet<>();
+        final Set<String> unreachableNodes = new LinkedHashSet<>();
+        final Set<String> deadEndNodes = new LinkedHashSet<>();
+        final Set<String> interruptibleNodes = new LinkedHashSet<>();
+        for( int i = 0; i < end; ++i ) {
+            final String id = nodeIds.get(i);
+            if( !reachable.get( i ) ) {
+                unreachableNodes.add( id );
+                continue;
+            }
+            reachableNodes.add( id );
+            if( !reachesEnd.get( i ) ) {
+                deadEndNodes.add( id );
+            }
+            if( interruptible.contains( id ) ) {
+                interruptibleNodes.add( id );
+            }
+        }
+
+        final List<Set<String>> loops = new ArrayList<>();
+        for( int[] component : stronglyConnectedComponents( next, reachable, end ) ) {
+            if( component.length > 1 || Arrays.stream( next[component[0]] ).anyMatch( t -> t == component[0] ) ) {
+                final Set<String> loop = new LinkedHashSet<>();
+                Arrays.stream( component ).sorted().forEach( i -> loop.add( nodeIds.get(i) ) );
+                loops.add( unmodifiableSet( loop ) );
+            }
+        }
+        loops.sort( Comparator.comparingInt( loop -> indexById.get( loop.iterator().next() ) ) );
+
+        return new GraphAnalysis( unmodifiableSet( reachableNodes ),
+                                  unmodifiableSet( unreachableNodes ),
+                                  unmodifiableSet( deadEndNodes ),
+                                  unmodifiableList( loops ),
+                                  unmodifiableSet( interruptibleNodes ),
+                                  checkpointed ? unmodifiableSet( reachableNodes ) : Collections.emptySet() );
+    }
+
+    /**
+     * Computes the strongly connected components of the reachable nodes, by an iterative Tarjan's algorithm,
+     * so that large graphs don't overflow the stack.
+     */
+    private static List<int[]> stronglyConnectedComponents( int[][] next, BitSet reachable, int end ) {
+        final int[] index = new int[end];
+        final int[] lowLink = new int[end];
+        final int[] edgeCursor = new int[end];
+        final boolean[] onStack = new boolean[end];
+        Arrays.fill( index, -1 );
+
+        final Deque<Integer> componentStack = new ArrayDeque<>();
+        final Deque<Integer> callStack = new ArrayDeque<>();
+        final List<int[]> result = new ArrayList<>();
+        int counter = 0;
+
+        for( int root = 0; root < end; ++root ) {
+            if( !reachable.get( root ) || index[root] >= 0 ) {
+                continue;
+            }
+            index[root] = lowLink[root] = counter++;
+            componentStack.push( root );
+            onStack[root] = true;
+            callStack.push( root );
+
+            while( !callStack.isEmpty() ) {
+                final int v = callStack.peek();
+                if( edgeCursor[v] < next[v].length ) {
+                    final int w = next[v][edgeCursor[v]++];
+                    if( w == end ) {
+                        continue;
+                    }
+                    if( index[w] < 0 ) {
+                        index[w] = lowLink[w] = counter++;
+                        componentStack.push( w );
+                        onStack[w] = true;
+                        callStack.push( w );
+                    }
+                    else if( onStack[w] ) {
+                        lowLink[v] = Math.min( lowLink[v], index[w] );
+                    }
+                    continue;
+                }
+                callStack.pop();
+                if( !callStack.isEmpty() ) {
+                    final int parent = callStack.peek();
+                    lowLink[parent] = Math.min( lowLink[parent], lowLink[v] );
+                }
+                if( lowLink[v] == index[v] ) {
+                    final List<Integer> component = new ArrayList<>();
+                    int w;
+                    do {
+                        w = componentStack.pop();
+                        onStack[w] = false;
+                        component.add( w );
+                    } while( w != v );
+                    result.add( component.stream().mapToInt( Integer::intValue ).toArray() );
+                }
+            }
+        }
+        return result;
+    }
+}
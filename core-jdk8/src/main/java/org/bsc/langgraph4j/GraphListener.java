@@ -0,0 +1,102 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+
+/**
+ * Receives the lifecycle events of the runs of a compiled graph, with their timings in nanoseconds.
+ * <p>
+ * Listeners are registered by {@link CompileConfig.Builder#listener(GraphListener)}. They are invoked
+ * synchronously by the thread driving the run, or completing the node action, so they must be fast and
+ * thread safe: a listener is shared by all the runs, which are told apart by their configuration.
+ * When no listener is registered the events aren't produced at all.
+ * <p>
+ * The exceptions raised by a listener are logged and ignored.
+ */
+public interface GraphListener {
+
+    /**
+     * Invoked when a run starts or resumes.
+     *
+     * @param config the run configuration
+     * @param nodeId {@link StateGraph#START}, or the node a resumed run starts from
+     */
+    default void onRunStart( RunnableConfig config, String nodeId ) {}
+
+    /**
+     * Invoked when a run ends, normally, on an interruption or on a failure.
+     *
+     * @param config the run configuration
+     * @param durationNanos the duration of the run
+     * @param steps the number of steps executed by the run, a parallel or send step counting for one
+     * @param error the failure of the run, null if it didn't fail
+     */
+    default void onRunEnd( RunnableConfig config, long durationNanos, int steps, Throwable error ) {}
+
+    /**
+     * Invoked before the action of a node is invoked.
+     *
+     * @param config the run configuration
+     * @param nodeId the node identifier
+     */
+    default void onNodeStart( RunnableConfig config, String nodeId ) {}
+
+    /**
+     * Invoked when the action of a node completes, retries included.
+     *
+     * @param config the run configuration
+     * @param nodeId the node identifier
+     * @param durationNanos the duration of the node execution
+     * @param partialStateSize the number of keys of the partial state returned by the action, 0 if it failed
+     * @param error the failure of the node, null if it succeeded
+     */
+    default void onNodeEnd( RunnableConfig config, String nodeId, long durationNanos, int partialStateSize, Throwable error ) {}
+
+    /**
+     * Invoked when an attempt of a node with a {@link RetryPolicy} has failed and is going to be retried.
+     *
+     * @param config the run configuration
+     * @param nodeId the node identifier
+     * @param attempt the number of the failed attempt, starting from 1
+     * @param error the failure of the attempt
+     */
+    default void onNodeRetry( RunnableConfig config, String nodeId, int attempt, Throwable error ) {}
+
+    /**
+     * Invoked when the next node has been chosen.
+     *
+     * @param config the run configuration
+     * @param sourceId the node the edge starts from
+     * @param targetId the chosen node, {@link StateGraph#END} at the end of the graph
+     * @param conditional true if the node has been chosen by an edge condition, false for a fixed transition
+     * @param durationNanos the time taken to choose the next node, evaluation of the edge condition included
+     */
+    default void onEdge( RunnableConfig config, String sourceId, String targetId, boolean conditional, long durationNanos ) {}
+
+    /**
+     * Invoked when a checkpoint has been stored by the checkpoint saver.
+     *
+     * @param config the run configuration
+     * @param checkpoint the stored checkpoint
+     * @param latencyNanos the time taken by the checkpoint saver
+     */
+    default void onCheckpoint( RunnableConfig config, Checkpoint checkpoint, long latencyNanos ) {}
+
+    /**
+     * Invoked when a run is interrupted.
+     *
+     * @param config the run configuration
+     * @param nodeId the node identifier
+     * @param before true if the run is interrupted before the node, false if after it
+     */
+    default void onInterrupt( RunnableConfig config, String nodeId, boolean before ) {}
+
+    /**
+     * Invoked when a run ends because it has reached the maximum number of iterations,
+     * of the graph or of the loop of the given node.
+     *
+     * @param config the run configuration
+     * @param nodeId the last executed node
+     * @param maxIterations the maximum number of iterations reached
+     */
+    default void onMaxIterations( RunnableConfig config, String nodeId, int maxIterations ) {}
+}
@@ -0,0 +1,86 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+
+import java.util.List;
+
+/**
+ * Forwards the events to the registered listeners, in registration order, isolating the run from their failures.
+ */
+@Slf4j
+final class GraphListeners implements GraphListener {
+
+    private final GraphListener[] listeners;
+
+    GraphListeners( List<GraphListener> listeners ) {
+        this.listeners = listeners.toArray( new GraphListener[0] );
+    }
+
+    private void failed( GraphListener listener, RuntimeException ex ) {
+        log.warn( "graph listener {} failed", listener, ex );
+    }
+
+    @Override
+    public void onRunStart( RunnableConfig config, String nodeId ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onRunStart( config, nodeId ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onRunEnd( RunnableConfig config, long durationNanos, int steps, Throwable error ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onRunEnd( config, durationNanos, steps, error ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onNodeStart( RunnableConfig config, String nodeId ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onNodeStart( config, nodeId ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onNodeEnd( RunnableConfig config, String nodeId, long durationNanos, int partialStateSize, Throwable error ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onNodeEnd( config, nodeId, durationNanos, partialStateSize, error ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onNodeRetry( RunnableConfig config, String nodeId, int attempt, Throwable error ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onNodeRetry( config, nodeId, attempt, error ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onEdge( RunnableConfig config, String sourceId, String targetId, boolean conditional, long durationNanos ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onEdge( config, sourceId, targetId, conditional, durationNanos ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onCheckpoint( RunnableConfig config, Checkpoint checkpoint, long latencyNanos ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onCheckpoint( config, checkpoint, latencyNanos ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onInterrupt( RunnableConfig config, String nodeId, boolean before ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onInterrupt( config, nodeId, before ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+
+    @Override
+    public void onMaxIterations( RunnableConfig config, String nodeId, int maxIterations ) {
+        for( GraphListener listener : listeners ) {
+            try { listener.onMaxIterations( config, nodeId, maxIterations ); } catch( RuntimeException ex ) { failed( listener, ex ); }
+        }
+    }
+}
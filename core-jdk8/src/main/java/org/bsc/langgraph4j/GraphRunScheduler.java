@@ -0,0 +1,369 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * Schedules graph runs submitted by several tenants, keeping at most {@code maxConcurrentRuns} of them in progress.
+ * <p>
+ * Pending runs are ordered by priority, the highest first. Runs of the same priority are ordered by weighted
+ * fair queuing: each tenant gets a share of the run slots proportional to its weight, so that a tenant submitting
+ * a large batch doesn't starve the others. A slot is held until the run completes, without holding a thread.
+ * <p>
+ * When the number of pending runs reaches the high-water mark, runs with a priority lower than the shedding
+ * priority are shed: new ones are rejected, and a queued one is evicted for each new run of a higher priority.
+ * Shed runs fail with a {@link RejectedExecutionException}.
+ */
+public class GraphRunScheduler {
+
+    /**
+     * The priority of the runs a user is waiting for.
+     */
+    public static final int INTERACTIVE_PRIORITY = 10;
+    /**
+     * The default priority.
+     */
+    public static final int NORMAL_PRIORITY = 0;
+    /**
+     * The priority of background work, e.g. batches.
+     */
+    public static final int BATCH_PRIORITY = -10;
+
+    private static final class Tenant {
+        final double weight;
+        double lastFinish;
+        int queued;
+
+        Tenant( double weight ) {
+            this.weight = weight;
+        }
+    }
+
+    private static final class Task<T> {
+        final String tenantId;
+        final int priority;
+        final double virtualFinish;
+        final long sequence;
+        final long queuedAt = System.nanoTime();
+        final Supplier<CompletableFuture<T>> run;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Task( String tenantId, int priority, double virtualFinish, long sequence, Supplier<CompletableFuture<T>> run ) {
+            this.tenantId = tenantId;
+            this.priority = priority;
+            this.virtualFinish = virtualFinish;
+            this.sequence = sequence;
+            this.run = run;
+        }
+    }
+
+    private static final Comparator<Task<?>> ORDER = Comparator.<Task<?>>comparingInt( task -> -task.priority )
+            .thenComparingDouble( task -> task.virtualFinish )
+            .thenComparingLong( task -> task.sequence );
+
+    private int maxConcurrentRuns = Runtime.getRuntime().availableProcessors();
+    private int highWaterMark = Integer.MAX_VALUE;
+    private int shedPriority = NORMAL_PRIORITY;
+    private double defaultWeight = 1.0;
+    private final Map<String, Double> weights = new HashMap<>();
+    private Executor executor = DefaultExecutors.runExecutor();
+
+    private final PriorityQueue<Task<?>> queue = new PriorityQueue<>( ORDER );
+    private final Map<String, Tenant> tenants = new HashMap<>();
+    private double virtualTime;
+    private long sequence;
+    private int running;
+
+    private long submittedCount;
+    private long completedCount;
+    private long shedCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    /**
+     * Submits a run. The run is started by the scheduler executor once a slot is available,
+     * and holds the slot until the returned future completes.
+     * <p>
+     * Cancelling the returned future withdraws a pending run, or cancels the future of a started run.
+     *
+     * @param tenantId the identifier of the tenant submitting the run
+     * @param priority the run priority, the higher the sooner
+     * @param run starts the run, e.g. {@code () -> graph.invokeAsync(inputs)}
+     * @param <T> the type of the run result
+     * @return a CompletableFuture completed as the run, or failed with a {@link RejectedExecutionException} if the run is shed
+     */
+    public <T> CompletableFuture<T> submit( String tenantId, int priority, Supplier<CompletableFuture<T>> run ) {
+        Objects.requireNonNull( tenantId, "tenantId cannot be null" );
+        Objects.requireNonNull( run, "run cannot be null" );
+
+        final Task<T> task;
+        Task<?> evicted = null;
+        synchronized( this ) {
+            ++submittedCount;
+            if( queue.size() >= highWaterMark ) {
+                if( priority < shedPriority ) {
+                    ++shedCount;
+                    final CompletableFuture<T> result = new CompletableFuture<>();
+                    result.completeExceptionally( shed( tenantId ) );
+                    return result;
+                }
+                evicted = evict();
+            }
+            final Tenant tenant = tenants.computeIfAbsent( tenantId, id -> new Tenant( weights.getOrDefault( id, defaultWeight ) ) );
+            tenant.lastFinish = Math.max( virtualTime, tenant.lastFinish ) + 1.0 / tenant.weight;
+            ++tenant.queued;
+            task = new Task<>( tenantId, priority, tenant.lastFinish, sequence++, run );
+            queue.add( task );
+        }
+        if( evicted != null ) {
+            evicted.result.completeExceptionally( shed( evicted.tenantId ) );
+        }
+
+        task.result.whenComplete( (v, ex) -> {
+            if( task.result.isCancelled() ) {
+                withdraw( task );
+            }
+        });
+        dispatch();
+        return task.result;
+    }
+
+    /**
+     * Submits a run of the given graph.
+     *
+     * @param tenantId the identifier of the tenant submitting the run
+     * @param priority the run priority, the higher the sooner
+     * @param graph the compiled graph
+     * @param inputs the input map
+     * @param config the invoke configuration
+     * @param <State> the type of the state of the graph
+     * @return a CompletableFuture completed with the final state
+     * @see #submit(String, int, Supplier)
+     */
+    public <State extends AgentState> CompletableFuture<State> submit( String tenantId,
+                                                                       int priority,
+                                                                       CompiledGraph<State> graph,
+                                                                       Map<String,Object> inputs,
+                                                                       RunnableConfig config ) {
+        return submit( tenantId, priority, () -> graph.invokeAsync( inputs, config ) );
+    }
+
+    /**
+     * Returns a snapshot of the queue and the counters of this scheduler.
+     *
+     * @return the scheduler statistics
+     */
+    public synchronized GraphRunSchedulerStats stats() {
+        final Map<String, Integer> queuedByTenant = new TreeMap<>();
+        tenants.forEach( (id, tenant) -> {
+            if( tenant.queued > 0 ) {
+                queuedByTenant.put( id, tenant.queued );
+            }
+        });
+        return new GraphRunSchedulerStats( queue.size(), running, Collections.unmodifiableMap( queuedByTenant ),
+                                           submittedCount, completedCount, shedCount, totalWaitNanos, maxWaitNanos );
+    }
+
+    /**
+     * Removes a queued run with a priority lower than the shedding priority: the lowest priority, the latest submitted.
+     */
+    private Task<?> evict() {
+        Task<?> result = null;
+        for( Task<?> task : queue ) {
+            if( task.priority < shedPriority && ( result == null || ORDER.compare( task, result ) > 0 ) ) {
+                result = task;
+            }
+        }
+        if( result != null ) {
+            queue.remove( result );
+            dequeued( result );
+            ++shedCount;
+        }
+        return result;
+    }
+
+    private RejectedExecutionException shed( String tenantId ) {
+        return new RejectedExecutionException( format( "run of tenant: %s has been shed, the scheduler queue is full!", tenantId ) );
+    }
+
+    private void withdraw( Task<?> task ) {
+        synchronized( this ) {
+            if( queue.remove( task ) ) {
+                dequeued( task );
+            }
+        }
+    }
+
+    private void dequeued( Task<?> task ) {
+        final Tenant tenant = tenants.get( task.tenantId );
+        if( --tenant.queued == 0 && tenant.lastFinish <= virtualTime ) {
+            // an idle tenant doesn't keep any credit
+            tenants.remove( task.tenantId );
+        }
+    }
+
+    /**
+     * Starts the pending runs allowed by the free slots, on the scheduler executor.
+     */
+    private void dispatch() {
+        final List<Task<?>> started = new ArrayList<>( 1 );
+        synchronized( this ) {
+            while( running < maxConcurrentRuns && !queue.isEmpty() ) {
+                final Task<?> task = queue.poll();
+                virtualTime = Math.max( virtualTime, task.virtualFinish );
+                dequeued( task );
+                if( task.result.isDone() ) {
+                    continue;
+                }
+                ++running;
+                final long wait = System.nanoTime() - task.queuedAt;
+                totalWaitNanos += wait;
+                maxWaitNanos = Math.max( maxWaitNanos, wait );
+                started.add( task );
+            }
+        }
+        for( Task<?> task : started ) {
+            try {
+                executor.execute( () -> start( task ) );
+            }
+            catch( RejectedExecutionException ex ) {
+                task.result.completeExceptionally( ex );
+                completed();
+            }
+        }
+    }
+
+    private <T> void start( Task<T> task ) {
+        if( task.result.isDone() ) {
+            completed();
+            return;
+        }
+        final CompletableFuture<T> future;
+        try {
+            future = Objects.requireNonNull( task.run.get(), "run returned a null future" );
+        }
+        catch( Throwable ex ) {
+            task.result.completeExceptionally( ex );
+            completed();
+            return;
+        }
+        task.result.whenComplete( (v, ex) -> {
+            if( task.result.isCancelled() ) {
+                future.cancel( true );
+            }
+        });
+        future.whenComplete( (value, ex) -> {
+            completed();
+            if( ex != null ) {
+                task.result.completeExceptionally( ( ex instanceof CompletionException && ex.getCause() != null ) ? ex.getCause() : ex );
+            }
+            else {
+                task.result.complete( value );
+            }
+        });
+    }
+
+    private void completed() {
+        synchronized( this ) {
+            --running;
+            ++completedCount;
+        }
+        dispatch();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final GraphRunScheduler scheduler = new GraphRunScheduler();
+
+        /**
+         * Sets the maximum number of runs in progress. Defaults to the number of available processors.
+         *
+         * @param maxConcurrentRuns the maximum number of runs in progress
+         * @return this builder
+         */
+        public Builder maxConcurrentRuns(int maxConcurrentRuns) {
+            if( maxConcurrentRuns <= 0 ) {
+                throw new IllegalArgumentException("maxConcurrentRuns must be greater than 0");
+            }
+            this.scheduler.maxConcurrentRuns = maxConcurrentRuns;
+            return this;
+        }
+        /**
+         * Sets the number of pending runs from which the runs with a low priority are shed. Unbounded by default.
+         *
+         * @param highWaterMark the high-water mark of the queue
+         * @return this builder
+         */
+        public Builder highWaterMark(int highWaterMark) {
+            if( highWaterMark <= 0 ) {
+                throw new IllegalArgumentException("highWaterMark must be greater than 0");
+            }
+            this.scheduler.highWaterMark = highWaterMark;
+            return this;
+        }
+        /**
+         * Sets the priority below which runs are shed once the high-water mark is reached.
+         * Defaults to {@link #NORMAL_PRIORITY}.
+         *
+         * @param shedPriority the shedding priority
+         * @return this builder
+         */
+        public Builder shedPriority(int shedPriority) {
+            this.scheduler.shedPriority = shedPriority;
+            return this;
+        }
+        /**
+         * Sets the weight of the given tenant, that is its share of the run slots relative to the other tenants.
+         *
+         * @param tenantId the tenant identifier
+         * @param weight the tenant weight
+         * @return this builder
+         */
+        public Builder tenantWeight(String tenantId, double weight) {
+            if( weight <= 0.0 ) {
+                throw new IllegalArgumentException("weight must be greater than 0");
+            }
+            this.scheduler.weights.put(Objects.requireNonNull(tenantId, "tenantId cannot be null"), weight);
+            return this;
+        }
+        /**
+         * Sets the weight of the tenants without their own weight. Defaults to 1.
+         *
+         * @param weight the default tenant weight
+         * @return this builder
+         */
+        public Builder defaultTenantWeight(double weight) {
+            if( weight <= 0.0 ) {
+                throw new IllegalArgumentException("weight must be greater than 0");
+            }
+            this.scheduler.defaultWeight = weight;
+            return this;
+        }
+        /**
+         * Sets the executor starting the runs. Defaults to the default run executor of {@link CompileConfig}.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.scheduler.executor = Objects.requireNonNull(executor, "executor cannot be null");
+            return this;
+        }
+        public GraphRunScheduler build() {
+            return scheduler;
+        }
+    }
+
+    private GraphRunScheduler() {}
+}
@@ -0,0 +1,55 @@
+package org.bsc.langgraph4j;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * A snapshot of the queue and the counters of a {@link GraphRunScheduler}.
+ */
+@Value
+public class GraphRunSchedulerStats {
+    /**
+     * The number of pending runs.
+     */
+    int queueDepth;
+    /**
+     * The number of runs in progress.
+     */
+    int running;
+    /**
+     * The number of pending runs of each tenant with pending runs.
+     */
+    Map<String, Integer> queueDepthByTenant;
+    /**
+     * The number of submitted runs, shed ones included.
+     */
+    long submittedCount;
+    /**
+     * The number of started runs that have completed.
+     */
+    long completedCount;
+    /**
+     * The number of runs rejected or evicted because the queue was over its high-water mark.
+     */
+    long shedCount;
+    /**
+     * The total time spent by the started runs in the queue, in nanoseconds.
+     */
+    long totalWaitNanos;
+    /**
+     * The longest time spent by a started run in the queue, in nanoseconds.
+     */
+    long maxWaitNanos;
+
+    /**
+     * Returns the average time spent by the started runs in the queue.
+     *
+     * @return the average queue wait time
+     */
+    public Duration averageWait() {
+        final long started = completedCount + running;
+        return Duration.ofNanos( ( started == 0 ) ? 0 : totalWaitNanos / started );
+    }
+}
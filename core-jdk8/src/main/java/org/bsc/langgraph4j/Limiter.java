@@ -0,0 +1,245 @@
+package org.bsc.langgraph4j;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds the concurrency and the rate of the node executions bound to it, across all the runs of all the graphs.
+ * <p>
+ * Executions wait for a permit in a single queue and are granted in arrival order, so that a busy run
+ * cannot starve the others. Waiting never holds a thread: the permit is a future.
+ * <p>
+ * The rate is enforced by a token bucket holding up to {@link LimiterPolicy#ratePermits()} tokens.
+ * An adaptive concurrency limit follows the exponentially weighted error rate and latency of the executions.
+ *
+ * @see LimiterRegistry
+ */
+@Slf4j
+public final class Limiter {
+
+    /**
+     * The weight of the last execution in the error rate and latency averages.
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * The right to start an execution, which must be released once the execution completes.
+     */
+    final class Permit {
+        private final long grantedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit( long grantedAt ) {
+            this.grantedAt = grantedAt;
+        }
+
+        /**
+         * Releases the permit. A cancelled execution doesn't count as a failure and doesn't affect an adaptive limit.
+         *
+         * @param error the failure of the execution, null if it succeeded
+         */
+        void release( Throwable error ) {
+            if( released.compareAndSet( false, true ) ) {
+                Limiter.this.release( System.nanoTime() - grantedAt, error );
+            }
+        }
+    }
+
+    private static final class Waiter {
+        final CompletableFuture<Permit> permit = new CompletableFuture<>();
+        final long queuedAt = System.nanoTime();
+    }
+
+    private final String name;
+    private final LimiterPolicy policy;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final double nanosPerToken;
+
+    private double limit;
+    private int inFlight;
+    private double tokens;
+    private long refilledAt;
+    private boolean refillScheduled;
+    private double errorRate;
+    private double latencyNanos;
+    private int sinceDecrease;
+
+    private long acquiredCount;
+    private long failureCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    Limiter( String name, LimiterPolicy policy ) {
+        this.name = name;
+        this.policy = policy;
+        this.limit = policy.maxConcurrency();
+        this.tokens = policy.ratePermits();
+        this.refilledAt = System.nanoTime();
+        this.nanosPerToken = policy.ratePeriod()
+                .map( period -> (double)period.toNanos() / policy.ratePermits() )
+                .orElse( 0.0 );
+    }
+
+    /**
+     * Returns the limiter name.
+     *
+     * @return the limiter name
+     */
+    public String name() { return name; }
+
+    /**
+     * Returns the limiter policy.
+     *
+     * @return the limiter policy
+     */
+    public LimiterPolicy policy() { return policy; }
+
+    /**
+     * Returns a snapshot of the state and the counters of this limiter.
+     *
+     * @return the limiter statistics
+     */
+    public synchronized LimiterStats stats() {
+        return new LimiterStats( concurrencyLimit(), inFlight, waiters.size(),
+                                 acquiredCount, failureCount, totalWaitNanos, maxWaitNanos );
+    }
+
+    /**
+     * Requests a permit. Cancelling the returned future withdraws the request.
+     *
+     * @return a CompletableFuture completed with the permit once granted
+     */
+    CompletableFuture<Permit> acquire() {
+        final Waiter waiter = new Waiter();
+        synchronized( this ) {
+            waiters.add( waiter );
+        }
+        dispatch();
+        if( !waiter.permit.isDone() ) {
+            waiter.permit.whenComplete( (permit, ex) -> {
+                if( waiter.permit.isCancelled() ) {
+                    synchronized( this ) {
+                        waiters.remove( waiter );
+                    }
+                }
+            });
+        }
+        return waiter.permit;
+    }
+
+    /**
+     * Grants the permits allowed by the concurrency limit and the rate, in arrival order.
+     * The permits are handed over outside the lock, since their continuations may start executions.
+     */
+    private void dispatch() {
+        final List<Waiter> granted = new ArrayList<>( 1 );
+        final long now = System.nanoTime();
+        synchronized( this ) {
+            refill( now );
+            while( !waiters.isEmpty() && inFlight < concurrencyLimit() ) {
+                final Waiter waiter = waiters.peek();
+                if( waiter.permit.isDone() ) {
+                    waiters.poll();
+                    continue;
+                }
+                if( nanosPerToken > 0.0 && tokens < 1.0 ) {
+                    scheduleRefill();
+                    break;
+                }
+                waiters.poll();
+                if( nanosPerToken > 0.0 ) {
+                    tokens -= 1.0;
+                }
+                ++inFlight;
+                ++acquiredCount;
+                final long wait = now - waiter.queuedAt;
+                totalWaitNanos += wait;
+                maxWaitNanos = Math.max( maxWaitNanos, wait );
+                granted.add( waiter );
+            }
+        }
+        for( Waiter waiter : granted ) {
+            final Permit permit = new Permit( now );
+            if( !waiter.permit.complete( permit ) ) {
+                // withdrawn in the meantime
+                permit.release( new CancellationException() );
+            }
+        }
+    }
+
+    private void release( long latency, Throwable error ) {
+        synchronized( this ) {
+            --inFlight;
+            final boolean cancelled = error instanceof CancellationException;
+            if( error != null && !cancelled ) {
+                ++failureCount;
+            }
+            if( policy.isAdaptive() && !cancelled ) {
+                adapt( latency, error != null );
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Additive increase, multiplicative decrease of the concurrency limit. The executions in progress when
+     * the limit decreases were started under the previous limit, so the limit doesn't decrease again
+     * before as many executions as the new limit have completed.
+     */
+    private void adapt( long latency, boolean failed ) {
+        errorRate += SMOOTHING * ( ( failed ? 1.0 : 0.0 ) - errorRate );
+        latencyNanos = ( latencyNanos == 0.0 ) ? latency : latencyNanos + SMOOTHING * ( latency - latencyNanos );
+        ++sinceDecrease;
+
+        final boolean overloaded = errorRate > policy.errorRateThreshold() ||
+                policy.latencyThreshold().map( threshold -> latencyNanos > threshold.toNanos() ).orElse( false );
+        if( overloaded ) {
+            if( sinceDecrease >= concurrencyLimit() ) {
+                limit = Math.max( policy.minConcurrency(), Math.floor( limit * policy.decreaseFactor() ) );
+                sinceDecrease = 0;
+                log.debug( "limiter {} overloaded, concurrency limit decreased to {}", name, concurrencyLimit() );
+            }
+        }
+        else if( !failed ) {
+            limit = Math.min( policy.maxConcurrency(), limit + 1.0 / limit );
+        }
+    }
+
+    private int concurrencyLimit() {
+        return (int)limit;
+    }
+
+    private void refill( long now ) {
+        if( nanosPerToken > 0.0 ) {
+            tokens = Math.min( policy.ratePermits(), tokens + ( now - refilledAt ) / nanosPerToken );
+        }
+        refilledAt = now;
+    }
+
+    private void scheduleRefill() {
+        if( refillScheduled ) {
+            return;
+        }
+        refillScheduled = true;
+        final long delay = (long)Math.ceil( ( 1.0 - tokens ) * nanosPerToken );
+        Deadlines.schedule( () -> {
+            synchronized( this ) {
+                refillScheduled = false;
+            }
+            dispatch();
+        }, Duration.ofNanos( delay ) );
+    }
+
+    @Override
+    public String toString() {
+        return "Limiter{name='" + name + "'}";
+    }
+}
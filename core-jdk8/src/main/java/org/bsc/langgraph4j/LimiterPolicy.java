@@ -0,0 +1,193 @@
+package org.bsc.langgraph4j;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Describes the limits of a {@link Limiter}: the maximum number of concurrent executions and the maximum rate.
+ * <p>
+ * When adaptive, the concurrency limit starts at the maximum and follows an additive increase,
+ * multiplicative decrease (AIMD) algorithm: it decreases when the error rate or the latency of the executions
+ * exceed their thresholds, at most once per window of {@code limit} executions, and it grows back slowly otherwise.
+ */
+public class LimiterPolicy {
+
+    private int maxConcurrency = Integer.MAX_VALUE;
+    private int ratePermits;
+    private Duration ratePeriod;
+    private boolean adaptive;
+    private int minConcurrency = 1;
+    private Duration latencyThreshold;
+    private double errorRateThreshold = 0.1;
+    private double decreaseFactor = 0.5;
+
+    /**
+     * Returns the maximum number of concurrent executions.
+     *
+     * @return the maximum concurrency, {@link Integer#MAX_VALUE} if unbounded
+     */
+    public int maxConcurrency() { return maxConcurrency; }
+
+    /**
+     * Returns the number of executions allowed per rate period.
+     *
+     * @return the rate permits, 0 if the rate is unbounded
+     */
+    public int ratePermits() { return ratePermits; }
+
+    /**
+     * Returns the period of the rate.
+     *
+     * @return an Optional containing the rate period if the rate is bounded
+     */
+    public Optional<Duration> ratePeriod() { return Optional.ofNullable( ratePeriod ); }
+
+    /**
+     * Checks if the concurrency limit adapts to the observed error rate and latency.
+     *
+     * @return true if the limit is adaptive, false otherwise
+     */
+    public boolean isAdaptive() { return adaptive; }
+
+    /**
+     * Returns the lower bound of an adaptive concurrency limit.
+     *
+     * @return the minimum concurrency
+     */
+    public int minConcurrency() { return minConcurrency; }
+
+    /**
+     * Returns the average latency above which an adaptive concurrency limit decreases.
+     *
+     * @return an Optional containing the latency threshold if the latency drives the limit
+     */
+    public Optional<Duration> latencyThreshold() { return Optional.ofNullable( latencyThreshold ); }
+
+    /**
+     * Returns the error rate above which an adaptive concurrency limit decreases.
+     *
+     * @return the error rate threshold, between 0 and 1
+     */
+    public double errorRateThreshold() { return errorRateThreshold; }
+
+    /**
+     * Returns the factor applied to an adaptive concurrency limit when it decreases.
+     *
+     * @return the decrease factor, between 0 and 1
+     */
+    public double decreaseFactor() { return decreaseFactor; }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final LimiterPolicy policy = new LimiterPolicy();
+
+        /**
+         * Sets the maximum number of concurrent executions. Unbounded by default.
+         *
+         * @param maxConcurrency the maximum concurrency
+         * @return this builder
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if( maxConcurrency <= 0 ) {
+                throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+            }
+            this.policy.maxConcurrency = maxConcurrency;
+            return this;
+        }
+        /**
+         * Sets the maximum rate of the executions, e.g. {@code rate(3000, Duration.ofMinutes(1))}.
+         * Up to {@code permits} executions can start in a burst. Unbounded by default.
+         *
+         * @param permits the number of executions allowed per period
+         * @param period the rate period
+         * @return this builder
+         */
+        public Builder rate(int permits, Duration period) {
+            if( permits <= 0 ) {
+                throw new IllegalArgumentException("permits must be greater than 0");
+            }
+            Objects.requireNonNull(period, "period cannot be null");
+            if( period.isZero() || period.isNegative() ) {
+                throw new IllegalArgumentException("period must be positive");
+            }
+            this.policy.ratePermits = permits;
+            this.policy.ratePeriod = period;
+            return this;
+        }
+        /**
+         * Sets whether the concurrency limit adapts to the observed error rate and latency. Disabled by default.
+         * An adaptive limiter requires a maximum concurrency.
+         *
+         * @param adaptive true to adapt the concurrency limit
+         * @return this builder
+         */
+        public Builder adaptive(boolean adaptive) {
+            this.policy.adaptive = adaptive;
+            return this;
+        }
+        /**
+         * Sets the lower bound of an adaptive concurrency limit. Defaults to 1.
+         *
+         * @param minConcurrency the minimum concurrency
+         * @return this builder
+         */
+        public Builder minConcurrency(int minConcurrency) {
+            if( minConcurrency <= 0 ) {
+                throw new IllegalArgumentException("minConcurrency must be greater than 0");
+            }
+            this.policy.minConcurrency = minConcurrency;
+            return this;
+        }
+        /**
+         * Sets the average latency above which an adaptive concurrency limit decreases. Not set by default.
+         *
+         * @param latencyThreshold the latency threshold, null to ignore the latency
+         * @return this builder
+         */
+        public Builder latencyThreshold(Duration latencyThreshold) {
+            this.policy.latencyThreshold = latencyThreshold;
+            return this;
+        }
+        /**
+         * Sets the error rate above which an adaptive concurrency limit decreases. Defaults to 0.1.
+         *
+         * @param errorRateThreshold the error rate threshold, between 0 and 1
+         * @return this builder
+         */
+        public Builder errorRateThreshold(double errorRateThreshold) {
+            if( errorRateThreshold < 0.0 || errorRateThreshold > 1.0 ) {
+                throw new IllegalArgumentException("errorRateThreshold must be between 0 and 1");
+            }
+            this.policy.errorRateThreshold = errorRateThreshold;
+            return this;
+        }
+        /**
+         * Sets the factor applied to an adaptive concurrency limit when it decreases. Defaults to 0.5.
+         *
+         * @param decreaseFactor the decrease factor, between 0 and 1 excluded
+         * @return this builder
+         */
+        public Builder decreaseFactor(double decreaseFactor) {
+            if( decreaseFactor <= 0.0 || decreaseFactor >= 1.0 ) {
+                throw new IllegalArgumentException("decreaseFactor must be between 0 and 1 excluded");
+            }
+            this.policy.decreaseFactor = decreaseFactor;
+            return this;
+        }
+        public LimiterPolicy build() {
+            if( policy.adaptive && policy.maxConcurrency == Integer.MAX_VALUE ) {
+                throw new IllegalStateException("an adaptive limiter requires a maxConcurrency");
+            }
+            if( policy.minConcurrency > policy.maxConcurrency ) {
+                throw new IllegalStateException("minConcurrency cannot be greater than maxConcurrency");
+            }
+            return policy;
+        }
+    }
+
+    private LimiterPolicy() {}
+}
@@ -0,0 +1,57 @@
+package org.bsc.langgraph4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * A set of named {@link Limiter}s, usually one per provider, shared by the compiled graphs whose nodes use them.
+ * <p>
+ * A node is bound to a limiter by {@link CompileConfig.Builder#nodeLimiter(String, String)}: its executions
+ * are then queued, in arrival order, with those of all the other runs bound to the same limiter.
+ */
+public class LimiterRegistry {
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a new limiter.
+     *
+     * @param name the limiter name
+     * @param policy the limiter policy
+     * @return the registered limiter
+     * @throws IllegalArgumentException if a limiter with the same name is already registered
+     */
+    public Limiter register( String name, LimiterPolicy policy ) {
+        final Limiter limiter = new Limiter( Objects.requireNonNull( name, "name cannot be null" ),
+                                             Objects.requireNonNull( policy, "policy cannot be null" ) );
+        if( limiters.putIfAbsent( name, limiter ) != null ) {
+            throw new IllegalArgumentException( format( "limiter: %s already registered!", name ) );
+        }
+        return limiter;
+    }
+
+    /**
+     * Returns the limiter with the given name.
+     *
+     * @param name the limiter name
+     * @return an Optional containing the limiter if registered, otherwise an empty Optional
+     */
+    public Optional<Limiter> limiter( String name ) {
+        return Optional.ofNullable( limiters.get( name ) );
+    }
+
+    /**
+     * Returns the registered limiters.
+     *
+     * @return the registered limiters
+     */
+    public Collection<Limiter> limiters() {
+        return Collections.unmodifiableCollection( limiters.values() );
+    }
+}
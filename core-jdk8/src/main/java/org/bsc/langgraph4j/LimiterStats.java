@@ -0,0 +1,49 @@
+package org.bsc.langgraph4j;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of the state and the counters of a {@link Limiter}.
+ */
+@Value
+public class LimiterStats {
+    /**
+     * The current concurrency limit.
+     */
+    int limit;
+    /**
+     * The number of executions in progress.
+     */
+    int inFlight;
+    /**
+     * The number of executions waiting for a permit.
+     */
+    int queued;
+    /**
+     * The number of permits granted.
+     */
+    long acquiredCount;
+    /**
+     * The number of executions that failed.
+     */
+    long failureCount;
+    /**
+     * The total time spent by the executions waiting for a permit, in nanoseconds.
+     */
+    long totalWaitNanos;
+    /**
+     * The longest time spent by an execution waiting for a permit, in nanoseconds.
+     */
+    long maxWaitNanos;
+
+    /**
+     * Returns the average time spent by the executions waiting for a permit.
+     *
+     * @return the average queue wait time
+     */
+    public Duration averageWait() {
+        return Duration.ofNanos( ( acquiredCount == 0 ) ? 0 : totalWaitNanos / acquiredCount );
+    }
+}
@@ -1,8 +1,10 @@
 package org.bsc.langgraph4j;
 
+import lombok.AllArgsConstructor;
 import lombok.Value;
 import lombok.experimental.Accessors;
 import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.cache.CachePolicy;
 import org.bsc.langgraph4j.state.AgentState;
 
 import java.util.Objects;
@@ -13,6 +15,7 @@ import java.util.Objects;
  * @param <State> the type of the state associated with the node
  */
 @Value
+@AllArgsConstructor
 @Accessors(fluent = true)
 class Node<State extends AgentState> {
 
@@ -27,6 +30,25 @@ class Node<State extends AgentState> {
      */
     AsyncNodeAction<State> action;
 
+    /**
+     * The policy used to memoize the results of the action, null if results are not cached.
+     */
+    CachePolicy<State> cachePolicy;
+
+    /**
+     * The policy used to retry the action when it fails, null if the action is not retried.
+     */
+    RetryPolicy retryPolicy;
+
+    /**
+     * The compiled graph executed by the node, null if the node is not a subgraph.
+     */
+    Subgraph<?> subgraph;
+
+    Node( String id, AsyncNodeAction<State> action ) {
+        this( id, action, null, null, null );
+    }
+
     /**
      * Checks if this node is equal to another object.
      *
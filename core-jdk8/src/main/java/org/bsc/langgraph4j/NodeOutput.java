@@ -1,7 +1,10 @@
 package org.bsc.langgraph4j;
 
+import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Value;
 import lombok.experimental.Accessors;
+import lombok.experimental.NonFinal;
 import org.bsc.langgraph4j.state.AgentState;
 
 /**
@@ -9,10 +12,16 @@ import org.bsc.langgraph4j.state.AgentState;
  *
  * @param <State> the type of the state associated with the node output
  */
-@Value(staticConstructor="of")
+@Value
+@NonFinal
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
 @Accessors(fluent = true)
 public class NodeOutput<State extends AgentState> {
 
+    public static <State extends AgentState> NodeOutput<State> of( String node, State state ) {
+        return new NodeOutput<>( node, state );
+    }
+
     /**
      * The identifier of the node.
      */
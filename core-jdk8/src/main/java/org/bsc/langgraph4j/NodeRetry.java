@@ -0,0 +1,22 @@
+package org.bsc.langgraph4j;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The retry policy of a node, with the counters of its attempts.
+ */
+final class NodeRetry {
+
+    final RetryPolicy policy;
+    final LongAdder attempts = new LongAdder();
+    final LongAdder retries = new LongAdder();
+    final LongAdder failures = new LongAdder();
+
+    NodeRetry( RetryPolicy policy ) {
+        this.policy = policy;
+    }
+
+    RetryStats stats() {
+        return new RetryStats( attempts.sum(), retries.sum(), failures.sum() );
+    }
+}
@@ -0,0 +1,153 @@
+package org.bsc.langgraph4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Describes how a failed node action is retried.
+ * <p>
+ * Each retry waits for an exponential backoff, randomized by a jitter so that runs failing together
+ * don't retry together. The waits never hold a thread.
+ * All the attempts get the same input state, which cannot be modified by the action.
+ * <p>
+ * By default any failure is retried, except cancellations and {@link Error}s.
+ * The node timeout, if any, applies to each attempt.
+ */
+public class RetryPolicy {
+
+    private int maxAttempts = 3;
+    private Duration initialInterval = Duration.ofMillis(500);
+    private double backoffFactor = 2.0;
+    private Duration maxInterval = Duration.ofSeconds(30);
+    private double jitter = 0.5;
+    private Predicate<Throwable> retryOn = ex -> !( ex instanceof CancellationException || ex instanceof Error );
+
+    /**
+     * Returns the maximum number of attempts, the first one included.
+     *
+     * @return the maximum number of attempts
+     */
+    public int maxAttempts() { return maxAttempts; }
+
+    /**
+     * Checks if the given failure can be retried.
+     *
+     * @param error the failure of an attempt
+     * @return true if the failure can be retried, false otherwise
+     */
+    public boolean isRetryable( Throwable error ) { return retryOn.test( error ); }
+
+    /**
+     * Computes the wait before the given retry.
+     *
+     * @param retry the retry number, starting from 1
+     * @return the wait before the retry
+     */
+    public Duration backoff( int retry ) {
+        final double interval = Math.min( initialInterval.toNanos() * Math.pow( backoffFactor, retry - 1 ),
+                                          maxInterval.toNanos() );
+        final double randomized = ( jitter == 0.0 ) ? interval :
+                interval * ( 1.0 - jitter + 2.0 * jitter * ThreadLocalRandom.current().nextDouble() );
+        return Duration.ofNanos( (long)Math.min( randomized, maxInterval.toNanos() ) );
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final RetryPolicy policy = new RetryPolicy();
+
+        /**
+         * Sets the maximum number of attempts, the first one included. Defaults to 3.
+         *
+         * @param maxAttempts the maximum number of attempts
+         * @return this builder
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if( maxAttempts <= 0 ) {
+                throw new IllegalArgumentException("maxAttempts must be greater than 0");
+            }
+            this.policy.maxAttempts = maxAttempts;
+            return this;
+        }
+        /**
+         * Sets the wait before the first retry. Defaults to 500ms.
+         *
+         * @param initialInterval the wait before the first retry
+         * @return this builder
+         */
+        public Builder initialInterval(Duration initialInterval) {
+            this.policy.initialInterval = Objects.requireNonNull(initialInterval, "initialInterval cannot be null");
+            return this;
+        }
+        /**
+         * Sets the factor applied to the wait on each retry. Defaults to 2.
+         *
+         * @param backoffFactor the backoff factor
+         * @return this builder
+         */
+        public Builder backoffFactor(double backoffFactor) {
+            if( backoffFactor < 1.0 ) {
+                throw new IllegalArgumentException("backoffFactor must be greater than or equal to 1");
+            }
+            this.policy.backoffFactor = backoffFactor;
+            return this;
+        }
+        /**
+         * Sets the upper bound of the wait between two attempts. Defaults to 30s.
+         *
+         * @param maxInterval the maximum wait
+         * @return this builder
+         */
+        public Builder maxInterval(Duration maxInterval) {
+            this.policy.maxInterval = Objects.requireNonNull(maxInterval, "maxInterval cannot be null");
+            return this;
+        }
+        /**
+         * Sets the jitter: each wait is randomized in the range {@code [wait * (1 - jitter), wait * (1 + jitter)]}.
+         * Defaults to 0.5, 0 disables the jitter.
+         *
+         * @param jitter the jitter, between 0 and 1
+         * @return this builder
+         */
+        public Builder jitter(double jitter) {
+            if( jitter < 0.0 || jitter > 1.0 ) {
+                throw new IllegalArgumentException("jitter must be between 0 and 1");
+            }
+            this.policy.jitter = jitter;
+            return this;
+        }
+        /**
+         * Sets the predicate that tells which failures are retried.
+         *
+         * @param retryOn the retryable failures predicate
+         * @return this builder
+         */
+        public Builder retryOn(Predicate<Throwable> retryOn) {
+            this.policy.retryOn = Objects.requireNonNull(retryOn, "retryOn cannot be null");
+            return this;
+        }
+        /**
+         * Retries only the failures of the given types.
+         *
+         * @param types the retryable failure types
+         * @return this builder
+         */
+        @SafeVarargs
+        public final Builder retryOn(Class<? extends Throwable>... types) {
+            final List<Class<? extends Throwable>> retryable = Arrays.asList( Objects.requireNonNull(types, "types cannot be null") );
+            return retryOn( ex -> retryable.stream().anyMatch( type -> type.isInstance(ex) ) );
+        }
+        public RetryPolicy build() {
+            return policy;
+        }
+    }
+
+    private RetryPolicy() {}
+}
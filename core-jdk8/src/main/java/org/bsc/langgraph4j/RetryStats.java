@@ -0,0 +1,22 @@
+package org.bsc.langgraph4j;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the attempts of a node with a {@link RetryPolicy}, over all the runs of a compiled graph.
+ */
+@Value
+public class RetryStats {
+    /**
+     * The number of invocations of the node action, retries included.
+     */
+    long attemptCount;
+    /**
+     * The number of retries.
+     */
+    long retryCount;
+    /**
+     * The number of executions that failed after their last attempt, or with a failure that isn't retryable.
+     */
+    long failureCount;
+}
@@ -0,0 +1,60 @@
+package org.bsc.langgraph4j;
+
+import java.util.concurrent.Future;
+
+/**
+ * The cancellation state of a graph run.
+ * <p>
+ * Cancellation is cooperative: the run checks it between steps, and the futures of the node actions
+ * in progress are cancelled so that their producers can stop as well.
+ */
+final class RunCancellation {
+
+    private volatile Throwable reason;
+    private volatile Future<?>[] inFlight;
+
+    /**
+     * Cancels the run.
+     *
+     * @param reason the error the run fails with
+     * @return true if the run has been cancelled by this call, false if it was already cancelled
+     */
+    boolean cancel( Throwable reason ) {
+        synchronized ( this ) {
+            if( this.reason != null ) {
+                return false;
+            }
+            this.reason = reason;
+        }
+        cancel( inFlight );
+        return true;
+    }
+
+    boolean isCancelled() {
+        return reason != null;
+    }
+
+    Throwable reason() {
+        return reason;
+    }
+
+    /**
+     * Registers the futures of the node actions in progress, cancelling them if the run has already been cancelled.
+     *
+     * @param futures the futures in progress
+     */
+    void track( Future<?>... futures ) {
+        inFlight = futures;
+        if( reason != null ) {
+            cancel( futures );
+        }
+    }
+
+    private static void cancel( Future<?>[] futures ) {
+        if( futures != null ) {
+            for( Future<?> f : futures ) {
+                f.cancel( true );
+            }
+        }
+    }
+}
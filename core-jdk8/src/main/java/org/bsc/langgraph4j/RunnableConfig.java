@@ -2,6 +2,7 @@ package org.bsc.langgraph4j;
 
 import lombok.ToString;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -11,6 +12,9 @@ public class RunnableConfig {
     private String threadId;
     private String checkPointId;
     private String nextNode;
+    private Duration runTimeout;
+    private StreamMode streamMode = StreamMode.VALUES;
+    private int snapshotInterval;
 
     public Optional<String> threadId() {
         return Optional.ofNullable(threadId);
@@ -21,6 +25,31 @@ public class RunnableConfig {
     public Optional<String> nextNode() {
         return Optional.ofNullable(nextNode);
     }
+    /**
+     * The maximum duration of the run. When it expires the run is cancelled.
+     *
+     * @return an Optional containing the run timeout if present
+     */
+    public Optional<Duration> runTimeout() {
+        return Optional.ofNullable(runTimeout);
+    }
+
+    /**
+     * What the node outputs of a stream carry.
+     *
+     * @return the stream mode
+     */
+    public StreamMode streamMode() {
+        return streamMode;
+    }
+    /**
+     * In {@link StreamMode#UPDATES} mode, the number of node outputs between two snapshots of the whole state.
+     *
+     * @return the snapshot interval, 0 if node outputs never carry a snapshot
+     */
+    public int snapshotInterval() {
+        return snapshotInterval;
+    }
 
     public static Builder builder() {
         return new Builder();
@@ -49,6 +78,36 @@ public class RunnableConfig {
             return this;
         }
 
+        public Builder runTimeout(Duration runTimeout) {
+            this.config.runTimeout = runTimeout;
+            return this;
+        }
+
+        /**
+         * Sets what the node outputs of a stream carry. Defaults to {@link StreamMode#VALUES}.
+         *
+         * @param streamMode the stream mode
+         * @return this builder
+         */
+        public Builder streamMode(StreamMode streamMode) {
+            this.config.streamMode = Objects.requireNonNull(streamMode, "streamMode cannot be null");
+            return this;
+        }
+        /**
+         * In {@link StreamMode#UPDATES} mode, makes every n-th node output carry a snapshot of the whole state
+         * instead of an update. Defaults to 0, that is never.
+         *
+         * @param snapshotInterval the number of node outputs between two snapshots, 0 to disable snapshots
+         * @return this builder
+         */
+        public Builder snapshotInterval(int snapshotInterval) {
+            if( snapshotInterval < 0 ) {
+                throw new IllegalArgumentException("snapshotInterval cannot be negative");
+            }
+            this.config.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
         public RunnableConfig build() {
             return config;
         }
@@ -59,6 +118,9 @@ public class RunnableConfig {
         this.threadId = config.threadId;
         this.checkPointId = config.checkPointId;
         this.nextNode = config.nextNode;
+        this.runTimeout = config.runTimeout;
+        this.streamMode = config.streamMode;
+        this.snapshotInterval = config.snapshotInterval;
     }
     private RunnableConfig() {}
 
@@ -3,6 +3,8 @@ package org.bsc.langgraph4j;
 import lombok.var;
 import org.bsc.langgraph4j.action.AsyncEdgeAction;
 import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.action.AsyncSendAction;
+import org.bsc.langgraph4j.cache.CachePolicy;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.AgentStateFactory;
 import org.bsc.langgraph4j.state.Channel;
@@ -33,7 +35,17 @@ public class StateGraph<State extends AgentState> {
         finishPointNotExist("finishPoint: %s doesn't exist!"),
         missingNodeReferencedByEdge("edge sourceId: %s reference a not existent node!"),
         missingNodeInEdgeMapping("edge mapping for sourceId: %s contains a not existent nodeId %s!"),
-        invalidEdgeTarget("edge sourceId: %s has an initialized target value!");
+        invalidEdgeTarget("edge sourceId: %s has an initialized target value!"),
+        duplicateEdgeTargetError("edge from sourceId: %s to targetId: %s already exist!"),
+        parallelEdgeToEndError("parallel edges from sourceId: %s cannot target END!"),
+        invalidParallelBranch("parallel branch node: %s must have a single unconditional outgoing edge!"),
+        parallelBranchesJoinMismatch("parallel branches from sourceId: %s must converge on the same node!"),
+        interruptOnParallelBranch("parallel branch node: %s cannot be interrupted!"),
+        nodeNotInLoop("node: %s with a maximum number of iterations is not part of a loop!"),
+        sendEdgeFromStartError("send edge cannot start from START!"),
+        sendEdgeToEndError("send edge from sourceId: %s cannot target END!"),
+        interruptOnSendTarget("send edge target node: %s cannot be interrupted!"),
+        unknownLimiter("limiter: %s of node: %s isn't registered!");
 
         private final String errorMessage;
 
@@ -59,6 +71,8 @@ public class StateGraph<State extends AgentState> {
         missingNodeInEdgeMapping("cannot find edge mapping for id: %s in conditional edge with sourceId: %s "),
         missingNode("node with id: %s doesn't exist!"),
         missingEdge("edge with sourceId: %s doesn't exist!"),
+        nodeTimeout("node with id: %s has not completed within %s!"),
+        runTimeout("run has not completed within %s!"),
         executionError("%s");
 
         private final String errorMessage;
@@ -169,13 +183,97 @@ public class StateGraph<State extends AgentState> {
      * @throws GraphStateException if the node identifier is invalid or the node already exists
      */
     public StateGraph<State> addNode(String id, AsyncNodeAction<State> action) throws GraphStateException {
-        if (Objects.equals(id, END)) {
+        return addNode(new Node<>(id, action));
+    }
+
+    /**
+     * Adds a node whose results are memoized to the graph.
+     * <p>
+     * When the node is executed with an input equivalent to a previous one, according to the cache policy,
+     * the cached partial state is reused and the action isn't invoked.
+     * The cache is shared by all the runs of the compiled graph.
+     *
+     * @param id     the identifier of the node
+     * @param action the action to be performed by the node
+     * @param cachePolicy the policy used to memoize the results of the action, null to disable caching
+     * @throws GraphStateException if the node identifier is invalid or the node already exists
+     */
+    public StateGraph<State> addNode(String id, AsyncNodeAction<State> action, CachePolicy<State> cachePolicy) throws GraphStateException {
+        return addNode(new Node<>(id, action, cachePolicy, null, null));
+    }
+
+    /**
+     * Adds a node whose action is retried when it fails to the graph.
+     * <p>
+     * The failed attempts are retried as described by the retry policy, without failing the run.
+     * The attempts of the node are reported by {@link CompiledGraph#getRetryStats(String)}.
+     *
+     * @param id     the identifier of the node
+     * @param action the action to be performed by the node
+     * @param retryPolicy the policy used to retry the action, null to disable retries
+     * @throws GraphStateException if the node identifier is invalid or the node already exists
+     */
+    public StateGraph<State> addNode(String id, AsyncNodeAction<State> action, RetryPolicy retryPolicy) throws GraphStateException {
+        return addNode(new Node<>(id, action, null, retryPolicy, null));
+    }
+
+    /**
+     * Adds a node whose results are memoized and whose action is retried when it fails to the graph.
+     * The cache is looked up once, before the first attempt, so cache hits don't count as attempts.
+     *
+     * @param id     the identifier of the node
+     * @param action the action to be performed by the node
+     * @param cachePolicy the policy used to memoize the results of the action, null to disable caching
+     * @param retryPolicy the policy used to retry the action, null to disable retries
+     * @throws GraphStateException if the node identifier is invalid or the node already exists
+     * @see #addNode(String, AsyncNodeAction, CachePolicy)
+     * @see #addNode(String, AsyncNodeAction, RetryPolicy)
+     */
+    public StateGraph<State> addNode(String id, AsyncNodeAction<State> action, CachePolicy<State> cachePolicy, RetryPolicy retryPolicy) throws GraphStateException {
+        return addNode(new Node<>(id, action, cachePolicy, retryPolicy, null));
+    }
+
+    /**
+     * Adds a compiled graph as a node of the graph.
+     * <p>
+     * By default the subgraph is inlined in the execution plan of this graph at compile time: its nodes are executed
+     * as nodes of this graph, identified as {@code id/nodeId}, and update this graph state through its channels.
+     * Nodes and conditions of the subgraph get a state built by the subgraph state factory.
+     * If inlining is disabled (see {@link CompileConfig.Builder#inlineSubgraphs(boolean)}) or the subgraph is a
+     * parallel branch, the subgraph is executed as a nested run.
+     * <p>
+     * The compile configuration of the subgraph is only applied by a nested run, so a subgraph compiled with a
+     * checkpoint saver, interruptions, node timeouts, loop limits, node limiters or a durability other than
+     * {@link Durability#STEP} is always executed as a nested run.
+     *
+     * @param id the identifier of the node
+     * @param subgraph the compiled graph executed by the node
+     * @param channelMapping the keys of the subgraph state mapped to the keys of this graph state, keys not mapped are shared as they are
+     * @throws GraphStateException if the node identifier is invalid or the node already exists
+     */
+    public <S extends AgentState> StateGraph<State> addSubgraph(String id, CompiledGraph<S> subgraph, Map<String,String> channelMapping) throws GraphStateException {
+        var node = new Subgraph<>(subgraph, channelMapping);
+        return addNode(new Node<>(id, node.nestedAction(channels), null, null, node));
+    }
+
+    /**
+     * Adds a compiled graph, sharing the state keys of this graph, as a node of the graph.
+     *
+     * @param id the identifier of the node
+     * @param subgraph the compiled graph executed by the node
+     * @throws GraphStateException if the node identifier is invalid or the node already exists
+     * @see #addSubgraph(String, CompiledGraph, Map)
+     */
+    public <S extends AgentState> StateGraph<State> addSubgraph(String id, CompiledGraph<S> subgraph) throws GraphStateException {
+        return addSubgraph(id, subgraph, Collections.emptyMap());
+    }
+
+    private StateGraph<State> addNode(Node<State> node) throws GraphStateException {
+        if (Objects.equals(node.id(), END)) {
             throw Errors.invalidNodeIdentifier.exception(END);
         }
-        var node = new Node<State>(id, action);
-
         if (nodes.contains(node)) {
-            throw Errors.duplicateNodeError.exception(id);
+            throw Errors.duplicateNodeError.exception(node.id());
         }
 
         nodes.add(node);
@@ -184,6 +282,10 @@ public class StateGraph<State extends AgentState> {
 
     /**
      * Adds an edge to the graph.
+     * <p>
+     * Adding more edges from the same source node creates a parallel fan-out: all the targets are
+     * executed concurrently and their results are merged into the state, in declaration order, before
+     * moving on to the node where all the branches converge (fan-in).
      *
      * @param sourceId the identifier of the source node
      * @param targetId the identifier of the target node
@@ -199,7 +301,52 @@ public class StateGraph<State extends AgentState> {
             return this;
         }
 
-        var edge = new Edge<State>(sourceId, new EdgeValue<>(targetId, null));
+        var existingEdge = findEdge(sourceId);
+
+        if (existingEdge.isPresent()) { // fan-out: targets will be executed in parallel
+            var edge = existingEdge.get();
+            if (edge.target().value() != null || edge.isSend()) {
+                throw Errors.duplicateEdgeError.exception(sourceId);
+            }
+            if (Objects.equals(targetId, END) || edge.targets().stream().anyMatch(t -> Objects.equals(t.id(), END))) {
+                throw Errors.parallelEdgeToEndError.exception(sourceId);
+            }
+            if (edge.targets().stream().anyMatch(t -> Objects.equals(t.id(), targetId))) {
+                throw Errors.duplicateEdgeTargetError.exception(sourceId, targetId);
+            }
+            edge.targets().add(new EdgeValue<>(targetId, null));
+            return this;
+        }
+
+        edges.add(new Edge<State>(sourceId, new EdgeValue<>(targetId, null)));
+        return this;
+    }
+
+    /**
+     * Adds a send edge to the graph: a dynamic fan-out (map) followed by a fan-in (reduce).
+     * <p>
+     * When the source node completes, the send action computes a list of work items, then the target node
+     * is invoked concurrently once per work item. Each invocation gets the current state where the keys of its
+     * work item are replaced by their values. The partial states returned by the invocations are merged into
+     * the state, through the channels and in the work items order, before following the edge of the target node.
+     * No work item means that the target node isn't invoked.
+     *
+     * @param sourceId the identifier of the source node
+     * @param targetId the identifier of the target node
+     * @param send the action computing the work items
+     * @throws GraphStateException if the edge identifier is invalid or the edge already exists
+     */
+    public StateGraph<State> addSendEdge(String sourceId, String targetId, AsyncSendAction<State> send) throws GraphStateException {
+        if (Objects.equals(sourceId, END)) {
+            throw Errors.invalidEdgeIdentifier.exception(END);
+        }
+        if (Objects.equals(sourceId, START)) {
+            throw Errors.sendEdgeFromStartError.exception();
+        }
+        if (Objects.equals(targetId, END)) {
+            throw Errors.sendEdgeToEndError.exception(sourceId);
+        }
+        var edge = new Edge<State>(sourceId, new EdgeValue<>(targetId, null), Objects.requireNonNull(send, "send cannot be null"));
 
         if (edges.contains(edge)) {
             throw Errors.duplicateEdgeError.exception(sourceId);
@@ -240,6 +387,18 @@ public class StateGraph<State extends AgentState> {
         return this;
     }
 
+    /**
+     * Finds the edge starting from the specified node.
+     *
+     * @param sourceId the identifier of the source node
+     * @return an Optional containing the edge if present, otherwise an empty Optional
+     */
+    private Optional<Edge<State>> findEdge(String sourceId) {
+        return edges.stream()
+                .filter(e -> Objects.equals(e.sourceId(), sourceId))
+                .findFirst();
+    }
+
     /**
      * Creates a fake node with the specified identifier.
      *
@@ -250,6 +409,35 @@ public class StateGraph<State extends AgentState> {
         return new Node<>(id, null);
     }
 
+    /**
+     * Validates a parallel edge: every branch must have a single unconditional outgoing edge,
+     * all the branches must converge on the same node, and no branch can be interrupted.
+     *
+     * @param edge the parallel edge
+     * @param config the compile configuration
+     * @throws GraphStateException if the parallel edge is not valid
+     */
+    private void validateParallelEdge(Edge<State> edge, CompileConfig config) throws GraphStateException {
+        final var interrupts = new HashSet<String>(Arrays.asList(config.getInterruptBefore()));
+        interrupts.addAll(Arrays.asList(config.getInterruptAfter()));
+
+        String joinId = null;
+        for (EdgeValue<State> target : edge.targets()) {
+            var branchEdge = findEdge(target.id())
+                    .filter(e -> !e.isParallel() && e.target().id() != null)
+                    .orElseThrow(() -> Errors.invalidParallelBranch.exception(target.id()));
+
+            if (interrupts.contains(target.id())) {
+                throw Errors.interruptOnParallelBranch.exception(target.id());
+            }
+            if (joinId == null) {
+                joinId = branchEdge.target().id();
+            } else if (!Objects.equals(joinId, branchEdge.target().id())) {
+                throw Errors.parallelBranchesJoinMismatch.exception(edge.sourceId());
+            }
+        }
+    }
+
     /**
      * Compiles the state graph into a compiled graph.
      *
@@ -268,6 +456,14 @@ public class StateGraph<State extends AgentState> {
             throw Errors.entryPointNotExist.exception(entryPoint.id());
         }
 
+        if( entryPoint.value() != null ) {
+            for (String nodeId : entryPoint.value().mappings().values()) {
+                if (!Objects.equals(nodeId, END) && !nodes.contains(makeFakeNode(nodeId))) {
+                    throw Errors.missingNodeInEdgeMapping.exception(START, nodeId);
+                }
+            }
+        }
+
         if (finishPoint != null) {
             if (!nodes.contains(makeFakeNode(finishPoint))) {
                 throw Errors.finishPointNotExist.exception(finishPoint);
@@ -280,18 +476,30 @@ public class StateGraph<State extends AgentState> {
                 throw Errors.missingNodeReferencedByEdge.exception(edge.sourceId());
             }
 
-            if (edge.target().id() != null) {
-                if (!Objects.equals(edge.target().id(), END) && !nodes.contains(makeFakeNode(edge.target().id()))) {
-                    throw Errors.missingNodeReferencedByEdge.exception(edge.target().id());
-                }
-            } else if (edge.target().value() != null) {
-                for (String nodeId : edge.target().value().mappings().values()) {
-                    if (!Objects.equals(nodeId, END) && !nodes.contains(makeFakeNode(nodeId))) {
-                        throw Errors.missingNodeInEdgeMapping.exception(edge.sourceId(), nodeId);
+            for (EdgeValue<State> target : edge.targets()) {
+                if (target.id() != null) {
+                    if (!Objects.equals(target.id(), END) && !nodes.contains(makeFakeNode(target.id()))) {
+                        throw Errors.missingNodeReferencedByEdge.exception(target.id());
+                    }
+                } else if (target.value() != null) {
+                    for (String nodeId : target.value().mappings().values()) {
+                        if (!Objects.equals(nodeId, END) && !nodes.contains(makeFakeNode(nodeId))) {
+                            throw Errors.missingNodeInEdgeMapping.exception(edge.sourceId(), nodeId);
+                        }
                     }
+                } else {
+                    throw Errors.invalidEdgeTarget.exception(edge.sourceId());
                 }
-            } else {
-                throw Errors.invalidEdgeTarget.exception(edge.sourceId());
+            }
+        }
+
+        for (Edge<State> edge : edges) {
+            if (edge.isParallel()) {
+                validateParallelEdge(edge, config);
+            }
+            if (edge.isSend() && ( Arrays.asList(config.getInterruptBefore()).contains(edge.target().id()) ||
+                                   Arrays.asList(config.getInterruptAfter()).contains(edge.target().id()) )) {
+                throw Errors.interruptOnSendTarget.exception(edge.target().id());
             }
         }
 
@@ -0,0 +1,19 @@
+package org.bsc.langgraph4j;
+
+/**
+ * Tells what the node outputs produced by {@link CompiledGraph#stream(java.util.Map, RunnableConfig)} carry.
+ */
+public enum StreamMode {
+    /**
+     * Each node output carries a snapshot of the whole state.
+     */
+    VALUES,
+    /**
+     * Each node output is an {@link UpdateOutput} carrying only the partial state returned by the node,
+     * so that the size of the outputs doesn't grow with the state.
+     * The outputs of the start and the end of the graph carry a snapshot of the whole state.
+     *
+     * @see RunnableConfig.Builder#snapshotInterval(int)
+     */
+    UPDATES
+}
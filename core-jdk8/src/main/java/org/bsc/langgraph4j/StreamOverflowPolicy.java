@@ -0,0 +1,25 @@
+package org.bsc.langgraph4j;
+
+/**
+ * Defines what happens when the stream of {@link NodeOutput} produced by a graph run is full,
+ * that is when the consumer is slower than the graph execution.
+ * <p>
+ * The first ({@link StateGraph#START}) and last ({@link StateGraph#END}) outputs are never dropped.
+ *
+ * @see CompileConfig.Builder#streamCapacity(int)
+ */
+public enum StreamOverflowPolicy {
+    /**
+     * The graph execution waits until the consumer frees some room.
+     */
+    BLOCK,
+    /**
+     * Intermediate outputs, {@link StreamingOutput} chunks included, that don't fit in the stream are discarded.
+     */
+    DROP_INTERMEDIATE,
+    /**
+     * The most recent pending intermediate output is replaced by the new one, so that the consumer
+     * always gets the latest state. Consecutive {@link StreamingOutput} chunks of a node are concatenated instead.
+     */
+    COALESCE_LATEST
+}
@@ -0,0 +1,67 @@
+package org.bsc.langgraph4j;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import org.bsc.langgraph4j.state.AgentState;
+
+/**
+ * Represents a chunk emitted by a node while it is executing.
+ * <p>
+ * The state is the input state of the node, the node output follows its chunks.
+ * <p>
+ * A node retried by a {@link RetryPolicy} streams again from the start: the chunks of each attempt carry its number,
+ * so that a consumer can discard the chunks of a failed attempt when those of the next one arrive.
+ *
+ * @param <State> the type of the state associated with the node output
+ * @see org.bsc.langgraph4j.action.AsyncNodeAction#node_streaming(org.bsc.langgraph4j.action.AsyncStreamingNodeAction)
+ */
+@Value
+@EqualsAndHashCode(callSuper = true)
+@Accessors(fluent = true)
+public class StreamingOutput<State extends AgentState> extends NodeOutput<State> {
+
+    public static <State extends AgentState> StreamingOutput<State> of( String node, String chunk, State state ) {
+        return new StreamingOutput<>( node, chunk, state, 1 );
+    }
+
+    public static <State extends AgentState> StreamingOutput<State> of( String node, String chunk, State state, int attempt ) {
+        return new StreamingOutput<>( node, chunk, state, attempt );
+    }
+
+    /**
+     * The chunk emitted by the node.
+     */
+    String chunk;
+    /**
+     * The attempt of the node that emitted the chunk, starting from 1.
+     */
+    int attempt;
+
+    private StreamingOutput( String node, String chunk, State state, int attempt ) {
+        super( node, state );
+        this.chunk = chunk;
+        this.attempt = attempt;
+    }
+
+    /**
+     * Coalesces the latest pending output of a full stream with a new one (see {@link StreamOverflowPolicy#COALESCE_LATEST}):
+     * consecutive chunks of the same node attempt are concatenated, so that no text is lost, otherwise the new output
+     * replaces the latest one.
+     */
+    static <State extends AgentState> NodeOutput<State> coalesce( NodeOutput<State> latest, NodeOutput<State> output ) {
+        if( latest instanceof StreamingOutput && output instanceof StreamingOutput ) {
+            final StreamingOutput<State> previous = (StreamingOutput<State>)latest;
+            final StreamingOutput<State> next = (StreamingOutput<State>)output;
+            if( previous.node().equals( next.node() ) && previous.attempt == next.attempt ) {
+                return new StreamingOutput<>( next.node(), previous.chunk + next.chunk, next.state(), next.attempt );
+            }
+        }
+        return output;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "StreamingOutput(node=%s, chunk=%s, attempt=%d)", node(), chunk, attempt );
+    }
+}
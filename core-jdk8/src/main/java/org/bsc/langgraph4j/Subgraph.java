@@ -0,0 +1,187 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.AsyncEdgeAction;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.action.AsyncSendAction;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.AppenderChannel;
+import org.bsc.langgraph4j.state.Channel;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_streaming;
+
+/**
+ * A compiled graph used as a node of another graph.
+ * <p>
+ * The channel mapping renames the keys of the child state into keys of the parent state: keys that aren't
+ * mapped are shared as they are. The subgraph is either inlined in the parent execution plan
+ * (see {@link ExecutionPlan}), or executed as a nested run by {@link #nestedAction(Map)}.
+ *
+ * @param <S> the type of the state associated with the subgraph
+ */
+final class Subgraph<S extends AgentState> {
+
+    final CompiledGraph<S> graph;
+    private final Map<String,String> parentKeys;
+    private final Map<String,String> childKeys;
+
+    /**
+     * @param graph the compiled subgraph
+     * @param channelMapping the keys of the child state mapped to the keys of the parent state
+     */
+    Subgraph( CompiledGraph<S> graph, Map<String,String> channelMapping ) {
+        this.graph = Objects.requireNonNull( graph, "graph cannot be null" );
+        this.parentKeys = new HashMap<>( Objects.requireNonNull( channelMapping, "channelMapping cannot be null" ) );
+        this.childKeys = new HashMap<>();
+        channelMapping.forEach( (child, parent) -> childKeys.put( parent, child ) );
+    }
+
+    private static Map<String,Object> rename( Map<String,Object> data, Map<String,String> keys ) {
+        if( keys.isEmpty() ) {
+            return data;
+        }
+        final Map<String,Object> result = new HashMap<>( data.size() );
+        data.forEach( (key, value) -> result.put( keys.getOrDefault( key, key ), value ) );
+        return result;
+    }
+
+    /**
+     * Tells whether the subgraph can be inlined: the compile configuration of an inlined subgraph is not applied,
+     * so a subgraph whose runs depend on it is executed as a nested run.
+     *
+     * @return true if the subgraph can be inlined
+     */
+    boolean isInlinable() {
+        return !graph.compileConfig.hasRunOptions();
+    }
+
+    Map<String,Object> toChild( Map<String,Object> parentData ) {
+        return rename( parentData, childKeys );
+    }
+
+    Map<String,Object> toParent( Map<String,Object> childData ) {
+        return rename( childData, parentKeys );
+    }
+
+    /**
+     * Returns the child state seen by the inlined actions: the parent state renamed, with the defaults of the
+     * child channels for the keys the parent doesn't hold, as a nested run would see it.
+     */
+    private S childState( AgentState parentState ) {
+        final Map<String,Object> data = toChild( parentState.data() );
+        final Map<String,Object> defaults = graph.getInitialStateFromSchema();
+        if( defaults.isEmpty() ) {
+            return graph.stateGraph.getStateFactory().apply( data );
+        }
+        final Map<String,Object> result = new HashMap<>( defaults );
+        result.putAll( data );
+        return graph.stateGraph.getStateFactory().apply( result );
+    }
+
+    /**
+     * Adapts an action of the subgraph to the parent state.
+     *
+     * @param action the subgraph node action
+     * @param <State> the type of the parent state
+     * @return the adapted action
+     */
+    <State extends AgentState> AsyncNodeAction<State> inline( AsyncNodeAction<S> action ) {
+        return node_streaming( (state, chunks) -> {
+            final CompletableFuture<Map<String,Object>> future = action.apply( childState( state ), chunks );
+            final CompletableFuture<Map<String,Object>> result = future.thenApply( this::toParent );
+            // cancelling the node cancels the subgraph action
+            result.whenComplete( (v, ex) -> {
+                if( result.isCancelled() ) {
+                    future.cancel( true );
+                }
+            });
+            return result;
+        });
+    }
+
+    /**
+     * Adapts a condition of the subgraph to the parent state.
+     *
+     * @param condition the subgraph edge condition
+     * @param <State> the type of the parent state
+     * @return the adapted condition
+     */
+    <State extends AgentState> AsyncEdgeAction<State> inline( AsyncEdgeAction<S> condition ) {
+        return state -> condition.apply( childState( state ) );
+    }
+
+    /**
+     * Adapts a send action of the subgraph to the parent state.
+     *
+     * @param send the subgraph send action
+     * @param <State> the type of the parent state
+     * @return the adapted send action, whose work items hold parent keys
+     */
+    <State extends AgentState> AsyncSendAction<State> inline( AsyncSendAction<S> send ) {
+        return state -> send.apply( childState( state ) ).thenApply( items -> {
+            final List<Map<String,Object>> result = new ArrayList<>( items.size() );
+            items.forEach( item -> result.add( toParent( item ) ) );
+            return result;
+        });
+    }
+
+    /**
+     * Returns an action that executes the subgraph as a nested run, in the calling thread, and returns
+     * the changes made to the state as a partial state.
+     * <p>
+     * Lists given to, or returned from, an {@link AppenderChannel} are appended element by element, and only the
+     * values appended by the subgraph are returned, so they are not appended twice.
+     * The chunks emitted by the subgraph nodes are forwarded as chunks of the node.
+     *
+     * @param parentChannels the channels of the parent state
+     * @param <State> the type of the parent state
+     * @return the nested action
+     */
+    <State extends AgentState> AsyncNodeAction<State> nestedAction( Map<String, Channel<?>> parentChannels ) {
+        return node_streaming( (state, chunks) -> {
+            final Map<String,Object> input = state.data();
+            final Map<String, Channel<?>> childChannels = graph.stateGraph.getChannels();
+            final Map<String,Object> childInput = new HashMap<>( toChild( input ) );
+            childInput.replaceAll( (key, value) ->
+                    ( childChannels.get( key ) instanceof AppenderChannel && value instanceof List ) ?
+                        AppenderChannel.appendAll( (List<?>)value ) :
+                        value );
+
+            final CompletableFuture<S> run = graph.invokeNested( childInput, chunks );
+            final CompletableFuture<Map<String,Object>> partial = run.thenApply( result -> {
+                final Map<String,Object> output = toParent( result.data() );
+                final Map<String,Object> partialState = new HashMap<>();
+
+                output.forEach( (key, value) -> {
+                    final Object previous = input.get( key );
+                    if( Objects.equals( previous, value ) ) {
+                        return;
+                    }
+                    if( parentChannels.get( key ) instanceof AppenderChannel && value instanceof List ) {
+                        final List<?> values = (List<?>)value;
+                        final List<?> appended = ( previous instanceof List && isPrefix( (List<?>)previous, values ) ) ?
+                                values.subList( ((List<?>)previous).size(), values.size() ) :
+                                values;
+                        partialState.put( key, AppenderChannel.appendAll( new ArrayList<>( appended ) ) );
+                        return;
+                    }
+                    partialState.put( key, value );
+                });
+                return partialState;
+            });
+            // cancelling the node cancels the nested run
+            partial.whenComplete( (v, ex) -> {
+                if( partial.isCancelled() ) {
+                    run.cancel( true );
+                }
+            });
+            return partial;
+        });
+    }
+
+    private static boolean isPrefix( List<?> prefix, List<?> values ) {
+        return prefix.size() <= values.size() && prefix.equals( values.subList( 0, prefix.size() ) );
+    }
+}
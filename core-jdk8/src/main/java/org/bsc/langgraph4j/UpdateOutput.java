@@ -0,0 +1,33 @@
+package org.bsc.langgraph4j;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import org.bsc.langgraph4j.state.AgentState;
+
+/**
+ * Represents the output of a node in {@link StreamMode#UPDATES} mode.
+ * <p>
+ * The state holds only the partial state returned by the node, merged through the channels into an empty state:
+ * for instance an {@link org.bsc.langgraph4j.state.AppenderChannel} holds only the values appended by the node.
+ *
+ * @param <State> the type of the state associated with the node output
+ */
+@Value
+@EqualsAndHashCode(callSuper = true)
+@Accessors(fluent = true)
+public class UpdateOutput<State extends AgentState> extends NodeOutput<State> {
+
+    public static <State extends AgentState> UpdateOutput<State> of( String node, State update ) {
+        return new UpdateOutput<>( node, update );
+    }
+
+    private UpdateOutput( String node, State update ) {
+        super( node, update );
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "UpdateOutput(node=%s, state=%s)", node(), state() );
+    }
+}
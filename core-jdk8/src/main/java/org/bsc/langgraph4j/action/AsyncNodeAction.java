@@ -22,6 +22,18 @@ public interface AsyncNodeAction<S extends AgentState> extends Function<S, Compl
      */
     CompletableFuture<Map<String, Object>> apply(S t);
 
+    /**
+     * Applies this action to the given agent state, giving it a sink for the chunks it produces.
+     * By default the action produces no chunk.
+     *
+     * @param t the agent state
+     * @param sink the sink of the chunks produced by the action
+     * @return a CompletableFuture representing the result of the action
+     */
+    default CompletableFuture<Map<String, Object>> apply(S t, ChunkSink sink) {
+        return apply(t);
+    }
+
     /**
      * Creates an asynchronous node action from a synchronous node action.
      *
@@ -40,4 +52,27 @@ public interface AsyncNodeAction<S extends AgentState> extends Function<S, Compl
             return result;
         };
     }
+
+    /**
+     * Creates an asynchronous node action that emits chunks while it is executing.
+     * The chunks are interleaved in the graph stream as {@link org.bsc.langgraph4j.StreamingOutput}s,
+     * they are discarded when the graph is invoked.
+     *
+     * @param streamingAction the streaming node action
+     * @param <S> the type of the agent state
+     * @return an asynchronous node action
+     */
+    static <S extends AgentState> AsyncNodeAction<S> node_streaming(AsyncStreamingNodeAction<S> streamingAction) {
+        return new AsyncNodeAction<S>() {
+            @Override
+            public CompletableFuture<Map<String, Object>> apply(S t) {
+                return streamingAction.apply(t, ChunkSink.NONE);
+            }
+
+            @Override
+            public CompletableFuture<Map<String, Object>> apply(S t, ChunkSink sink) {
+                return streamingAction.apply(t, sink);
+            }
+        };
+    }
 }
@@ -0,0 +1,46 @@
+package org.bsc.langgraph4j.action;
+
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Represents an asynchronous action that computes the work items of a send edge: the target node of the edge
+ * is invoked once per work item, concurrently.
+ *
+ * @param <S> the type of the agent state
+ * @see org.bsc.langgraph4j.StateGraph#addSendEdge(String, String, AsyncSendAction)
+ */
+@FunctionalInterface
+public interface AsyncSendAction<S extends AgentState> extends Function<S, CompletableFuture<List<Map<String, Object>>>> {
+
+    /**
+     * Applies this action to the given agent state.
+     *
+     * @param t the agent state
+     * @return a CompletableFuture completed with the payloads of the invocations of the target node
+     */
+    CompletableFuture<List<Map<String, Object>>> apply(S t);
+
+    /**
+     * Creates an asynchronous send action from a synchronous one.
+     *
+     * @param syncAction the synchronous send action
+     * @param <S> the type of the agent state
+     * @return an asynchronous send action
+     */
+    static <S extends AgentState> AsyncSendAction<S> send_async(SendAction<S> syncAction) {
+        return t -> {
+            CompletableFuture<List<Map<String, Object>>> result = new CompletableFuture<>();
+            try {
+                result.complete(syncAction.apply(t));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        };
+    }
+}
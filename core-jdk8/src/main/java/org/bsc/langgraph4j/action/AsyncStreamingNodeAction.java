@@ -0,0 +1,25 @@
+package org.bsc.langgraph4j.action;
+
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Represents an asynchronous node action that emits chunks while it is executing.
+ *
+ * @param <S> the type of the agent state
+ * @see AsyncNodeAction#node_streaming(AsyncStreamingNodeAction)
+ */
+@FunctionalInterface
+public interface AsyncStreamingNodeAction<S extends AgentState> {
+
+    /**
+     * Applies this action to the given agent state.
+     *
+     * @param state the agent state
+     * @param sink the sink of the chunks produced by the action
+     * @return a CompletableFuture representing the result of the action
+     */
+    CompletableFuture<Map<String, Object>> apply(S state, ChunkSink sink);
+}
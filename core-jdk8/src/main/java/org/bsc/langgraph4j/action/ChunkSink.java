@@ -0,0 +1,23 @@
+package org.bsc.langgraph4j.action;
+
+/**
+ * Receives the chunks produced by a node while it is executing, e.g. the tokens of a streaming chat model.
+ * <p>
+ * Chunks are delivered to the graph stream in the order they are emitted, before the output of the node.
+ * Chunks emitted once the node action has completed, or once a failed attempt has been retried, are discarded.
+ */
+@FunctionalInterface
+public interface ChunkSink {
+
+    /**
+     * A sink that discards every chunk, used when nobody observes the graph run.
+     */
+    ChunkSink NONE = chunk -> {};
+
+    /**
+     * Emits a chunk. It may be invoked from any thread, but not concurrently.
+     *
+     * @param chunk the chunk
+     */
+    void emit(String chunk);
+}
@@ -0,0 +1,12 @@
+package org.bsc.langgraph4j.action;
+
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.List;
+import java.util.Map;
+
+@FunctionalInterface
+public interface SendAction<S extends AgentState> {
+    List<Map<String, Object>> apply(S t) throws Exception;
+
+}
@@ -6,6 +6,9 @@
  *   <li>{@link org.bsc.langgraph4j.action.EdgeAction} - Interface for edge actions.</li>
  *   <li>{@link org.bsc.langgraph4j.action.AsyncNodeAction} - Interface for asynchronous node actions.</li>
  *   <li>{@link org.bsc.langgraph4j.action.AsyncEdgeAction} - Interface for asynchronous edge actions.</li>
+ *   <li>{@link org.bsc.langgraph4j.action.AsyncStreamingNodeAction} - Interface for asynchronous node actions emitting chunks.</li>
+ *   <li>{@link org.bsc.langgraph4j.action.AsyncSendAction} - Interface for asynchronous actions computing the work items of a send edge.</li>
+ *   <li>{@link org.bsc.langgraph4j.action.ChunkSink} - Interface for the sink of the chunks emitted by a node.</li>
  * </ul>
  *
  */
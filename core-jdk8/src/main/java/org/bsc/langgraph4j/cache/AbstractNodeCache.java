@@ -0,0 +1,93 @@
+package org.bsc.langgraph4j.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Base implementation of a {@link NodeCache} that takes care of expiration and statistics,
+ * leaving the bookkeeping required by the eviction strategy to subclasses.
+ * All the operations are serialized on the cache instance.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+abstract class AbstractNodeCache<K,V> implements NodeCache<K,V> {
+
+    static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+        int frequency = 1;
+
+        Entry( V value, long expiresAt ) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    final int maxSize;
+    private final long ttlNanos;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    AbstractNodeCache( int maxSize, Duration ttl ) {
+        if( maxSize <= 0 ) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ( ttl != null ) ? ttl.toNanos() : 0;
+    }
+
+    /**
+     * Looks up an entry, updating the eviction bookkeeping.
+     */
+    abstract Entry<V> lookup( K key );
+
+    /**
+     * Stores a new entry. The cache is guaranteed not to be full.
+     */
+    abstract void store( K key, Entry<V> entry );
+
+    /**
+     * Removes an entry.
+     */
+    abstract void remove( K key );
+
+    /**
+     * Removes the entry chosen by the eviction strategy.
+     */
+    abstract void evict();
+
+    abstract int size();
+
+    @Override
+    public synchronized Optional<V> get( K key ) {
+        final Entry<V> entry = lookup( key );
+        if( entry == null ) {
+            ++missCount;
+            return Optional.empty();
+        }
+        if( ttlNanos > 0 && System.nanoTime() - entry.expiresAt > 0 ) {
+            remove( key );
+            ++missCount;
+            return Optional.empty();
+        }
+        ++hitCount;
+        return Optional.ofNullable( entry.value );
+    }
+
+    @Override
+    public synchronized void put( K key, V value ) {
+        remove( key );
+        if( size() >= maxSize ) {
+            evict();
+            ++evictionCount;
+        }
+        store( key, new Entry<>( value, ( ttlNanos > 0 ) ? System.nanoTime() + ttlNanos : 0 ) );
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats( hitCount, missCount, evictionCount, size() );
+    }
+}
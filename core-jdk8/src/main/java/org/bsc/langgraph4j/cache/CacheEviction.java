@@ -0,0 +1,15 @@
+package org.bsc.langgraph4j.cache;
+
+/**
+ * The strategy used to choose the entry to discard when a {@link NodeCache} is full.
+ */
+public enum CacheEviction {
+    /**
+     * Least recently used.
+     */
+    LRU,
+    /**
+     * Least frequently used, the least recently used first among entries with the same frequency.
+     */
+    LFU
+}
@@ -0,0 +1,126 @@
+package org.bsc.langgraph4j.cache;
+
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Describes how the results of a node are memoized.
+ * <p>
+ * Two executions of the node are considered equivalent when the key computed on their input states is equal,
+ * so the node action must be deterministic with respect to that key.
+ * <p>
+ * <b>By default the key is the whole input state</b>: every lookup hashes and compares all the values of the state,
+ * and every cached entry keeps a reference to the state data, preventing it from being garbage collected until
+ * the entry is evicted. A state carrying a long message history makes both costly, so prefer
+ * {@link Builder#inputKeys(String...)} or {@link Builder#key(Function)} to key the cache on the values the node reads.
+ *
+ * @param <State> the type of the state associated with the node
+ */
+public class CachePolicy<State extends AgentState> {
+
+    private Function<State,Object> key = AgentState::data;
+    private CacheEviction eviction = CacheEviction.LRU;
+    private int maxSize = 1000;
+    private Duration ttl;
+
+    /**
+     * Computes the cache key of the given input state.
+     *
+     * @param state the input state
+     * @return the cache key
+     */
+    public Object key( State state ) { return key.apply( state ); }
+
+    /**
+     * Creates a new cache honoring this policy.
+     *
+     * @return a new node cache
+     */
+    public NodeCache<Object, Map<String,Object>> newCache() {
+        return NodeCache.of( eviction, maxSize, ttl );
+    }
+
+    public static <State extends AgentState> Builder<State> builder() {
+        return new Builder<>();
+    }
+
+    public static class Builder<State extends AgentState> {
+        private final CachePolicy<State> policy = new CachePolicy<>();
+
+        /**
+         * Sets the function that computes the cache key from the input state.
+         *
+         * @param key the key function
+         * @return this builder
+         */
+        public Builder<State> key(Function<State,Object> key) {
+            this.policy.key = Objects.requireNonNull(key, "key cannot be null");
+            return this;
+        }
+        /**
+         * Uses the values of the given state keys as the cache key.
+         *
+         * @param inputKeys the state keys read by the node
+         * @return this builder
+         */
+        public Builder<State> inputKeys(String... inputKeys) {
+            final List<String> keys = Arrays.asList( Objects.requireNonNull(inputKeys, "inputKeys cannot be null") );
+            this.policy.key = state -> {
+                final List<Object> result = new ArrayList<>( keys.size() );
+                for( String k : keys ) {
+                    result.add( state.value(k).orElse(null) );
+                }
+                return result;
+            };
+            return this;
+        }
+        /**
+         * Sets the policy choosing the entry to evict when the cache is full. Defaults to {@link CacheEviction#LRU}.
+         *
+         * @param eviction the eviction policy
+         * @return this builder
+         */
+        public Builder<State> eviction(CacheEviction eviction) {
+            this.policy.eviction = Objects.requireNonNull(eviction, "eviction cannot be null");
+            return this;
+        }
+        /**
+         * Sets the maximum number of cached results. Defaults to 1000.
+         * Expired results are removed only when looked up, so they count toward the maximum size until then,
+         * and may cause a live result to be evicted.
+         *
+         * @param maxSize the maximum number of entries
+         * @return this builder
+         */
+        public Builder<State> maxSize(int maxSize) {
+            if( maxSize <= 0 ) {
+                throw new IllegalArgumentException("maxSize must be greater than 0");
+            }
+            this.policy.maxSize = maxSize;
+            return this;
+        }
+        /**
+         * Sets the time to live of the cached results. Results never expire by default,
+         * nor when the time to live is zero or negative.
+         *
+         * @param ttl the time to live, null, zero or negative if results never expire
+         * @return this builder
+         */
+        public Builder<State> ttl(Duration ttl) {
+            this.policy.ttl = ttl;
+            return this;
+        }
+        public CachePolicy<State> build() {
+            return policy;
+        }
+    }
+
+    private CachePolicy() {}
+}
@@ -0,0 +1,24 @@
+package org.bsc.langgraph4j.cache;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the statistics of a {@link NodeCache}.
+ */
+@Value
+public class CacheStats {
+    long hitCount;
+    long missCount;
+    long evictionCount;
+    int size;
+
+    /**
+     * Returns the ratio of lookups that have been served by the cache.
+     *
+     * @return the hit rate, 0 if there has been no lookup
+     */
+    public double hitRate() {
+        final long requests = hitCount + missCount;
+        return ( requests == 0 ) ? 0.0 : (double)hitCount / requests;
+    }
+}
@@ -0,0 +1,75 @@
+package org.bsc.langgraph4j.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link NodeCache} that evicts the least frequently used entry.
+ * Keys are grouped by frequency, each group keeps its keys in access order.
+ */
+class LfuNodeCache<K,V> extends AbstractNodeCache<K,V> {
+
+    private final Map<K, Entry<V>> entries = new HashMap<>();
+    private final TreeMap<Integer, LinkedHashSet<K>> keysByFrequency = new TreeMap<>();
+
+    LfuNodeCache( int maxSize, Duration ttl ) {
+        super( maxSize, ttl );
+    }
+
+    private void link( K key, int frequency ) {
+        keysByFrequency.computeIfAbsent( frequency, f -> new LinkedHashSet<>() ).add( key );
+    }
+
+    private void unlink( K key, int frequency ) {
+        final LinkedHashSet<K> keys = keysByFrequency.get( frequency );
+        keys.remove( key );
+        if( keys.isEmpty() ) {
+            keysByFrequency.remove( frequency );
+        }
+    }
+
+    @Override
+    Entry<V> lookup( K key ) {
+        final Entry<V> entry = entries.get( key );
+        if( entry != null ) {
+            unlink( key, entry.frequency );
+            link( key, ++entry.frequency );
+        }
+        return entry;
+    }
+
+    @Override
+    void store( K key, Entry<V> entry ) {
+        entries.put( key, entry );
+        link( key, entry.frequency );
+    }
+
+    @Override
+    void remove( K key ) {
+        final Entry<V> entry = entries.remove( key );
+        if( entry != null ) {
+            unlink( key, entry.frequency );
+        }
+    }
+
+    @Override
+    void evict() {
+        final Map.Entry<Integer, LinkedHashSet<K>> lowest = keysByFrequency.firstEntry();
+        final Iterator<K> eldest = lowest.getValue().iterator();
+        final K key = eldest.next();
+        eldest.remove();
+        if( lowest.getValue().isEmpty() ) {
+            keysByFrequency.remove( lowest.getKey() );
+        }
+        entries.remove( key );
+    }
+
+    @Override
+    int size() {
+        return entries.size();
+    }
+}
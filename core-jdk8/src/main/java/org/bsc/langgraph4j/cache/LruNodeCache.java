@@ -0,0 +1,44 @@
+package org.bsc.langgraph4j.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A {@link NodeCache} that evicts the least recently used entry.
+ */
+class LruNodeCache<K,V> extends AbstractNodeCache<K,V> {
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>( 16, 0.75f, true );
+
+    LruNodeCache( int maxSize, Duration ttl ) {
+        super( maxSize, ttl );
+    }
+
+    @Override
+    Entry<V> lookup( K key ) {
+        return entries.get( key );
+    }
+
+    @Override
+    void store( K key, Entry<V> entry ) {
+        entries.put( key, entry );
+    }
+
+    @Override
+    void remove( K key ) {
+        entries.remove( key );
+    }
+
+    @Override
+    void evict() {
+        final Iterator<K> eldest = entries.keySet().iterator();
+        eldest.next();
+        eldest.remove();
+    }
+
+    @Override
+    int size() {
+        return entries.size();
+    }
+}
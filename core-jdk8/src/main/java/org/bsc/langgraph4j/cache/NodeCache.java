@@ -0,0 +1,56 @@
+package org.bsc.langgraph4j.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A bounded, thread safe cache of node results.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public interface NodeCache<K,V> {
+
+    /**
+     * Returns the value associated with the given key, if present and not expired.
+     *
+     * @param key the key
+     * @return an Optional containing the value if present, otherwise an empty Optional
+     */
+    Optional<V> get( K key );
+
+    /**
+     * Associates the given value with the given key, evicting an entry if the cache is full.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void put( K key, V value );
+
+    /**
+     * Returns the statistics of this cache.
+     *
+     * @return the cache statistics
+     */
+    CacheStats stats();
+
+    /**
+     * Creates a cache with the given eviction strategy.
+     *
+     * @param eviction the eviction strategy
+     * @param maxSize the maximum number of entries
+     * @param ttl the time to live of the entries, null, zero or negative if entries never expire
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return a new cache
+     */
+    static <K,V> NodeCache<K,V> of( CacheEviction eviction, int maxSize, Duration ttl ) {
+        switch( eviction ) {
+            case LFU:
+                return new LfuNodeCache<>( maxSize, ttl );
+            case LRU:
+            default:
+                return new LruNodeCache<>( maxSize, ttl );
+        }
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Memoization of node results.
+ * <p>
+ * A node added with a {@link org.bsc.langgraph4j.cache.CachePolicy} reuses the partial state it returned
+ * for an equivalent input, instead of executing its action again.
+ */
+package org.bsc.langgraph4j.cache;
@@ -3,11 +3,60 @@ package org.bsc.langgraph4j.checkpoint;
 import org.bsc.langgraph4j.RunnableConfig;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface BaseCheckpointSaver {
 
     Collection<Checkpoint> list( RunnableConfig config );
     Optional<Checkpoint> get( RunnableConfig config );
     RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception;
+
+    /**
+     * Asynchronously stores a checkpoint. This is the method used by the graph execution.
+     * The default implementation invokes {@link #put(RunnableConfig, Checkpoint)} in the calling thread,
+     * savers that perform I/O should override it so that the execution never waits on them.
+     *
+     * @param config the runnable configuration
+     * @param checkpoint the checkpoint to store
+     * @return a CompletableFuture completed with the updated configuration
+     */
+    default CompletableFuture<RunnableConfig> putAsync( RunnableConfig config, Checkpoint checkpoint ) {
+        CompletableFuture<RunnableConfig> result = new CompletableFuture<>();
+        try {
+            result.complete( put( config, checkpoint ) );
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Asynchronously records the result of a node execution that completed after the last checkpoint of the run
+     * (write-ahead log). The graph execution waits for it before going on.
+     * A write with the same key as a recorded one must be ignored.
+     * <p>
+     * The default implementation doesn't record anything: a run resumed after a crash executes again the nodes
+     * that completed after its last checkpoint.
+     *
+     * @param config the runnable configuration
+     * @param write the result of the node execution
+     * @return a CompletableFuture completed once the write is recorded
+     */
+    default CompletableFuture<Void> putWriteAsync( RunnableConfig config, PendingWrite write ) {
+        return CompletableFuture.completedFuture( null );
+    }
+
+    /**
+     * Returns the results of the node executions recorded after the given checkpoint, in recording order.
+     * The writes of a checkpoint can be discarded once a later checkpoint is stored.
+     *
+     * @param config the runnable configuration
+     * @param checkpointId the checkpoint id
+     * @return the pending writes of the checkpoint
+     */
+    default Collection<PendingWrite> getWrites( RunnableConfig config, String checkpointId ) {
+        return Collections.emptyList();
+    }
 }
@@ -3,8 +3,10 @@ package org.bsc.langgraph4j.checkpoint;
 import org.bsc.langgraph4j.RunnableConfig;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static java.lang.String.format;
@@ -14,6 +16,7 @@ import static java.util.Optional.ofNullable;
 public class MemorySaver implements BaseCheckpointSaver {
     private final Map<String, LinkedList<Checkpoint>> _checkpointsByThread = new HashMap<>();
     private final LinkedList<Checkpoint> _defaultCheckpoints = new LinkedList<>();
+    private final Map<String, Map<String, PendingWrite>> _writesByThread = new HashMap<>();
     private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
     private final Lock r = rwl.readLock();
     private final Lock w = rwl.writeLock();
@@ -27,6 +30,11 @@ public class MemorySaver implements BaseCheckpointSaver {
                     .orElse( _defaultCheckpoints );
     }
 
+    private Map<String, PendingWrite> getWrites( RunnableConfig config ) {
+        // the empty string stands for the default thread
+        return _writesByThread.computeIfAbsent( config.threadId().orElse(""), k -> new LinkedHashMap<>() );
+    }
+
     @Override
     public Collection<Checkpoint> list( RunnableConfig config ) {
         final LinkedList<Checkpoint> checkpoints = getCheckpoints(config);
@@ -65,6 +73,8 @@ public class MemorySaver implements BaseCheckpointSaver {
 
         w.lock();
         try {
+            // the writes are part of the new checkpoint
+            getWrites(config).clear();
 
             if (config.checkPointId().isPresent()) { // Replace Checkpoint
                 String checkPointId = config.checkPointId().get();
@@ -87,4 +97,29 @@ public class MemorySaver implements BaseCheckpointSaver {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> putWriteAsync(RunnableConfig config, PendingWrite write) {
+        w.lock();
+        try {
+            getWrites(config).putIfAbsent( write.getKey(), write );
+            return CompletableFuture.completedFuture(null);
+        }
+        finally {
+            w.unlock();
+        }
+    }
+
+    @Override
+    public Collection<PendingWrite> getWrites(RunnableConfig config, String checkpointId) {
+        w.lock(); // the writes of the thread may be created
+        try {
+            return getWrites(config).values().stream()
+                    .filter( write -> write.getCheckpointId().equals(checkpointId) )
+                    .collect( Collectors.toList() );
+        }
+        finally {
+            w.unlock();
+        }
+    }
+
 }
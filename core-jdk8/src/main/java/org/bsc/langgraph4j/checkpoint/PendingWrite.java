@@ -0,0 +1,34 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * The partial state returned by a node execution that completed after a checkpoint, recorded before it is merged
+ * into the state, so that a run resumed from that checkpoint doesn't execute the node again.
+ * <p>
+ * A node execution is identified by an idempotency key, made of the checkpoint id, the order of the execution
+ * since the checkpoint and the node id. A resumed run follows the same path, so it computes the same keys.
+ *
+ * @see BaseCheckpointSaver#putWriteAsync(org.bsc.langgraph4j.RunnableConfig, PendingWrite)
+ */
+@Value
+public class PendingWrite {
+    /**
+     * The id of the checkpoint preceding the node execution.
+     */
+    String checkpointId;
+    /**
+     * The idempotency key of the node execution.
+     */
+    String key;
+    /**
+     * The node identifier.
+     */
+    String nodeId;
+    /**
+     * The partial state returned by the node.
+     */
+    Map<String,Object> values;
+}
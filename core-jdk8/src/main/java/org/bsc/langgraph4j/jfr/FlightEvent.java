@@ -0,0 +1,51 @@
+package org.bsc.langgraph4j.jfr;
+
+/**
+ * A flight recorder event in progress, started by one of the {@link FlightEvents} factories
+ * and recorded by {@link #commit()}, possibly from another thread.
+ * <p>
+ * The setters that don't apply to the event are ignored.
+ */
+public interface FlightEvent {
+
+    /**
+     * The event returned when the flight recorder, or the event type, is disabled.
+     */
+    FlightEvent DISABLED = () -> {};
+
+    /**
+     * Sets the size of the processed data: the number of bytes of a serialized state,
+     * the number of keys of a state or of a partial state.
+     *
+     * @param size the size
+     * @return this event
+     */
+    default FlightEvent size( long size ) {
+        return this;
+    }
+
+    /**
+     * Sets the node chosen by an edge.
+     *
+     * @param nodeId the target node identifier
+     * @return this event
+     */
+    default FlightEvent target( String nodeId ) {
+        return this;
+    }
+
+    /**
+     * Sets the failure of the step.
+     *
+     * @param error the failure, null if the step succeeded
+     * @return this event
+     */
+    default FlightEvent failure( Throwable error ) {
+        return this;
+    }
+
+    /**
+     * Ends the event and records it, if its duration exceeds the configured threshold.
+     */
+    void commit();
+}
@@ -0,0 +1,73 @@
+package org.bsc.langgraph4j.jfr;
+
+/**
+ * Starts the flight recorder events of the graph runs.
+ * <p>
+ * The library is packaged as a multi-release jar: on JDK 11+ this class is replaced by a variant producing
+ * {@code jdk.jfr} events. This JDK 8 variant always returns {@link FlightEvent#DISABLED}.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {}
+
+    /**
+     * Starts the event of a node execution, retries included.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @param nodeId the node identifier
+     * @return the started event
+     */
+    public static FlightEvent nodeExecution( String threadId, String nodeId ) {
+        return FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the evaluation of the edge leaving a node.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @param sourceId the node the edge starts from
+     * @return the started event
+     */
+    public static FlightEvent edgeEvaluation( String threadId, String sourceId ) {
+        return FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the creation of a state instance over the state data.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @return the started event
+     */
+    public static FlightEvent stateClone( String threadId ) {
+        return FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the serialization of a state.
+     *
+     * @return the started event
+     */
+    public static FlightEvent stateWrite() {
+        return FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the deserialization of a state.
+     *
+     * @return the started event
+     */
+    public static FlightEvent stateRead() {
+        return FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of a checkpoint write by the checkpoint saver.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @param nodeId the node the checkpoint is taken after
+     * @return the started event
+     */
+    public static FlightEvent checkpointPut( String threadId, String nodeId ) {
+        return FlightEvent.DISABLED;
+    }
+}
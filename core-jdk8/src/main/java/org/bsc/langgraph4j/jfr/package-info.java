@@ -0,0 +1,11 @@
+/**
+ * Java Flight Recorder events of the hot paths of the graph runs: node executions, edge evaluations,
+ * state clones, state serialization and checkpoint writes.
+ * <p>
+ * The library is packaged as a multi-release jar: on JDK 11+ {@link org.bsc.langgraph4j.jfr.FlightEvents}
+ * is replaced by a variant producing {@code jdk.jfr} events, named {@code org.bsc.langgraph4j.*} and
+ * enabled through the standard JFR settings, e.g.
+ * {@code -XX:StartFlightRecording:settings=profile,+org.bsc.langgraph4j.NodeExecution#enabled=true}.
+ * On JDK 8 the events are not produced.
+ */
+package org.bsc.langgraph4j.jfr;
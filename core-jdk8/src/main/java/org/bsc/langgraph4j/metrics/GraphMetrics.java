@@ -0,0 +1,143 @@
+package org.bsc.langgraph4j.metrics;
+
+import org.bsc.langgraph4j.GraphListener;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the events of the runs of a compiled graph:
+ * <ul>
+ * <li>runs in flight, runs, failed runs, run durations and steps per run</li>
+ * <li>runs stopped by a maximum number of iterations</li>
+ * <li>node durations, failures and retried attempts, per node</li>
+ * <li>routes taken by the conditional edges, per source and target node</li>
+ * <li>checkpoint write durations</li>
+ * </ul>
+ * Register it with {@code CompileConfig.builder().listener( metrics )}. The counters are lock-free and the
+ * per-node and per-route ones are created on first use, so that recording an event doesn't allocate afterwards.
+ */
+public class GraphMetrics implements GraphListener {
+
+    private final String graph;
+
+    private final LongAdder runsInFlight = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder runFailures = new LongAdder();
+    private final LongAdder maxIterationHits = new LongAdder();
+    private final Histogram runDurations = new Histogram();
+    private final Histogram runSteps = new Histogram();
+    private final Histogram checkpointDurations = new Histogram();
+    private final ConcurrentMap<String, Histogram> nodeDurations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> nodeFailures = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> nodeRetries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the metrics of a graph.
+     *
+     * @param graph the graph name, used to label the exported metrics
+     */
+    public GraphMetrics( String graph ) {
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the graph name.
+     *
+     * @return the graph name
+     */
+    public String graph() {
+        return graph;
+    }
+
+    @Override
+    public void onRunStart( RunnableConfig config, String nodeId ) {
+        runsInFlight.increment();
+    }
+
+    @Override
+    public void onRunEnd( RunnableConfig config, long durationNanos, int steps, Throwable error ) {
+        runsInFlight.decrement();
+        runs.increment();
+        if( error != null ) {
+            runFailures.increment();
+        }
+        runDurations.record( durationNanos );
+        runSteps.record( steps );
+    }
+
+    @Override
+    public void onNodeEnd( RunnableConfig config, String nodeId, long durationNanos, int partialStateSize, Throwable error ) {
+        nodeDurations.computeIfAbsent( nodeId, k -> new Histogram() ).record( durationNanos );
+        if( error != null ) {
+            nodeFailures.computeIfAbsent( nodeId, k -> new LongAdder() ).increment();
+        }
+    }
+
+    @Override
+    public void onNodeRetry( RunnableConfig config, String nodeId, int attempt, Throwable error ) {
+        nodeRetries.computeIfAbsent( nodeId, k -> new LongAdder() ).increment();
+    }
+
+    @Override
+    public void onEdge( RunnableConfig config, String sourceId, String targetId, boolean conditional, long durationNanos ) {
+        if( !conditional ) {
+            return;
+        }
+        routes.computeIfAbsent( sourceId, k -> new ConcurrentHashMap<>() )
+              .computeIfAbsent( targetId, k -> new LongAdder() )
+              .increment();
+    }
+
+    @Override
+    public void onCheckpoint( RunnableConfig config, Checkpoint checkpoint, long latencyNanos ) {
+        checkpointDurations.record( latencyNanos );
+    }
+
+    @Override
+    public void onMaxIterations( RunnableConfig config, String nodeId, int maxIterations ) {
+        maxIterationHits.increment();
+    }
+
+    /**
+     * Returns a snapshot of the metrics, with the nodes and the routes sorted by identifier.
+     *
+     * @return the metrics snapshot
+     */
+    public GraphMetricsSnapshot snapshot() {
+        final Map<String, HistogramSnapshot> nodes = new TreeMap<>();
+        nodeDurations.forEach( (id, histogram) -> nodes.put( id, histogram.snapshot() ) );
+
+        final Map<String, Long> failures = new TreeMap<>();
+        nodeFailures.forEach( (id, counter) -> failures.put( id, counter.sum() ) );
+
+        final Map<String, Long> retries = new TreeMap<>();
+        nodeRetries.forEach( (id, counter) -> retries.put( id, counter.sum() ) );
+
+        final Map<String, Map<String, Long>> edges = new TreeMap<>();
+        routes.forEach( (source, targets) -> {
+            final Map<String, Long> counts = new TreeMap<>();
+            targets.forEach( (target, counter) -> counts.put( target, counter.sum() ) );
+            edges.put( source, counts );
+        });
+
+        return new GraphMetricsSnapshot( graph,
+                                         runsInFlight.sum(),
+                                         runs.sum(),
+                                         runFailures.sum(),
+                                         maxIterationHits.sum(),
+                                         runDurations.snapshot(),
+                                         runSteps.snapshot(),
+                                         checkpointDurations.snapshot(),
+                                         nodes,
+                                         failures,
+                                         retries,
+                                         edges );
+    }
+}
@@ -0,0 +1,62 @@
+package org.bsc.langgraph4j.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Holds the {@link GraphMetrics} of several graphs and exports them together.
+ */
+public class GraphMetricsRegistry {
+
+    private final Map<String, GraphMetrics> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the metrics of the given graph, creating them if needed.
+     *
+     * @param graph the graph name
+     * @return the graph metrics
+     */
+    public GraphMetrics metrics( String graph ) {
+        return metrics.computeIfAbsent( Objects.requireNonNull( graph, "graph cannot be null" ), GraphMetrics::new );
+    }
+
+    /**
+     * Returns the snapshots of the metrics of all the graphs, sorted by graph name.
+     *
+     * @return the metrics snapshots
+     */
+    public List<GraphMetricsSnapshot> snapshot() {
+        final List<GraphMetricsSnapshot> result = new ArrayList<>( metrics.size() );
+        metrics.values().forEach( m -> result.add( m.snapshot() ) );
+        return result;
+    }
+
+    /**
+     * Formats the metrics of all the graphs in the Prometheus text exposition format.
+     *
+     * @return the Prometheus metrics
+     */
+    public String toPrometheus() {
+        return MetricsFormat.prometheus( snapshot() );
+    }
+
+    /**
+     * Formats the metrics of all the graphs in JSON, as an array of objects.
+     *
+     * @return the JSON array
+     */
+    public String toJson() {
+        final StringBuilder result = new StringBuilder( "[" );
+        final List<GraphMetricsSnapshot> snapshots = snapshot();
+        for( int i = 0; i < snapshots.size(); ++i ) {
+            if( i > 0 ) {
+                result.append( ',' );
+            }
+            MetricsFormat.json( snapshots.get(i), result );
+        }
+        return result.append( ']' ).toString();
+    }
+}
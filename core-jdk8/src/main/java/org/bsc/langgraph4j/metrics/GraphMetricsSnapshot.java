@@ -0,0 +1,81 @@
+package org.bsc.langgraph4j.metrics;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A snapshot of the {@link GraphMetrics} of a graph. Durations are in nanoseconds.
+ */
+@Value
+public class GraphMetricsSnapshot {
+    /**
+     * The graph name.
+     */
+    String graph;
+    /**
+     * The number of runs in progress.
+     */
+    long runsInFlight;
+    /**
+     * The number of ended runs.
+     */
+    long runCount;
+    /**
+     * The number of failed runs.
+     */
+    long runFailureCount;
+    /**
+     * The number of runs stopped by a maximum number of iterations.
+     */
+    long maxIterationHits;
+    /**
+     * The durations of the runs.
+     */
+    HistogramSnapshot runDurations;
+    /**
+     * The number of steps of the runs.
+     */
+    HistogramSnapshot runSteps;
+    /**
+     * The durations of the checkpoint writes.
+     */
+    HistogramSnapshot checkpointDurations;
+    /**
+     * The durations of the executions of each node.
+     */
+    Map<String, HistogramSnapshot> nodeDurations;
+    /**
+     * The number of failed executions of each node.
+     */
+    Map<String, Long> nodeFailures;
+    /**
+     * The number of failed attempts of each node that have been retried.
+     */
+    Map<String, Long> nodeRetries;
+    /**
+     * The number of times each route of a conditional edge has been taken, by source node and target node.
+     */
+    Map<String, Map<String, Long>> routes;
+
+    /**
+     * Formats this snapshot in the Prometheus text exposition format.
+     *
+     * @return the Prometheus metrics
+     */
+    public String toPrometheus() {
+        return MetricsFormat.prometheus( Collections.singletonList( this ) );
+    }
+
+    /**
+     * Formats this snapshot in JSON.
+     *
+     * @return the JSON object
+     */
+    public String toJson() {
+        final StringBuilder result = new StringBuilder();
+        MetricsFormat.json( this, result );
+        return result.toString();
+    }
+}
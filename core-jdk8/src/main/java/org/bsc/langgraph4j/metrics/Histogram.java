@@ -0,0 +1,107 @@
+package org.bsc.langgraph4j.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of positive values, such as latencies in nanoseconds, with a bounded relative error.
+ * <p>
+ * As in an HDR histogram, the buckets are log-linear: each power of two range is split into
+ * {@code 2^SUB_BUCKET_BITS} buckets of equal width, so that the value reported for a quantile is within
+ * about 3% of the recorded one, whatever its magnitude. Values above {@code 2^MAX_EXPONENT} (about 9.7 hours
+ * in nanoseconds) are recorded in the last bucket. Recording a value never allocates.
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 45;
+    private static final int BUCKETS = SUB_BUCKETS + ( MAX_EXPONENT - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator( Math::max, 0L );
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value
+     */
+    public void record( long value ) {
+        final long v = Math.max( 0L, value );
+        buckets.incrementAndGet( indexOf( v ) );
+        count.increment();
+        sum.add( v );
+        max.accumulate( v );
+    }
+
+    /**
+     * Returns a snapshot of the recorded values. The snapshot is consistent only if no value is recorded meanwhile.
+     *
+     * @return the histogram snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for( int i = 0; i < BUCKETS; ++i ) {
+            counts[i] = buckets.get( i );
+            total += counts[i];
+        }
+        final long maxValue = max.get();
+        return new HistogramSnapshot( total, sum.sum(), maxValue,
+                                      valueAt( counts, total, 0.5, maxValue ),
+                                      valueAt( counts, total, 0.9, maxValue ),
+                                      valueAt( counts, total, 0.99, maxValue ),
+                                      valueAt( counts, total, 0.999, maxValue ) );
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    static int indexOf( long value ) {
+        if( value < SUB_BUCKETS ) {
+            return (int)value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros( value );
+        if( exponent > MAX_EXPONENT ) {
+            return BUCKETS - 1;
+        }
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int)( ( value >> shift ) - SUB_BUCKETS );
+    }
+
+    /**
+     * Returns the highest value recorded in the given bucket.
+     */
+    static long highestValueOf( int index ) {
+        if( index < SUB_BUCKETS ) {
+            return index;
+        }
+        final int shift = ( index - SUB_BUCKETS ) / SUB_BUCKETS;
+        final long mantissa = ( index - SUB_BUCKETS ) % SUB_BUCKETS + SUB_BUCKETS;
+        return ( ( mantissa + 1 ) << shift ) - 1;
+    }
+
+    private static long valueAt( long[] counts, long total, double quantile, long maxValue ) {
+        if( total == 0 ) {
+            return 0;
+        }
+        final long rank = Math.max( 1L, (long)Math.ceil( quantile * total ) );
+        long cumulated = 0;
+        for( int i = 0; i < counts.length; ++i ) {
+            cumulated += counts[i];
+            if( cumulated >= rank ) {
+                return Math.min( highestValueOf( i ), maxValue );
+            }
+        }
+        return maxValue;
+    }
+}
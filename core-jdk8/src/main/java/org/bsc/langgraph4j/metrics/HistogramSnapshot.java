@@ -0,0 +1,26 @@
+package org.bsc.langgraph4j.metrics;
+
+import lombok.Value;
+
+/**
+ * The count, sum and main quantiles of the values recorded by a {@link Histogram}.
+ */
+@Value
+public class HistogramSnapshot {
+    long count;
+    long sum;
+    long max;
+    long p50;
+    long p90;
+    long p99;
+    long p999;
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, 0 if no value has been recorded
+     */
+    public double mean() {
+        return ( count == 0 ) ? 0.0 : (double)sum / count;
+    }
+}
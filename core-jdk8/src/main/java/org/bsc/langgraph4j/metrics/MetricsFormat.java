@@ -0,0 +1,180 @@
+package org.bsc.langgraph4j.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Formats metrics snapshots in the Prometheus text exposition format and in JSON.
+ */
+final class MetricsFormat {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private MetricsFormat() {}
+
+    /**
+     * Formats the given snapshots in the Prometheus text exposition format: each metric family is written once,
+     * with a sample per graph. Durations are exported in seconds, histograms as summaries.
+     */
+    static String prometheus( List<GraphMetricsSnapshot> snapshots ) {
+        final StringBuilder out = new StringBuilder();
+
+        family( out, "langgraph4j_runs_in_flight", "gauge", "Runs in progress." );
+        snapshots.forEach( s -> sample( out, "langgraph4j_runs_in_flight", labels( s.getGraph() ), s.getRunsInFlight() ) );
+
+        family( out, "langgraph4j_runs_total", "counter", "Ended runs." );
+        snapshots.forEach( s -> sample( out, "langgraph4j_runs_total", labels( s.getGraph() ), s.getRunCount() ) );
+
+        family( out, "langgraph4j_run_failures_total", "counter", "Failed runs." );
+        snapshots.forEach( s -> sample( out, "langgraph4j_run_failures_total", labels( s.getGraph() ), s.getRunFailureCount() ) );
+
+        family( out, "langgraph4j_max_iterations_total", "counter", "Runs stopped by a maximum number of iterations." );
+        snapshots.forEach( s -> sample( out, "langgraph4j_max_iterations_total", labels( s.getGraph() ), s.getMaxIterationHits() ) );
+
+        family( out, "langgraph4j_run_duration_seconds", "summary", "Duration of the runs." );
+        snapshots.forEach( s -> summary( out, "langgraph4j_run_duration_seconds", labels( s.getGraph() ), s.getRunDurations(), NANOS_PER_SECOND ) );
+
+        family( out, "langgraph4j_run_steps", "summary", "Steps executed by the runs." );
+        snapshots.forEach( s -> summary( out, "langgraph4j_run_steps", labels( s.getGraph() ), s.getRunSteps(), 1.0 ) );
+
+        family( out, "langgraph4j_node_duration_seconds", "summary", "Duration of the node executions." );
+        snapshots.forEach( s -> s.getNodeDurations().forEach( (node, histogram) ->
+                summary( out, "langgraph4j_node_duration_seconds", labels( s.getGraph(), "node", node ), histogram, NANOS_PER_SECOND ) ) );
+
+        family( out, "langgraph4j_node_failures_total", "counter", "Failed node executions." );
+        snapshots.forEach( s -> s.getNodeFailures().forEach( (node, count) ->
+                sample( out, "langgraph4j_node_failures_total", labels( s.getGraph(), "node", node ), count ) ) );
+
+        family( out, "langgraph4j_node_retries_total", "counter", "Failed node attempts that have been retried." );
+        snapshots.forEach( s -> s.getNodeRetries().forEach( (node, count) ->
+                sample( out, "langgraph4j_node_retries_total", labels( s.getGraph(), "node", node ), count ) ) );
+
+        family( out, "langgraph4j_routes_total", "counter", "Routes taken by the conditional edges." );
+        snapshots.forEach( s -> s.getRoutes().forEach( (source, targets) -> targets.forEach( (target, count) ->
+                sample( out, "langgraph4j_routes_total", labels( s.getGraph(), "source", source ) + ",target=\"" + escapeLabel( target ) + "\"", count ) ) ) );
+
+        family( out, "langgraph4j_checkpoint_write_duration_seconds", "summary", "Duration of the checkpoint writes." );
+        snapshots.forEach( s -> summary( out, "langgraph4j_checkpoint_write_duration_seconds", labels( s.getGraph() ), s.getCheckpointDurations(), NANOS_PER_SECOND ) );
+
+        return out.toString();
+    }
+
+    private static void family( StringBuilder out, String name, String type, String help ) {
+        out.append( "# HELP " ).append( name ).append( ' ' ).append( help ).append( '\n' );
+        out.append( "# TYPE " ).append( name ).append( ' ' ).append( type ).append( '\n' );
+    }
+
+    private static void sample( StringBuilder out, String name, String labels, Number value ) {
+        out.append( name ).append( '{' ).append( labels ).append( "} " ).append( value ).append( '\n' );
+    }
+
+    private static void summary( StringBuilder out, String name, String labels, HistogramSnapshot histogram, double unit ) {
+        sample( out, name, labels + ",quantile=\"0.5\"", histogram.getP50() / unit );
+        sample( out, name, labels + ",quantile=\"0.9\"", histogram.getP90() / unit );
+        sample( out, name, labels + ",quantile=\"0.99\"", histogram.getP99() / unit );
+        sample( out, name, labels + ",quantile=\"0.999\"", histogram.getP999() / unit );
+        sample( out, name + "_sum", labels, histogram.getSum() / unit );
+        sample( out, name + "_count", labels, histogram.getCount() );
+    }
+
+    private static String labels( String graph ) {
+        return "graph=\"" + escapeLabel( graph ) + "\"";
+    }
+
+    private static String labels( String graph, String name, String value ) {
+        return labels( graph ) + "," + name + "=\"" + escapeLabel( value ) + "\"";
+    }
+
+    private static String escapeLabel( String value ) {
+        return value.replace( "\\", "\\\\" ).replace( "\"", "\\\"" ).replace( "\n", "\\n" );
+    }
+
+    /**
+     * Formats the given snapshot as a JSON object.
+     */
+    static void json( GraphMetricsSnapshot snapshot, StringBuilder out ) {
+        out.append( '{' );
+        string( out, "graph" ).append( ':' );
+        string( out, snapshot.getGraph() ).append( ',' );
+        string( out, "runsInFlight" ).append( ':' ).append( snapshot.getRunsInFlight() ).append( ',' );
+        string( out, "runCount" ).append( ':' ).append( snapshot.getRunCount() ).append( ',' );
+        string( out, "runFailureCount" ).append( ':' ).append( snapshot.getRunFailureCount() ).append( ',' );
+        string( out, "maxIterationHits" ).append( ':' ).append( snapshot.getMaxIterationHits() ).append( ',' );
+        string( out, "runDurations" ).append( ':' );
+        json( snapshot.getRunDurations(), out );
+        out.append( ',' );
+        string( out, "runSteps" ).append( ':' );
+        json( snapshot.getRunSteps(), out );
+        out.append( ',' );
+        string( out, "checkpointDurations" ).append( ':' );
+        json( snapshot.getCheckpointDurations(), out );
+        out.append( ',' );
+        string( out, "nodeDurations" ).append( ':' );
+        json( snapshot.getNodeDurations(), out, histogram -> {
+            final StringBuilder value = new StringBuilder();
+            json( histogram, value );
+            return value;
+        });
+        out.append( ',' );
+        string( out, "nodeFailures" ).append( ':' );
+        json( snapshot.getNodeFailures(), out, String::valueOf );
+        out.append( ',' );
+        string( out, "nodeRetries" ).append( ':' );
+        json( snapshot.getNodeRetries(), out, String::valueOf );
+        out.append( ',' );
+        string( out, "routes" ).append( ':' );
+        json( snapshot.getRoutes(), out, targets -> {
+            final StringBuilder value = new StringBuilder();
+            json( targets, value, String::valueOf );
+            return value;
+        });
+        out.append( '}' );
+    }
+
+    private static void json( HistogramSnapshot histogram, StringBuilder out ) {
+        out.append( "{\"count\":" ).append( histogram.getCount() )
+           .append( ",\"sum\":" ).append( histogram.getSum() )
+           .append( ",\"max\":" ).append( histogram.getMax() )
+           .append( ",\"p50\":" ).append( histogram.getP50() )
+           .append( ",\"p90\":" ).append( histogram.getP90() )
+           .append( ",\"p99\":" ).append( histogram.getP99() )
+           .append( ",\"p999\":" ).append( histogram.getP999() )
+           .append( '}' );
+    }
+
+    private static <T> void json( Map<String, T> map, StringBuilder out, Function<T, CharSequence> value ) {
+        out.append( '{' );
+        boolean first = true;
+        for( Map.Entry<String, T> e : map.entrySet() ) {
+            if( !first ) {
+                out.append( ',' );
+            }
+            first = false;
+            string( out, e.getKey() ).append( ':' ).append( value.apply( e.getValue() ) );
+        }
+        out.append( '}' );
+    }
+
+    private static StringBuilder string( StringBuilder out, String value ) {
+        out.append( '"' );
+        for( int i = 0; i < value.length(); ++i ) {
+            final char c = value.charAt( i );
+            switch( c ) {
+                case '"': out.append( "\\\"" ); break;
+                case '\\': out.append( "\\\\" ); break;
+                case '\n': out.append( "\\n" ); break;
+                case '\r': out.append( "\\r" ); break;
+                case '\t': out.append( "\\t" ); break;
+                default:
+                    if( c < 0x20 ) {
+                        out.append( String.format( "\\u%04x", (int)c ) );
+                    }
+                    else {
+                        out.append( c );
+                    }
+            }
+        }
+        return out.append( '"' );
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * Metrics of the runs of compiled graphs, without dependency on a metrics library.
+ * <p>
+ * A {@link org.bsc.langgraph4j.metrics.GraphMetrics} is a {@link org.bsc.langgraph4j.GraphListener}
+ * that aggregates the run events in lock-free counters and histograms. Its snapshots can be exported
+ * in the Prometheus text format or in JSON, usually through a {@link org.bsc.langgraph4j.metrics.GraphMetricsRegistry}
+ * holding the metrics of several graphs.
+ */
+package org.bsc.langgraph4j.metrics;
@@ -1,5 +1,8 @@
 package org.bsc.langgraph4j.serializer;
 
+import org.bsc.langgraph4j.jfr.FlightEvent;
+import org.bsc.langgraph4j.jfr.FlightEvents;
+
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.util.*;
@@ -20,4 +23,20 @@ public class StateSerializer extends MapSerialize {
     public Map<String, Object> read(ObjectInput in) throws IOException, ClassNotFoundException {
         return Collections.unmodifiableMap(super.read(in));
     }
+
+    @Override
+    public byte[] writeObject(Map<String, Object> object) throws IOException {
+        final FlightEvent event = FlightEvents.stateWrite();
+        final byte[] bytes = super.writeObject(object);
+        event.size( bytes.length ).commit();
+        return bytes;
+    }
+
+    @Override
+    public Map<String, Object> readObject(byte[] bytes) throws IOException, ClassNotFoundException {
+        final FlightEvent event = FlightEvents.stateRead();
+        final Map<String, Object> result = super.readObject(bytes);
+        event.size( bytes.length ).commit();
+        return result;
+    }
 }
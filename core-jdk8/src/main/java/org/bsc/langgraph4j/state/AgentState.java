@@ -4,8 +4,6 @@ import lombok.var;
 
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Optional.ofNullable;
@@ -110,31 +108,21 @@ public class AgentState {
      */
     private static Object mergeFunction(Object currentValue, Object newValue) {
         if (currentValue instanceof AppendableValueRW<?>) {
-            ((AppendableValueRW<?>) currentValue).append(newValue);
-            return currentValue;
+            // copy on write: the current value could be shared with other states
+            var result = new AppendableValueRW<>(((AppendableValueRW<?>) currentValue).values());
+            result.append(newValue);
+            return result;
         }
         return newValue;
     }
 
-    private static Map<String,Object> updatePartialStateFromSchema(  Map<String,Object> state, Map<String,Object> partialState, Map<String, Channel<?>> channels ) {
-        if( channels == null || channels.isEmpty() ) {
-            return partialState;
-        }
-        return partialState.entrySet().stream().map( entry -> {
-
-            var channel = channels.get(entry.getKey());
-            if (channel != null) {
-                var newValue = channel.update( entry.getKey(), state.get(entry.getKey()), entry.getValue());
-                return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), newValue);
-            }
-
-            return entry;
-        }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    }
-
     /**
      * Updates a state with the provided partial state.
      * The merge function is used to merge the current state value with the new value.
+     * <p>
+     * The given state is never modified: the result is a new unmodifiable map that shares
+     * all the unchanged values with it, so the cost of the update is proportional to the number
+     * of keys and not to the size of the values.
      *
      * @param state the current state
      * @param partialState the partial state to update from
@@ -148,13 +136,20 @@ public class AgentState {
             return state;
         }
 
-        var updatedPartialState = updatePartialStateFromSchema(state, partialState, channels);
+        var result = new HashMap<String,Object>(state);
+
+        for( var entry : partialState.entrySet() ) {
+            var key = entry.getKey();
+            var newValue = entry.getValue();
+
+            var channel = ( channels != null ) ? channels.get(key) : null;
+            if( channel != null ) {
+                newValue = channel.update( key, state.get(key), newValue );
+            }
+            result.put( key, state.containsKey(key) ? mergeFunction( state.get(key), newValue ) : newValue );
+        }
 
-        return Stream.concat(state.entrySet().stream(), updatedPartialState.entrySet().stream())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        AgentState::mergeFunction));
+        return unmodifiableMap(result);
     }
 
     /**
@@ -1,9 +1,10 @@
 package org.bsc.langgraph4j.state;
 
 import lombok.extern.slf4j.Slf4j;
+import org.bsc.langgraph4j.utils.AppendOnlyList;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -14,6 +15,8 @@ import static org.bsc.langgraph4j.utils.CollectionsUtils.listOf;
 /*
  * AppenderChannel is a {@link Channel} implementation that
  * is used to accumulate a list of values.
+ * The accumulated list is an {@link AppendOnlyList}, so the previous value is never
+ * mutated and earlier states keep sharing its elements.
  *
  * @param <T> the type of the values being accumulated
  * @see Channel
@@ -34,6 +37,34 @@ public class AppenderChannel<T> implements Channel<List<T>> {
         return ofNullable(defaultProvider);
     }
 
+    /**
+     * Holds values that must be appended one by one, rather than as a single element.
+     *
+     * @param <T> the type of the values
+     */
+    public static final class AppendAll<T> {
+        private final List<T> values;
+
+        private AppendAll( List<T> values ) {
+            this.values = values;
+        }
+
+        public List<T> values() {
+            return values;
+        }
+    }
+
+    /**
+     * Wraps the given values so that, returned in a partial state, each of them is appended to the channel.
+     *
+     * @param values the values to append
+     * @param <T> the type of the values
+     * @return the wrapped values
+     */
+    public static <T> AppendAll<T> appendAll( List<T> values ) {
+        return new AppendAll<>( Objects.requireNonNull( values, "values cannot be null" ) );
+    }
+
     public static <T> AppenderChannel<T> of( Supplier<List<T>> defaultProvider ) {
         return new AppenderChannel<>(defaultProvider);
     }
@@ -43,16 +74,18 @@ public class AppenderChannel<T> implements Channel<List<T>> {
             @Override
             public List<T> apply(List<T> left, List<T> right) {
                 if( left == null ) {
-                    return right;
+                    return AppendOnlyList.of(right);
                 }
-                left.addAll(right);
-                return left;
+                return AppendOnlyList.of(left).appendAll(right);
             }
         };
         this.defaultProvider = defaultProvider;
     }
 
     public Object update( String key, Object oldValue, Object newValue) {
+        if( newValue instanceof AppendAll ) {
+            return Channel.super.update(key, oldValue, ((AppendAll<?>)newValue).values());
+        }
         try {
             try { // this is to allow single value other than
                 T typedValue = (T) newValue;
@@ -0,0 +1,122 @@
+package org.bsc.langgraph4j.utils;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * An immutable list that supports cheap appends through structural sharing.
+ * <p>
+ * Every instance is a read-only view over the first {@code size} elements of a shared,
+ * growable buffer. Appending to the most recent version of a list writes in place into
+ * the shared buffer (amortized O(1) per element) and returns a new, longer view, while
+ * every previously returned view keeps seeing exactly the same elements.
+ * Appending to an older version copies the visible elements into a new buffer.
+ *
+ * @param <T> the type of the elements
+ */
+public final class AppendOnlyList<T> extends AbstractList<T> implements RandomAccess, Serializable {
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private static final class Buffer {
+        volatile Object[] elements;
+        int size;
+
+        Buffer( Object[] elements, int size ) {
+            this.elements = elements;
+            this.size = size;
+        }
+    }
+
+    private final transient Buffer buffer;
+    private final int size;
+
+    private AppendOnlyList( Buffer buffer, int size ) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty list.
+     *
+     * @param <T> the type of the elements
+     * @return an empty list
+     */
+    public static <T> AppendOnlyList<T> empty() {
+        return new AppendOnlyList<>( new Buffer( new Object[DEFAULT_CAPACITY], 0 ), 0);
+    }
+
+    /**
+     * Returns the given collection as an {@code AppendOnlyList}.
+     * If the collection is already an {@code AppendOnlyList} it is returned as is, otherwise its elements are copied.
+     *
+     * @param values the initial values
+     * @param <T> the type of the elements
+     * @return an {@code AppendOnlyList} containing the given values
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AppendOnlyList<T> of( Collection<? extends T> values ) {
+        Objects.requireNonNull( values, "values cannot be null" );
+        if( values instanceof AppendOnlyList ) {
+            return (AppendOnlyList<T>) values;
+        }
+        Object[] elements = values.toArray();
+        if( elements.length < DEFAULT_CAPACITY ) {
+            elements = Arrays.copyOf( elements, DEFAULT_CAPACITY );
+        }
+        return new AppendOnlyList<>( new Buffer( elements, values.size() ), values.size() );
+    }
+
+    /**
+     * Returns a new list made of the elements of this list followed by the given values.
+     * This list is left unchanged.
+     *
+     * @param values the values to append
+     * @return the resulting list
+     */
+    public AppendOnlyList<T> appendAll( Collection<? extends T> values ) {
+        Objects.requireNonNull( values, "values cannot be null" );
+        if( values.isEmpty() ) {
+            return this;
+        }
+        final Object[] newElements = values.toArray();
+
+        synchronized ( buffer ) {
+            if( buffer.size == size ) { // this is the latest version: we can claim the buffer tail
+                Object[] elements = buffer.elements;
+                final int newSize = size + newElements.length;
+                if( newSize > elements.length ) {
+                    elements = Arrays.copyOf( elements, Math.max( newSize, elements.length + (elements.length >> 1) ) );
+                }
+                System.arraycopy( newElements, 0, elements, size, newElements.length );
+                buffer.elements = elements;
+                buffer.size = newSize;
+                return new AppendOnlyList<>( buffer, newSize );
+            }
+        }
+        // the tail has already been claimed by another version: copy the visible elements
+        final int newSize = size + newElements.length;
+        final Object[] elements = Arrays.copyOf( buffer.elements, Math.max( newSize, DEFAULT_CAPACITY ) );
+        System.arraycopy( newElements, 0, elements, size, newElements.length );
+        return new AppendOnlyList<>( new Buffer( elements, newSize ), newSize );
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get( int index ) {
+        if( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( String.format( "Index: %d, Size: %d", index, size ) );
+        }
+        return (T) buffer.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return new ArrayList<>( this );
+    }
+}
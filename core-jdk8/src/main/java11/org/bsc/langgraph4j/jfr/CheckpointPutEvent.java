@@ -0,0 +1,47 @@
+package org.bsc.langgraph4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.bsc.langgraph4j.CheckpointPut")
+@Label("Checkpoint Put")
+@Category("LangGraph4j")
+@Description("Write of a checkpoint by the checkpoint saver")
+final class CheckpointPutEvent extends Event implements FlightEvent {
+
+    @Label("Run Thread Id")
+    @Description("The thread of the run configuration")
+    String runThreadId;
+
+    @Label("Node Id")
+    @Description("The node the checkpoint is taken after")
+    String nodeId;
+
+    @Label("State Size")
+    @Description("The number of keys of the checkpoint state")
+    long stateSize;
+
+    @Label("Failure")
+    @Description("The class of the exception raised by the checkpoint saver")
+    String failure;
+
+    CheckpointPutEvent( String runThreadId, String nodeId ) {
+        this.runThreadId = runThreadId;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public FlightEvent size( long size ) {
+        this.stateSize = size;
+        return this;
+    }
+
+    @Override
+    public FlightEvent failure( Throwable error ) {
+        this.failure = ( error != null ) ? error.getClass().getName() : null;
+        return this;
+    }
+}
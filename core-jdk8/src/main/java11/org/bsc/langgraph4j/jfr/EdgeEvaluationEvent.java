@@ -0,0 +1,35 @@
+package org.bsc.langgraph4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.bsc.langgraph4j.EdgeEvaluation")
+@Label("Edge Evaluation")
+@Category("LangGraph4j")
+@Description("Choice of the next node, evaluation of the edge condition included")
+final class EdgeEvaluationEvent extends Event implements FlightEvent {
+
+    @Label("Run Thread Id")
+    @Description("The thread of the run configuration")
+    String runThreadId;
+
+    @Label("Source Node Id")
+    String sourceId;
+
+    @Label("Target Node Id")
+    String targetId;
+
+    EdgeEvaluationEvent( String runThreadId, String sourceId ) {
+        this.runThreadId = runThreadId;
+        this.sourceId = sourceId;
+    }
+
+    @Override
+    public FlightEvent target( String nodeId ) {
+        this.targetId = nodeId;
+        return this;
+    }
+}
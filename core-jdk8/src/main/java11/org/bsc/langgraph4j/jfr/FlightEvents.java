@@ -0,0 +1,88 @@
+package org.bsc.langgraph4j.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+
+/**
+ * Starts the flight recorder events of the graph runs.
+ * <p>
+ * JDK 11+ variant: the events are {@code jdk.jfr} events. When the recorder, or the event type, is disabled
+ * the factories only check a flag and return {@link FlightEvent#DISABLED}, so nothing is allocated.
+ */
+public final class FlightEvents {
+
+    private static final EventType NODE_EXECUTION = EventType.getEventType( NodeExecutionEvent.class );
+    private static final EventType EDGE_EVALUATION = EventType.getEventType( EdgeEvaluationEvent.class );
+    private static final EventType STATE_CLONE = EventType.getEventType( StateCloneEvent.class );
+    private static final EventType STATE_WRITE = EventType.getEventType( StateWriteEvent.class );
+    private static final EventType STATE_READ = EventType.getEventType( StateReadEvent.class );
+    private static final EventType CHECKPOINT_PUT = EventType.getEventType( CheckpointPutEvent.class );
+
+    private FlightEvents() {}
+
+    private static <E extends Event & FlightEvent> FlightEvent begin( E event ) {
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Starts the event of a node execution, retries included.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @param nodeId the node identifier
+     * @return the started event
+     */
+    public static FlightEvent nodeExecution( String threadId, String nodeId ) {
+        return NODE_EXECUTION.isEnabled() ? begin( new NodeExecutionEvent( threadId, nodeId ) ) : FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the evaluation of the edge leaving a node.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @param sourceId the node the edge starts from
+     * @return the started event
+     */
+    public static FlightEvent edgeEvaluation( String threadId, String sourceId ) {
+        return EDGE_EVALUATION.isEnabled() ? begin( new EdgeEvaluationEvent( threadId, sourceId ) ) : FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the creation of a state instance over the state data.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @return the started event
+     */
+    public static FlightEvent stateClone( String threadId ) {
+        return STATE_CLONE.isEnabled() ? begin( new StateCloneEvent( threadId ) ) : FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the serialization of a state.
+     *
+     * @return the started event
+     */
+    public static FlightEvent stateWrite() {
+        return STATE_WRITE.isEnabled() ? begin( new StateWriteEvent() ) : FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of the deserialization of a state.
+     *
+     * @return the started event
+     */
+    public static FlightEvent stateRead() {
+        return STATE_READ.isEnabled() ? begin( new StateReadEvent() ) : FlightEvent.DISABLED;
+    }
+
+    /**
+     * Starts the event of a checkpoint write by the checkpoint saver.
+     *
+     * @param threadId the thread of the run configuration, may be null
+     * @param nodeId the node the checkpoint is taken after
+     * @return the started event
+     */
+    public static FlightEvent checkpointPut( String threadId, String nodeId ) {
+        return CHECKPOINT_PUT.isEnabled() ? begin( new CheckpointPutEvent( threadId, nodeId ) ) : FlightEvent.DISABLED;
+    }
+}
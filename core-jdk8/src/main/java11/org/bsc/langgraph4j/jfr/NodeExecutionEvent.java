@@ -0,0 +1,46 @@
+package org.bsc.langgraph4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.bsc.langgraph4j.NodeExecution")
+@Label("Node Execution")
+@Category("LangGraph4j")
+@Description("Execution of the action of a node, retries included")
+final class NodeExecutionEvent extends Event implements FlightEvent {
+
+    @Label("Run Thread Id")
+    @Description("The thread of the run configuration")
+    String runThreadId;
+
+    @Label("Node Id")
+    String nodeId;
+
+    @Label("Partial State Size")
+    @Description("The number of keys of the partial state returned by the action")
+    long partialStateSize;
+
+    @Label("Failure")
+    @Description("The class of the exception raised by the action")
+    String failure;
+
+    NodeExecutionEvent( String runThreadId, String nodeId ) {
+        this.runThreadId = runThreadId;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public FlightEvent size( long size ) {
+        this.partialStateSize = size;
+        return this;
+    }
+
+    @Override
+    public FlightEvent failure( Throwable error ) {
+        this.failure = ( error != null ) ? error.getClass().getName() : null;
+        return this;
+    }
+}
@@ -0,0 +1,32 @@
+package org.bsc.langgraph4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.bsc.langgraph4j.StateClone")
+@Label("State Clone")
+@Category("LangGraph4j")
+@Description("Creation of a state instance over the state data")
+final class StateCloneEvent extends Event implements FlightEvent {
+
+    @Label("Run Thread Id")
+    @Description("The thread of the run configuration")
+    String runThreadId;
+
+    @Label("State Size")
+    @Description("The number of keys of the state")
+    long stateSize;
+
+    StateCloneEvent( String runThreadId ) {
+        this.runThreadId = runThreadId;
+    }
+
+    @Override
+    public FlightEvent size( long size ) {
+        this.stateSize = size;
+        return this;
+    }
+}
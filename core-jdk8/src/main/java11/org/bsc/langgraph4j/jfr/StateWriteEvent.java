@@ -0,0 +1,25 @@
+package org.bsc.langgraph4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.bsc.langgraph4j.StateWrite")
+@Label("State Write")
+@Category("LangGraph4j")
+@Description("Serialization of a state by the state serializer")
+final class StateWriteEvent extends Event implements FlightEvent {
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Override
+    public FlightEvent size( long size ) {
+        this.bytes = size;
+        return this;
+    }
+}
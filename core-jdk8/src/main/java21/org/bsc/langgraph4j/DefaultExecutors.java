@@ -0,0 +1,29 @@
+package org.bsc.langgraph4j;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Provides the default executors used by {@link CompileConfig}.
+ * <p>
+ * JDK 21+ variant: each task submitted to the run executor is started on a new virtual thread, so that node
+ * actions performing blocking calls don't pin platform threads. A run doesn't keep a single thread: it starts
+ * on a virtual thread and moves to a new one each time it resumes on the run executor, e.g. after a node
+ * executed on the node executor, a retry backoff or a limiter grant. Virtual threads are cheap to start,
+ * and the state of the run is carried by its futures, not by the thread.
+ */
+final class DefaultExecutors {
+
+    private static final Executor VIRTUAL_THREAD_PER_RUN = task ->
+            Thread.ofVirtual().name("langgraph4j-run").start(task);
+
+    private DefaultExecutors() {}
+
+    /**
+     * The executor used to drive graph runs when none has been configured.
+     *
+     * @return the default run executor
+     */
+    static Executor runExecutor() {
+        return VIRTUAL_THREAD_PER_RUN;
+    }
+}
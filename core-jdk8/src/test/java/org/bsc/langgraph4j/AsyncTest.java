@@ -7,7 +7,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.listOf;
@@ -127,4 +130,44 @@ public class AsyncTest {
 
     }
 
+
+    private List<String> boundedQueueOutputs( StreamOverflowPolicy policy ) throws Exception {
+        return boundedQueueOutputs( policy, (latest, e) -> e );
+    }
+
+    private List<String> boundedQueueOutputs( StreamOverflowPolicy policy, BinaryOperator<String> coalesce ) throws Exception {
+        final var generator = new AsyncQueueGenerator<String>( 3, policy, e -> !e.equals("start") && !e.equals("end"), coalesce, () -> {} );
+        final var produced = new CountDownLatch(1);
+
+        final var producer = new Thread( () -> {
+            generator.emit("start");
+            for( int i = 1; i <= 5; ++i ) {
+                if( policy == StreamOverflowPolicy.BLOCK && i == 3 ) {
+                    produced.countDown();
+                }
+                generator.emit( String.valueOf(i) );
+            }
+            produced.countDown();
+            generator.emit("end");
+            generator.complete();
+        });
+        producer.start();
+
+        // consume only once the queue has been filled
+        assertTrue( produced.await( 5, TimeUnit.SECONDS ) );
+
+        final List<String> result = new ArrayList<>();
+        generator.forEachAsync( result::add ).join();
+        producer.join();
+        return result;
+    }
+
+    @Test
+    public void asyncQueueGeneratorOverflowTest() throws Exception {
+
+        assertIterableEquals( listOf( "start", "1", "2", "3", "4", "5", "end"), boundedQueueOutputs( StreamOverflowPolicy.BLOCK ) );
+        assertIterableEquals( listOf( "start", "1", "2", "end"), boundedQueueOutputs( StreamOverflowPolicy.DROP_INTERMEDIATE ) );
+        assertIterableEquals( listOf( "start", "1", "5", "end"), boundedQueueOutputs( StreamOverflowPolicy.COALESCE_LATEST ) );
+        assertIterableEquals( listOf( "start", "1", "2345", "end"), boundedQueueOutputs( StreamOverflowPolicy.COALESCE_LATEST, String::concat ) );
+    }
 }
@@ -0,0 +1,229 @@
+package org.bsc.langgraph4j;
+
+import lombok.Value;
+import org.bsc.langgraph4j.metrics.Histogram;
+import org.bsc.langgraph4j.metrics.HistogramSnapshot;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Drives a compiled graph at a target rate of runs per second for a fixed duration, and reports
+ * the throughput, the run latencies, the allocation rate and the peak heap usage.
+ * <p>
+ * The load is open: runs are started on schedule whether or not the previous ones have completed, and
+ * a run latency is measured from its scheduled start, so that a stalled engine shows up in the latencies
+ * instead of slowing the load down.
+ */
+public class LoadHarness {
+
+    /**
+     * The outcome of a load run.
+     */
+    @Value
+    public static class Report {
+        long started;
+        long completed;
+        long failed;
+        long elapsedNanos;
+        HistogramSnapshot latencies;
+        /**
+         * The bytes allocated by the JVM threads during the load, -1 if the JVM doesn't measure them.
+         */
+        long allocatedBytes;
+        /**
+         * The sum of the peak usages of the heap memory pools during the load.
+         */
+        long peakHeapBytes;
+
+        /**
+         * Returns the number of completed runs per second.
+         *
+         * @return the throughput
+         */
+        public double throughput() {
+            return completed * (double)TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        /**
+         * Returns the number of bytes allocated per second.
+         *
+         * @return the allocation rate, -1 if unknown
+         */
+        public double allocationRate() {
+            return ( allocatedBytes < 0 ) ? -1 : allocatedBytes * (double)TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return format( "runs: %d started, %d completed, %d failed | throughput: %.1f runs/s | " +
+                           "latency ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f | allocation: %.1f MB/s | peak heap: %.1f MB",
+                    started, completed, failed, throughput(),
+                    millis( latencies.getP50() ), millis( latencies.getP90() ), millis( latencies.getP99() ), millis( latencies.getMax() ),
+                    allocationRate() / ( 1024 * 1024 ), peakHeapBytes / ( 1024.0 * 1024 ) );
+        }
+
+        private static double millis( long nanos ) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    private int targetRps = 100;
+    private Duration duration = Duration.ofSeconds(10);
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Runs the load and waits for the started runs to complete, up to the drain timeout.
+     *
+     * @param graph the compiled graph
+     * @param inputs the inputs of the run of the given number
+     * @param <State> the type of the state of the graph
+     * @return the load report
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public <State extends AgentState> Report run( CompiledGraph<State> graph, IntFunction<Map<String,Object>> inputs ) throws InterruptedException {
+        final long period = TimeUnit.SECONDS.toNanos(1) / targetRps;
+        final long durationNanos = duration.toNanos();
+        final Histogram latencies = new Histogram();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final List<CompletableFuture<State>> runs = new ArrayList<>();
+
+        final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+            if( pool.getType() == MemoryType.HEAP && pool.isValid() ) {
+                pool.resetPeakUsage();
+                heapPools.add( pool );
+            }
+        }
+        final long allocatedAtStart = allocatedBytes();
+
+        final long start = System.nanoTime();
+        for( int run = 0; ; ++run ) {
+            final long scheduledAt = start + run * period;
+            if( scheduledAt - start >= durationNanos ) {
+                break;
+            }
+            final long wait = scheduledAt - System.nanoTime();
+            if( wait > 0 ) {
+                LockSupport.parkNanos( wait );
+            }
+            if( Thread.interrupted() ) {
+                throw new InterruptedException();
+            }
+            final CompletableFuture<State> result = graph.invokeAsync( inputs.apply( run ) );
+            result.whenComplete( (state, ex) -> {
+                latencies.record( System.nanoTime() - scheduledAt );
+                if( ex != null ) {
+                    failed.increment();
+                }
+                else {
+                    completed.increment();
+                }
+            });
+            runs.add( result );
+        }
+
+        try {
+            CompletableFuture.allOf( runs.toArray( new CompletableFuture[0] ) ).get( drainTimeout.toNanos(), TimeUnit.NANOSECONDS );
+        }
+        catch( ExecutionException | TimeoutException ex ) {
+            // the failed runs are counted, the pending ones are reported as neither completed nor failed
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        final long allocatedAtEnd = allocatedBytes();
+        long peakHeap = 0L;
+        for( MemoryPoolMXBean pool : heapPools ) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        return new Report( runs.size(), completed.sum(), failed.sum(), elapsed, latencies.snapshot(),
+                           ( allocatedAtStart < 0 ) ? -1 : allocatedAtEnd - allocatedAtStart, peakHeap );
+    }
+
+    /**
+     * Returns the bytes allocated so far by the live threads, -1 if the JVM doesn't measure them.
+     * The allocations of the threads that terminate during the load are missed.
+     */
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if( !( threads instanceof com.sun.management.ThreadMXBean ) ) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean)threads;
+        if( !allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled() ) {
+            return -1;
+        }
+        long result = 0L;
+        for( long bytes : allocations.getThreadAllocatedBytes( threads.getAllThreadIds() ) ) {
+            if( bytes > 0 ) {
+                result += bytes;
+            }
+        }
+        return result;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final LoadHarness harness = new LoadHarness();
+
+        /**
+         * Sets the number of runs started per second. Defaults to 100.
+         *
+         * @param targetRps the target rate of runs per second
+         * @return this builder
+         */
+        public Builder targetRps(int targetRps) {
+            if( targetRps <= 0 ) {
+                throw new IllegalArgumentException("targetRps must be greater than 0");
+            }
+            this.harness.targetRps = targetRps;
+            return this;
+        }
+        /**
+         * Sets the time during which runs are started. Defaults to 10 seconds.
+         *
+         * @param duration the load duration
+         * @return this builder
+         */
+        public Builder duration(Duration duration) {
+            this.harness.duration = duration;
+            return this;
+        }
+        /**
+         * Sets the maximum time to wait for the started runs to complete. Defaults to 30 seconds.
+         *
+         * @param drainTimeout the drain timeout
+         * @return this builder
+         */
+        public Builder drainTimeout(Duration drainTimeout) {
+            this.harness.drainTimeout = drainTimeout;
+            return this;
+        }
+        public LoadHarness build() {
+            return harness;
+        }
+    }
+
+    private LoadHarness() {}
+}
@@ -0,0 +1,50 @@
+package org.bsc.langgraph4j;
+
+import lombok.var;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the multi-release classes of the packaged jar: run by the failsafe plugin on JDK 11+,
+ * on the jar rather than on the compiled classes, so that the classes of the running JDK are loaded.
+ */
+public class MultiReleaseIT {
+
+    static int javaVersion() {
+        final String version = System.getProperty("java.specification.version");
+        return Integer.parseInt( version.startsWith("1.") ? version.substring(2) : version );
+    }
+
+    static boolean isVirtual( Thread thread ) throws Exception {
+        return javaVersion() >= 21 && (Boolean)Thread.class.getMethod("isVirtual").invoke( thread );
+    }
+
+    @Test
+    void testDefaultRunExecutor() throws Exception {
+        var nodeThread = new AtomicReference<Thread>();
+
+        var app = new StateGraph<>( AgentState::new )
+                .addNode("agent", node_async( state -> {
+                    nodeThread.set( Thread.currentThread() );
+                    return Collections.emptyMap();
+                }))
+                .addEdge(START, "agent")
+                .addEdge("agent", END)
+                .compile();
+
+        app.invokeAsync( mapOf() ).get( 10, TimeUnit.SECONDS );
+
+        // JDK 21+ runs start on a virtual thread, older JDKs on the common pool
+        assertEquals( javaVersion() >= 21, isVirtual( nodeThread.get() ) );
+    }
+}
@@ -2,19 +2,50 @@ package org.bsc.langgraph4j;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.var;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.action.ChunkSink;
+import org.bsc.langgraph4j.action.NodeAction;
+import org.bsc.langgraph4j.cache.CacheEviction;
+import org.bsc.langgraph4j.cache.CachePolicy;
+import org.bsc.langgraph4j.cache.CacheStats;
+import org.bsc.langgraph4j.cache.NodeCache;
+import org.bsc.langgraph4j.checkpoint.Checkpoint;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.bsc.langgraph4j.checkpoint.PendingWrite;
+import org.bsc.langgraph4j.jfr.FlightEvent;
+import org.bsc.langgraph4j.jfr.FlightEvents;
+import org.bsc.langgraph4j.metrics.GraphMetricsRegistry;
+import org.bsc.langgraph4j.metrics.Histogram;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.AppendableValue;
 import org.bsc.langgraph4j.state.AppenderChannel;
 import org.bsc.langgraph4j.state.Channel;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.bsc.langgraph4j.StateGraph.END;
 import static org.bsc.langgraph4j.StateGraph.START;
 import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
 import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_streaming;
+import static org.bsc.langgraph4j.action.AsyncSendAction.send_async;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.listOf;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
 import static org.junit.jupiter.api.Assertions.*;
@@ -84,6 +115,26 @@ public class StateGraphTest
 
     }
 
+    @Test
+    void testConditionalEntryPointValidation() throws Exception {
+
+        var workflow = new StateGraph<>(AgentState::new)
+                .addNode("agent_1", node_async( state -> mapOf("prop1", "test") ))
+                .addConditionalEdges( START, edge_async( state -> "a2" ), mapOf( "a1", "agent_1", "a2", "agent_2") )
+                .addEdge( "agent_1",  END);
+
+        var exception = assertThrows(GraphStateException.class, workflow::compile);
+        System.out.println(exception.getMessage());
+
+        workflow.addNode("agent_2", node_async( state -> mapOf("prop2", "test") ))
+                .addEdge( "agent_2",  END);
+
+        var result = workflow.compile().invoke( mapOf() );
+        assertTrue( result.isPresent() );
+        assertEquals( "test", result.get().value("prop2").orElse(null) );
+        assertFalse( result.get().value("prop1").isPresent() );
+    }
+
     @Test
     public void testRunningOneNode() throws Exception {
 
@@ -164,6 +215,100 @@ public class StateGraphTest
         assertIterableEquals( listOf( "message1", "message2", "message3"), result.get().messages() );
     }
 
+    @Test
+    void testWithAppenderStructuralSharing() throws Exception {
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("agent_1", node_async( state -> mapOf("messages", "message1")))
+                .addNode("agent_2", node_async( state -> mapOf( "messages", "message2")))
+                .addNode("agent_3", node_async( state -> mapOf("messages", "message3")))
+                .addEdge("agent_1", "agent_2")
+                .addEdge( "agent_2", "agent_3")
+                .addEdge( START, "agent_1")
+                .addEdge( "agent_3", END);
+
+        var app = workflow.compile();
+
+        var outputs = app.stream( mapOf() ).stream().collect(Collectors.toList());
+
+        assertEquals( 5, outputs.size() );
+        // each output must keep its own view of the messages, even though they share the same elements
+        assertIterableEquals( listOf(), outputs.get(0).state().messages() );
+        assertIterableEquals( listOf( "message1"), outputs.get(1).state().messages() );
+        assertIterableEquals( listOf( "message1", "message2"), outputs.get(2).state().messages() );
+        assertIterableEquals( listOf( "message1", "message2", "message3"), outputs.get(3).state().messages() );
+        assertThrows( UnsupportedOperationException.class, () -> outputs.get(3).state().messages().add("message4") );
+    }
+
+    @Test
+    void testParallelBranches() throws Exception {
+
+        // both branches must be running at the same time to pass the barrier
+        var barrier = new CyclicBarrier(2);
+        var executor = Executors.newFixedThreadPool(2);
+
+        NodeAction<MessagesState> branch = state -> {
+            barrier.await( 5, TimeUnit.SECONDS );
+            return mapOf();
+        };
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addNode("B", node_async( state -> { branch.apply(state); return mapOf("messages", "B"); }))
+                .addNode("C", node_async( state -> { branch.apply(state); return mapOf("messages", "C"); }))
+                .addNode("D", node_async( state -> mapOf("messages", "D", "steps", state.messages().size() )))
+                .addEdge(START, "A")
+                .addEdge("A", "B")
+                .addEdge("A", "C")
+                .addEdge("B", "D")
+                .addEdge("C", "D")
+                .addEdge("D", END);
+
+        try {
+            var app = workflow.compile( CompileConfig.builder().parallelExecutor(executor).build() );
+
+            var outputs = app.stream( mapOf() ).stream().collect(Collectors.toList());
+
+            assertIterableEquals( listOf( START, "A", "B", "C", "D", END ),
+                    outputs.stream().map(NodeOutput::node).collect(Collectors.toList()) );
+
+            var result = outputs.get( outputs.size() - 1 ).state();
+            assertIterableEquals( listOf( "A", "B", "C", "D"), result.messages() );
+            assertEquals( 3, result.steps() );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testParallelBranchesValidation() throws Exception {
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addNode("B", node_async( state -> mapOf("messages", "B")))
+                .addNode("C", node_async( state -> mapOf("messages", "C")))
+                .addNode("D", node_async( state -> mapOf("messages", "D")))
+                .addEdge(START, "A")
+                .addEdge("A", "B")
+                .addEdge("A", "C")
+                .addEdge("B", "D")
+                .addEdge("D", END);
+
+        var exception = assertThrows(GraphStateException.class, workflow::compile);
+        assertEquals( "parallel branch node: C must have a single unconditional outgoing edge!", exception.getMessage() );
+
+        workflow.addEdge("C", END);
+        exception = assertThrows(GraphStateException.class, workflow::compile);
+        assertEquals( "parallel branches from sourceId: A must converge on the same node!", exception.getMessage() );
+
+        exception = assertThrows(GraphStateException.class, () -> workflow.addEdge("A", "B"));
+        assertEquals( "edge from sourceId: A to targetId: B already exist!", exception.getMessage() );
+
+        exception = assertThrows(GraphStateException.class, () -> workflow.addEdge("A", END));
+        assertEquals( "parallel edges from sourceId: A cannot target END!", exception.getMessage() );
+    }
+
     static class MessagesStateDeprecated extends AgentState {
 
         public MessagesStateDeprecated(Map<String, Object> initData) {
@@ -215,4 +360,1290 @@ public class StateGraphTest
         assertIterableEquals( listOf( "message1", "message2", "message3"), result.get().messages().values() );
     }
 
+
+    @Test
+    void testNonBlockingExecution() throws Exception {
+
+        // node action completed by another thread, long after the action returned
+        var scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        AsyncNodeAction<MessagesState> delayed = state -> {
+            var result = new CompletableFuture<Map<String,Object>>();
+            scheduler.schedule( () -> result.complete( mapOf("messages", "B") ), 50, TimeUnit.MILLISECONDS );
+            return result;
+        };
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addNode("B", delayed )
+                .addEdge(START, "A")
+                .addEdge("A", "B")
+                .addConditionalEdges("B", state -> CompletableFuture.supplyAsync( () -> "end" ), mapOf( "end", END ) );
+
+        try {
+            var app = workflow.compile();
+
+            var outputs = app.stream( mapOf() ).stream().collect(Collectors.toList());
+
+            assertIterableEquals( listOf( START, "A", "B", END ),
+                    outputs.stream().map(NodeOutput::node).collect(Collectors.toList()) );
+            assertIterableEquals( listOf( "A", "B"), outputs.get( outputs.size() - 1 ).state().messages() );
+
+            var failing = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                    .addNode("A", state -> { throw new IllegalStateException("A failed"); } )
+                    .addEdge(START, "A")
+                    .addEdge("A", END)
+                    .compile();
+
+            var ex = assertThrows( Exception.class, () -> failing.invoke( mapOf() ) );
+            assertTrue( ex.getMessage().contains("A failed") );
+        }
+        finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCustomExecutors() throws Exception {
+
+        var runExecutor = Executors.newSingleThreadExecutor( r -> new Thread(r, "run-thread") );
+        var nodeExecutor = Executors.newSingleThreadExecutor( r -> new Thread(r, "node-thread") );
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", Thread.currentThread().getName())))
+                .addEdge(START, "A")
+                .addConditionalEdges("A", edge_async( state -> {
+                    assertEquals( "run-thread", Thread.currentThread().getName() );
+                    return "end";
+                }), mapOf( "end", END ) );
+
+        try {
+            var app = workflow.compile( CompileConfig.builder()
+                                        .runExecutor(runExecutor)
+                                        .nodeExecutor(nodeExecutor)
+                                        .build() );
+
+            var result = app.invokeAsync( mapOf() ).get( 5, TimeUnit.SECONDS );
+            assertIterableEquals( listOf( "node-thread" ), result.messages() );
+        }
+        finally {
+            runExecutor.shutdownNow();
+            nodeExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvokeAsync() throws Exception {
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addNode("B", state -> CompletableFuture.supplyAsync( () -> mapOf("messages", "B") ) )
+                .addEdge(START, "A")
+                .addEdge("A", "B")
+                .addEdge("B", END);
+
+        var app = workflow.compile();
+
+        var expected = app.stream( mapOf() ).stream()
+                .reduce( (a, b) -> b )
+                .map( NodeOutput::state )
+                .orElseThrow( IllegalStateException::new );
+
+        var result = app.invokeAsync( mapOf() ).get( 5, TimeUnit.SECONDS );
+
+        assertIterableEquals( listOf( "A", "B"), result.messages() );
+        assertEquals( expected.data(), result.data() );
+        assertEquals( expected.data(), app.invoke( mapOf() ).map( AgentState::data ).orElse( null ) );
+
+        var failing = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> { throw new IllegalStateException("A failed"); } )
+                .addEdge(START, "A")
+                .addEdge("A", END)
+                .compile();
+
+        var ex = assertThrows( ExecutionException.class, () -> failing.invokeAsync( mapOf() ).get( 5, TimeUnit.SECONDS ) );
+        assertInstanceOf( IllegalStateException.class, ex.getCause() );
+        assertThrows( IllegalStateException.class, () -> failing.invoke( mapOf() ) );
+    }
+
+    @Test
+    void testBatch() throws Exception {
+
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(8);
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> CompletableFuture.supplyAsync( () -> {
+                    maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+                    try {
+                        Thread.sleep( 5 );
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    running.decrementAndGet();
+                    String input = state.<String>value("input").orElseThrow( IllegalStateException::new );
+                    if( input.equals("fail") ) {
+                        throw new IllegalStateException( "failed" );
+                    }
+                    return mapOf( "messages", input );
+                }, executor ))
+                .addEdge(START, "A")
+                .addEdge("A", END);
+
+        try {
+            var app = workflow.compile();
+
+            var inputs = new ArrayList<Map<String,Object>>();
+            for( int i = 0; i < 20; ++i ) {
+                inputs.add( mapOf( "input", String.valueOf(i) ) );
+            }
+
+            var results = app.batch( inputs, 3 ).get( 10, TimeUnit.SECONDS );
+
+            assertEquals( 20, results.size() );
+            for( int i = 0; i < 20; ++i ) {
+                assertIterableEquals( listOf( String.valueOf(i) ), results.get(i).messages() );
+            }
+            assertTrue( maxRunning.get() <= 3, "max concurrent runs: " + maxRunning.get() );
+
+            inputs.set( 5, mapOf( "input", "fail" ) );
+
+            var outputs = app.batchStream( inputs, listOf(), 3 ).stream().collect(Collectors.toList());
+
+            assertEquals( 20, outputs.size() );
+            assertEquals( 20, outputs.stream().mapToInt( BatchOutput::index ).distinct().count() );
+            var failed = outputs.stream().filter( BatchOutput::isFailed ).collect(Collectors.toList());
+            assertEquals( 1, failed.size() );
+            assertEquals( 5, failed.get(0).index() );
+
+            var ex = assertThrows( ExecutionException.class, () -> app.batch( inputs, 3 ).get( 10, TimeUnit.SECONDS ) );
+            assertInstanceOf( IllegalStateException.class, ex.getCause() );
+
+            assertThrows( IllegalArgumentException.class, () -> app.batch( inputs, 0 ) );
+            assertTrue( app.batch( listOf(), 3 ).get().isEmpty() );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // runs completed on the calling thread are chained without growing the stack
+        var sameThread = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf( "messages", "A" ) ) )
+                .addEdge(START, "A")
+                .addEdge("A", END)
+                .compile( CompileConfig.builder().runExecutor( Runnable::run ).build() );
+
+        var manyInputs = new ArrayList<Map<String,Object>>();
+        for( int i = 0; i < 100_000; ++i ) {
+            manyInputs.add( mapOf() );
+        }
+        var manyResults = sameThread.batch( manyInputs, 1 ).get( 60, TimeUnit.SECONDS );
+        assertEquals( 100_000, manyResults.size() );
+        assertIterableEquals( listOf( "A" ), manyResults.get( 99_999 ).messages() );
+
+        // the first failure cancels the runs in progress
+        var pending = new CompletableFuture<Map<String,Object>>();
+        var startedPending = new CountDownLatch(1);
+        var stopping = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> {
+                    if( state.value("input").isPresent() ) {
+                        startedPending.countDown();
+                        return pending;
+                    }
+                    return CompletableFuture.supplyAsync( () -> {
+                        try {
+                            assertTrue( startedPending.await( 5, TimeUnit.SECONDS ) );
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        throw new IllegalStateException( "failed" );
+                    });
+                })
+                .addEdge(START, "A")
+                .addEdge("A", END)
+                .compile();
+
+        var stopped = stopping.batch( listOf( mapOf( "input", "pending" ), mapOf() ), 2 );
+        var stoppedEx = assertThrows( ExecutionException.class, () -> stopped.get( 10, TimeUnit.SECONDS ) );
+        assertInstanceOf( IllegalStateException.class, stoppedEx.getCause() );
+        assertThrows( CancellationException.class, () -> pending.get( 5, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    void testNodeCache() throws Exception {
+
+        var invocations = new AtomicInteger();
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> {
+                    invocations.incrementAndGet();
+                    return mapOf("messages", "A:" + state.value("input").orElse(""));
+                }), CachePolicy.<MessagesState>builder().inputKeys("input").maxSize(10).build() )
+                .addEdge(START, "A")
+                .addEdge("A", END);
+
+        var app = workflow.compile();
+
+        assertIterableEquals( listOf("A:1"), app.invoke( mapOf("input", "1") ).get().messages() );
+        assertIterableEquals( listOf("A:1"), app.invoke( mapOf("input", "1") ).get().messages() );
+        assertIterableEquals( listOf("A:2"), app.invoke( mapOf("input", "2") ).get().messages() );
+        assertEquals( 2, invocations.get() );
+
+        var stats = app.getCacheStats("A").orElseThrow( IllegalStateException::new );
+        assertEquals( 1, stats.getHitCount() );
+        assertEquals( 2, stats.getMissCount() );
+        assertEquals( 2, stats.getSize() );
+        assertFalse( app.getCacheStats("unknown").isPresent() );
+
+        // a new compilation gets a new cache
+        assertFalse( workflow.compile().getCacheStats("A").map( CacheStats::getSize ).filter( size -> size > 0 ).isPresent() );
+
+        NodeCache<String,String> lru = NodeCache.of( CacheEviction.LRU, 2, null );
+        lru.put("a", "a");
+        lru.put("b", "b");
+        lru.get("a");
+        lru.put("c", "c");
+        assertTrue( lru.get("a").isPresent() );
+        assertFalse( lru.get("b").isPresent() );
+        assertEquals( 1, lru.stats().getEvictionCount() );
+
+        NodeCache<String,String> lfu = NodeCache.of( CacheEviction.LFU, 2, null );
+        lfu.put("a", "a");
+        lfu.put("b", "b");
+        lfu.get("b");
+        lfu.get("a");
+        lfu.get("a");
+        lfu.put("c", "c");
+        assertFalse( lfu.get("b").isPresent() );
+        assertTrue( lfu.get("a").isPresent() );
+        assertTrue( lfu.get("c").isPresent() );
+
+        NodeCache<String,String> expiring = NodeCache.of( CacheEviction.LRU, 2, Duration.ofMillis(1) );
+        expiring.put("a", "a");
+        Thread.sleep( 10 );
+        assertFalse( expiring.get("a").isPresent() );
+    }
+
+    @Test
+    void testSubgraph() throws Exception {
+
+        // child graph loops on its own key "msgs", mapped to the parent "messages"
+        Map<String, Channel<?>> childSchema = mapOf( "msgs", AppenderChannel.<String>of(ArrayList::new) );
+
+        var child = new StateGraph<>( childSchema, AgentState::new )
+                .addNode("fix", node_async( state -> mapOf("msgs", "fix") ))
+                .addNode("check", node_async( state -> mapOf("msgs", "check") ))
+                .addEdge(START, "fix")
+                .addEdge("fix", "check")
+                .addConditionalEdges("check", edge_async( state ->
+                        state.<List<String>>value("msgs").map( List::size ).orElse(0) < 5 ? "retry" : "done" ),
+                        mapOf( "retry", "fix", "done", END ) )
+                .compile();
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addSubgraph("correction", child, mapOf( "msgs", "messages" ) )
+                .addNode("B", node_async( state -> mapOf("messages", "B")))
+                .addEdge(START, "A")
+                .addEdge("A", "correction")
+                .addEdge("correction", "B")
+                .addEdge("B", END);
+
+        var expected = listOf( "A", "fix", "check", "fix", "check", "B" );
+
+        var inlined = workflow.compile().stream( mapOf() ).stream().collect(Collectors.toList());
+
+        assertIterableEquals( listOf( START, "A", "correction",
+                        "correction/fix", "correction/check", "correction/fix", "correction/check", "B", END ),
+                inlined.stream().map(NodeOutput::node).collect(Collectors.toList()) );
+        assertIterableEquals( expected, inlined.get( inlined.size() - 1 ).state().messages() );
+
+        var nested = workflow.compile( CompileConfig.builder().inlineSubgraphs(false).build() )
+                .stream( mapOf() ).stream().collect(Collectors.toList());
+
+        assertIterableEquals( listOf( START, "A", "correction", "B", END ),
+                nested.stream().map(NodeOutput::node).collect(Collectors.toList()) );
+        assertIterableEquals( expected, nested.get( nested.size() - 1 ).state().messages() );
+
+        // a subgraph compiled with run options is executed as a nested run, so that they are applied
+        var configuredChild = child.stateGraph.compile( CompileConfig.builder().nodeTimeout( Duration.ofSeconds(5) ).build() );
+        var configured = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addSubgraph("correction", configuredChild, mapOf( "msgs", "messages" ) )
+                .addNode("B", node_async( state -> mapOf("messages", "B")))
+                .addEdge(START, "A")
+                .addEdge("A", "correction")
+                .addEdge("correction", "B")
+                .addEdge("B", END)
+                .compile()
+                .stream( mapOf() ).stream().collect(Collectors.toList());
+
+        assertIterableEquals( listOf( START, "A", "correction", "B", END ),
+                configured.stream().map(NodeOutput::node).collect(Collectors.toList()) );
+        assertIterableEquals( expected, configured.get( configured.size() - 1 ).state().messages() );
+
+        // subgraph as a parallel branch is executed as a nested run
+        var parallel = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addSubgraph("correction", child, mapOf( "msgs", "messages" ) )
+                .addNode("C", node_async( state -> mapOf("messages", "C")))
+                .addNode("D", node_async( state -> mapOf("messages", "D")))
+                .addEdge(START, "A")
+                .addEdge("A", "correction")
+                .addEdge("A", "C")
+                .addEdge("correction", "D")
+                .addEdge("C", "D")
+                .addEdge("D", END)
+                .compile();
+
+        assertIterableEquals( listOf( "A", "fix", "check", "fix", "check", "C", "D" ),
+                parallel.invoke( mapOf() ).get().messages() );
+
+        // the inlined actions see the defaults of the child channels, as the nested run does
+        Map<String, Channel<?>> defaultsSchema = mapOf(
+                "msgs", AppenderChannel.<String>of(ArrayList::new),
+                "mode", Channel.<String>of( () -> "strict" ) );
+
+        var withDefaults = new StateGraph<>( defaultsSchema, AgentState::new )
+                .addNode("fix", node_async( state -> mapOf("msgs", "fix:" + state.<String>value("mode").orElse("none")) ))
+                .addConditionalEdges(START, edge_async( state -> state.<String>value("mode").orElse("none") ),
+                        mapOf( "strict", "fix", "none", END ) )
+                .addEdge("fix", END)
+                .compile();
+
+        var defaultsWorkflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addSubgraph("correction", withDefaults, mapOf( "msgs", "messages" ) )
+                .addEdge(START, "correction")
+                .addEdge("correction", END);
+
+        assertIterableEquals( listOf( "fix:strict" ),
+                defaultsWorkflow.compile().invoke( mapOf() ).get().messages() );
+        assertIterableEquals( listOf( "fix:strict" ),
+                defaultsWorkflow.compile( CompileConfig.builder().inlineSubgraphs(false).build() ).invoke( mapOf() ).get().messages() );
+    }
+
+    @Test
+    void testTimeoutAndCancellation() throws Exception {
+
+        var pending = new CompletableFuture<Map<String,Object>>();
+        var executedB = new AtomicInteger();
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> pending )
+                .addNode("B", node_async( state -> {
+                    executedB.incrementAndGet();
+                    return mapOf("messages", "B");
+                }))
+                .addEdge(START, "A")
+                .addEdge("A", "B")
+                .addEdge("B", END);
+
+        // node timeout
+        var app = workflow.compile( CompileConfig.builder().nodeTimeout( "A", Duration.ofMillis(50) ).build() );
+
+        var exception = assertThrows( GraphRunnerException.class, () -> app.invoke( mapOf() ) );
+        assertEquals( "node with id: A has not completed within PT0.05S!", exception.getMessage() );
+        assertTrue( pending.isCancelled() );
+        assertEquals( 0, executedB.get() );
+
+        // node timeout of a cached node cancels the wrapped action
+        var pendingCached = new CompletableFuture<Map<String,Object>>();
+        var cached = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> pendingCached, CachePolicy.<MessagesState>builder().inputKeys("messages").build() )
+                .addEdge(START, "A")
+                .addEdge("A", END)
+                .compile( CompileConfig.builder().nodeTimeout( "A", Duration.ofMillis(50) ).build() );
+
+        assertThrows( GraphRunnerException.class, () -> cached.invoke( mapOf() ) );
+        // the run may complete before the cancellation has reached the wrapped action
+        assertThrows( CancellationException.class, () -> pendingCached.get( 5, TimeUnit.SECONDS ) );
+
+        // run timeout of an inlined subgraph cancels the subgraph action
+        var pendingChild = new CompletableFuture<Map<String,Object>>();
+        var child = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("fix", state -> pendingChild )
+                .addEdge(START, "fix")
+                .addEdge("fix", END)
+                .compile();
+        var inlined = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addSubgraph("correction", child )
+                .addEdge(START, "correction")
+                .addEdge("correction", END)
+                .compile();
+
+        var inlinedFuture = inlined.invokeAsync( mapOf(), RunnableConfig.builder().runTimeout( Duration.ofMillis(50) ).build() );
+        assertThrows( ExecutionException.class, () -> inlinedFuture.get( 5, TimeUnit.SECONDS ) );
+        assertThrows( CancellationException.class, () -> pendingChild.get( 5, TimeUnit.SECONDS ) );
+
+        // run timeout
+        var pendingRun = new CompletableFuture<Map<String,Object>>();
+        var slow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> pendingRun )
+                .addEdge(START, "A")
+                .addEdge("A", END)
+                .compile();
+
+        var runFuture = slow.invokeAsync( mapOf(), RunnableConfig.builder().runTimeout( Duration.ofMillis(50) ).build() );
+        var runException = assertThrows( ExecutionException.class, () -> runFuture.get( 5, TimeUnit.SECONDS ) );
+        assertInstanceOf( GraphRunnerException.class, runException.getCause() );
+        assertEquals( "run has not completed within PT0.05S!", runException.getCause().getMessage() );
+        assertTrue( pendingRun.isCancelled() );
+
+        // closing the stream stops the run: no further node nor checkpoint
+        var pendingStream = new CompletableFuture<Map<String,Object>>();
+        var startedA = new CountDownLatch(1);
+        var saver = new MemorySaver();
+        var streamed = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> {
+                    startedA.countDown();
+                    return pendingStream;
+                })
+                .addNode("B", node_async( state -> {
+                    executedB.incrementAndGet();
+                    return mapOf("messages", "B");
+                }))
+                .addEdge(START, "A")
+                .addEdge("A", "B")
+                .addEdge("B", END)
+                .compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+
+        var config = RunnableConfig.builder().build();
+        try( var generator = streamed.stream( mapOf(), config ) ) {
+            assertTrue( startedA.await( 5, TimeUnit.SECONDS ) );
+            assertTrue( generator.cancel() );
+            assertTrue( generator.isCancelled() );
+            assertTrue( generator.stream().noneMatch( output -> END.equals(output.node()) ) );
+        }
+        // the action may be still registering its future when the stream is cancelled
+        assertThrows( CancellationException.class, () -> pendingStream.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( 0, executedB.get() );
+        assertEquals( 1, saver.list( config ).size() );
+
+        // cancelling the future of an asynchronous invocation cancels the run
+        var pendingAsync = new CompletableFuture<Map<String,Object>>();
+        var startedAsync = new CountDownLatch(1);
+        var cancelled = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", state -> {
+                    startedAsync.countDown();
+                    return pendingAsync;
+                })
+                .addEdge(START, "A")
+                .addEdge("A", END)
+                .compile();
+
+        var asyncFuture = cancelled.invokeAsync( mapOf(), RunnableConfig.builder().build() );
+        assertTrue( startedAsync.await( 5, TimeUnit.SECONDS ) );
+        assertTrue( asyncFuture.cancel( true ) );
+        // the action may be still registering its future when the run is cancelled
+        assertThrows( CancellationException.class, () -> pendingAsync.get( 5, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    void testRetryPolicy() throws Exception {
+
+        var policy = RetryPolicy.builder()
+                .maxAttempts(3)
+                .initialInterval( Duration.ofMillis(1) )
+                .maxInterval( Duration.ofMillis(3) )
+                .jitter(0)
+                .retryOn( IllegalStateException.class )
+                .build();
+
+        assertEquals( Duration.ofMillis(1), policy.backoff(1) );
+        assertEquals( Duration.ofMillis(2), policy.backoff(2) );
+        assertEquals( Duration.ofMillis(3), policy.backoff(3) );
+
+        var invocations = new AtomicInteger();
+        var inputs = Collections.synchronizedSet( Collections.newSetFromMap( new IdentityHashMap<>() ) );
+
+        var app = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("flaky", node_async( state -> {
+                    inputs.add( state );
+                    if( invocations.incrementAndGet() < 3 ) {
+                        throw new IllegalStateException("429 too many requests");
+                    }
+                    return mapOf("messages", "flaky");
+                }), policy )
+                .addNode("broken", node_async( state -> {
+                    throw new IllegalArgumentException("invalid request");
+                }), policy )
+                .addConditionalEdges("flaky", edge_async( state -> state.messages().size() > 1 ? "broken" : "end" ),
+                        mapOf( "broken", "broken", "end", END ) )
+                .addEdge(START, "flaky")
+                .addEdge("broken", END)
+                .compile();
+
+        assertIterableEquals( listOf("flaky"), app.invoke( mapOf() ).get().messages() );
+        assertEquals( 3, invocations.get() );
+        // the input state is not cloned for each attempt
+        assertEquals( 1, inputs.size() );
+        assertEquals( new RetryStats( 3, 2, 0 ), app.getRetryStats("flaky").orElseThrow(IllegalStateException::new) );
+
+        // failures that aren't retryable fail the run immediately
+        var exception = assertThrows( IllegalArgumentException.class, () -> app.invoke( mapOf( "messages", "start" ) ) );
+        assertEquals( "invalid request", exception.getMessage() );
+        assertEquals( new RetryStats( 1, 0, 1 ), app.getRetryStats("broken").orElseThrow(IllegalStateException::new) );
+        assertFalse( app.getRetryStats("unknown").isPresent() );
+
+        // cache hits of a retried node don't count as attempts
+        var cachedInvocations = new AtomicInteger();
+        var cached = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("flaky", node_async( state -> {
+                    if( cachedInvocations.incrementAndGet() < 2 ) {
+                        throw new IllegalStateException("429 too many requests");
+                    }
+                    return mapOf("messages", "flaky");
+                }), CachePolicy.<MessagesState>builder().inputKeys("messages").build(), policy )
+                .addEdge(START, "flaky")
+                .addEdge("flaky", END)
+                .compile();
+
+        assertIterableEquals( listOf("flaky"), cached.invoke( mapOf() ).get().messages() );
+        assertIterableEquals( listOf("flaky"), cached.invoke( mapOf() ).get().messages() );
+        assertEquals( 2, cachedInvocations.get() );
+        assertEquals( new RetryStats( 2, 1, 0 ), cached.getRetryStats("flaky").orElseThrow(IllegalStateException::new) );
+        var cacheStats = cached.getCacheStats("flaky").orElseThrow(IllegalStateException::new);
+        assertEquals( 1, cacheStats.getHitCount() );
+        assertEquals( 1, cacheStats.getMissCount() );
+    }
+
+    @Test
+    void testStreamingNode() throws Exception {
+
+        var generation = node_streaming( (MessagesState state, ChunkSink chunks) -> CompletableFuture.supplyAsync( () -> {
+            for( String token : listOf( "Hello", " ", "world" ) ) {
+                chunks.emit( token );
+            }
+            return mapOf( "messages", "Hello world" );
+        }));
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("generate", generation )
+                .addEdge(START, "generate")
+                .addEdge("generate", END);
+
+        var app = workflow.compile();
+
+        var outputs = app.stream( mapOf() ).stream().collect(Collectors.toList());
+
+        assertIterableEquals( listOf( START, "generate", "generate", "generate", "generate", END ),
+                outputs.stream().map(NodeOutput::node).collect(Collectors.toList()) );
+        assertIterableEquals( listOf( "Hello", " ", "world" ),
+                outputs.stream()
+                    .filter( output -> output instanceof StreamingOutput )
+                    .map( output -> ((StreamingOutput<MessagesState>)output).chunk() )
+                    .collect(Collectors.toList()) );
+        assertFalse( outputs.get(4) instanceof StreamingOutput );
+
+        // chunks are discarded when nobody observes them
+        assertIterableEquals( listOf( "Hello world" ), app.invoke( mapOf() ).get().messages() );
+
+        // chunks of a nested subgraph are forwarded as chunks of the subgraph node
+        var parent = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addSubgraph("child", app )
+                .addEdge(START, "child")
+                .addEdge("child", END)
+                .compile( CompileConfig.builder().inlineSubgraphs(false).build() );
+
+        assertEquals( "Hello world", parent.stream( mapOf() ).stream()
+                .filter( output -> output instanceof StreamingOutput )
+                .peek( output -> assertEquals( "child", output.node() ) )
+                .map( output -> ((StreamingOutput<MessagesState>)output).chunk() )
+                .collect(Collectors.joining()) );
+
+        // a retried node streams again: chunks are numbered by attempt, late chunks of a failed attempt are discarded
+        var failedSink = new AtomicReference<ChunkSink>();
+        var retried = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("generate", node_streaming( (MessagesState state, ChunkSink chunks) -> {
+                    if( failedSink.compareAndSet( null, chunks ) ) {
+                        chunks.emit( "Hel" );
+                        throw new IllegalStateException("connection reset");
+                    }
+                    failedSink.get().emit( "late" );
+                    chunks.emit( "Hello" );
+                    chunks.emit( " world" );
+                    return CompletableFuture.completedFuture( mapOf( "messages", "Hello world" ) );
+                }), RetryPolicy.builder().initialInterval( Duration.ofMillis(1) ).jitter(0).build() )
+                .addEdge(START, "generate")
+                .addEdge("generate", END)
+                .compile();
+
+        var retriedChunks = retried.stream( mapOf() ).stream()
+                .filter( output -> output instanceof StreamingOutput )
+                .map( output -> (StreamingOutput<MessagesState>)output )
+                .collect(Collectors.toList());
+        assertIterableEquals( listOf( "Hel", "Hello", " world" ),
+                retriedChunks.stream().map( StreamingOutput::chunk ).collect(Collectors.toList()) );
+        assertIterableEquals( listOf( 1, 2, 2 ),
+                retriedChunks.stream().map( StreamingOutput::attempt ).collect(Collectors.toList()) );
+
+        // a full stream concatenates the consecutive chunks of a node attempt
+        var state = new MessagesState( mapOf() );
+        var coalesced = StreamingOutput.coalesce( StreamingOutput.of( "generate", "Hello", state ), StreamingOutput.of( "generate", " world", state ) );
+        assertEquals( "Hello world", ((StreamingOutput<MessagesState>)coalesced).chunk() );
+        var retriedChunk = StreamingOutput.of( "generate", "Hello", state, 2 );
+        assertSame( retriedChunk, StreamingOutput.coalesce( StreamingOutput.of( "generate", "Hel", state ), retriedChunk ) );
+        var nodeOutput = NodeOutput.of( "generate", state );
+        assertSame( nodeOutput, StreamingOutput.coalesce( StreamingOutput.of( "generate", "Hello", state ), nodeOutput ) );
+    }
+
+    @Test
+    void testUpdatesStreamMode() throws Exception {
+
+        var app = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("step", node_async( state -> mapOf("messages", "step" + state.messages().size() ) ))
+                .addEdge(START, "step")
+                .addConditionalEdges("step", edge_async( state -> state.messages().size() < 4 ? "loop" : "end" ),
+                        mapOf( "loop", "step", "end", END ) )
+                .compile();
+
+        var config = RunnableConfig.builder()
+                .streamMode( StreamMode.UPDATES )
+                .snapshotInterval( 3 )
+                .build();
+
+        var outputs = app.stream( mapOf(), config ).stream().collect(Collectors.toList());
+
+        assertEquals( 6, outputs.size() );
+        assertFalse( outputs.get(0) instanceof UpdateOutput );
+        assertFalse( outputs.get(5) instanceof UpdateOutput );
+        assertIterableEquals( listOf( "step0", "step1", "step2", "step3" ), outputs.get(5).state().messages() );
+
+        // the third node output is a snapshot
+        assertFalse( outputs.get(3) instanceof UpdateOutput );
+        assertIterableEquals( listOf( "step0", "step1", "step2" ), outputs.get(3).state().messages() );
+
+        for( int i : new int[] { 1, 2, 4 } ) {
+            assertInstanceOf( UpdateOutput.class, outputs.get(i) );
+            assertIterableEquals( listOf( "step" + (i - 1) ), outputs.get(i).state().messages() );
+        }
+    }
+
+    @Test
+    void testGraphAnalysis() throws Exception {
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addNode("B", node_async( state -> mapOf("messages", "B")))
+                .addNode("orphan", node_async( state -> mapOf("messages", "orphan")))
+                .addNode("stuck", node_async( state -> mapOf("messages", "stuck")))
+                .addEdge(START, "A")
+                .addConditionalEdges("A", edge_async( state -> "loop" ),
+                        mapOf( "loop", "B", "stuck", "stuck", "end", END ) )
+                .addEdge("B", "A")
+                .addEdge("stuck", "stuck")
+                .addEdge("orphan", END);
+
+        var app = workflow.compile( CompileConfig.builder()
+                .interruptBefore( "B", "orphan" )
+                .maxIterations( "A", 3 )
+                .build() );
+
+        var analysis = app.getAnalysis();
+        assertIterableEquals( listOf( "A", "B", "stuck" ), analysis.getReachableNodes() );
+        assertIterableEquals( listOf( "orphan" ), analysis.getUnreachableNodes() );
+        assertIterableEquals( listOf( "stuck" ), analysis.getDeadEndNodes() );
+        assertEquals( 2, analysis.getLoops().size() );
+        assertIterableEquals( listOf( "A", "B" ), analysis.getLoops().get(0) );
+        assertIterableEquals( listOf( "stuck" ), analysis.getLoops().get(1) );
+        assertIterableEquals( listOf( "B" ), analysis.getInterruptibleNodes() );
+        assertTrue( analysis.getCheckpointedNodes().isEmpty() );
+        assertEquals( analysis.getLoops().get(0), analysis.loopOf("B").orElse(null) );
+        assertFalse( analysis.loopOf("orphan").isPresent() );
+
+        // the loop ends after the third execution of its head
+        var loop = workflow.compile( CompileConfig.builder().maxIterations( "A", 3 ).build() );
+        assertIterableEquals( listOf( "A", "B", "A", "B", "A" ), loop.invoke( mapOf() ).get().messages() );
+
+        var exception = assertThrows( GraphStateException.class, () ->
+                workflow.compile( CompileConfig.builder().maxIterations( "orphan", 3 ).build() ) );
+        assertEquals( "node: orphan with a maximum number of iterations is not part of a loop!", exception.getMessage() );
+    }
+
+    @Test
+    void testNodeFusion() throws Exception {
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new);
+        for( int i = 0; i < 10; ++i ) {
+            final String id = "n" + i;
+            workflow.addNode( id, node_async( state -> mapOf("messages", id) ) );
+        }
+        workflow.addEdge(START, "n0");
+        for( int i = 0; i < 9; ++i ) {
+            if( i == 4 ) {
+                workflow.addConditionalEdges( "n4", edge_async( state -> "next" ), mapOf( "next", "n5" ) );
+            }
+            else {
+                workflow.addEdge( "n" + i, "n" + (i + 1) );
+            }
+        }
+        workflow.addEdge("n9", END);
+
+        var expected = listOf( "n0", "n1", "n2", "n3", "n4", "n5", "n6", "n7", "n8", "n9" );
+
+        // checkpoints: start and each node / start, end of each chain / start and end
+        int[] expectedCheckpoints = { 11, 3, 2 };
+        for( Durability durability : Durability.values() ) {
+            var saver = new MemorySaver();
+            var app = workflow.compile( CompileConfig.builder()
+                    .checkpointSaver( saver )
+                    .durability( durability )
+                    .build() );
+            var config = RunnableConfig.builder().threadId( durability.name() ).build();
+
+            assertIterableEquals( expected, app.invoke( mapOf(), config ).get().messages() );
+            assertEquals( expectedCheckpoints[durability.ordinal()], saver.list( config ).size(), durability.name() );
+        }
+
+        // nodes aren't fused when their outputs are observed
+        var app = workflow.compile( CompileConfig.builder().durability( Durability.CHAIN ).build() );
+        assertEquals( 12, app.stream( mapOf() ).stream().count() );
+
+        // long synchronous chains don't grow the stack
+        var longChain = new StateGraph<>( AgentState::new );
+        for( int i = 0; i < 5_000; ++i ) {
+            final int value = i;
+            longChain.addNode( "n" + i, node_async( state -> mapOf("value", value) ) );
+            longChain.addEdge( ( i == 0 ) ? START : "n" + (i - 1), "n" + i );
+        }
+        longChain.addEdge( "n4999", END );
+        var compiled = longChain.compile();
+        compiled.setMaxIterations( 10_000 );
+
+        assertEquals( 4_999, compiled.invoke( mapOf() ).get().<Integer>value("value").orElse(-1) );
+    }
+
+    @Test
+    void testSendEdge() throws Exception {
+
+        // all the invocations must be running at the same time to pass the barrier
+        var barrier = new CyclicBarrier(3);
+        var executor = Executors.newFixedThreadPool(3);
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("split", node_async( state -> mapOf("messages", "split")))
+                .addNode("grade", node_async( state -> {
+                    final String doc = state.<String>value("doc").orElseThrow( IllegalStateException::new );
+                    if( state.<Boolean>value("concurrent").orElse(false) ) {
+                        barrier.await( 5, TimeUnit.SECONDS );
+                    }
+                    // the last work item completes first
+                    Thread.sleep( doc.equals("doc1") ? 100 : 0 );
+                    return mapOf("messages", "grade:" + doc);
+                }))
+                .addNode("reduce", node_async( state -> mapOf("messages", "reduce", "steps", state.messages().size() )))
+                .addEdge(START, "split")
+                .addSendEdge("split", "grade", send_async( state ->
+                        state.<List<String>>value("docs").orElse( listOf() ).stream()
+                                .map( doc -> Collections.<String,Object>singletonMap( "doc", doc ) )
+                                .collect( Collectors.toList() ) ))
+                .addEdge("grade", "reduce")
+                .addEdge("reduce", END);
+
+        try {
+            var app = workflow.compile( CompileConfig.builder().parallelExecutor(executor).build() );
+
+            var outputs = app.stream( mapOf( "docs", listOf( "doc1", "doc2", "doc3" ), "concurrent", true ) )
+                    .stream().collect(Collectors.toList());
+
+            assertIterableEquals( listOf( START, "split", "grade", "grade", "grade", "reduce", END ),
+                    outputs.stream().map(NodeOutput::node).collect(Collectors.toList()) );
+
+            var result = outputs.get( outputs.size() - 1 ).state();
+            assertIterableEquals( listOf( "split", "grade:doc1", "grade:doc2", "grade:doc3", "reduce" ), result.messages() );
+            assertEquals( 4, result.steps() );
+            // work item keys don't leak into the state
+            assertFalse( result.value("doc").isPresent() );
+
+            // no work item, the target node is skipped
+            var empty = app.invoke( mapOf() ).orElseThrow( IllegalStateException::new );
+            assertIterableEquals( listOf( "split", "reduce" ), empty.messages() );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        var exception = assertThrows(GraphStateException.class, () -> workflow.addSendEdge("reduce", END, send_async( state -> listOf() )));
+        assertEquals( "send edge from sourceId: reduce cannot target END!", exception.getMessage() );
+
+        exception = assertThrows(GraphStateException.class, () -> workflow.addSendEdge(START, "grade", send_async( state -> listOf() )));
+        assertEquals( "send edge cannot start from START!", exception.getMessage() );
+
+        exception = assertThrows(GraphStateException.class, () -> workflow.addEdge("split", "reduce"));
+        assertEquals( "edge with id: split already exist!", exception.getMessage() );
+    }
+
+    @Test
+    void testLimiter() throws Exception {
+
+        var registry = new LimiterRegistry();
+        var limiter = registry.register( "provider", LimiterPolicy.builder().maxConcurrency(2).build() );
+
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(6);
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("split", node_async( state -> mapOf() ))
+                .addNode("call", node_async( state -> {
+                    maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+                    Thread.sleep( 20 );
+                    running.decrementAndGet();
+                    return mapOf("messages", state.<String>value("item").orElse("?"));
+                }))
+                .addEdge(START, "split")
+                .addSendEdge("split", "call", send_async( state -> listOf(
+                        mapOf("item", "1"), mapOf("item", "2"), mapOf("item", "3") ) ))
+                .addEdge("call", END);
+
+        try {
+            var app = workflow.compile( CompileConfig.builder()
+                    .parallelExecutor( executor )
+                    .limiters( registry )
+                    .nodeLimiter( "call", "provider" )
+                    .build() );
+
+            // two runs share the limiter
+            var first = app.invokeAsync( mapOf() );
+            var second = app.invokeAsync( mapOf() );
+            assertIterableEquals( listOf( "1", "2", "3" ), first.get( 5, TimeUnit.SECONDS ).messages() );
+            assertIterableEquals( listOf( "1", "2", "3" ), second.get( 5, TimeUnit.SECONDS ).messages() );
+            assertEquals( 2, maxRunning.get() );
+
+            var stats = limiter.stats();
+            assertEquals( 6, stats.getAcquiredCount() );
+            assertEquals( 0, stats.getInFlight() );
+            assertEquals( 0, stats.getQueued() );
+            assertTrue( stats.getMaxWaitNanos() > 0 );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        var exception = assertThrows(GraphStateException.class, () -> workflow.compile( CompileConfig.builder()
+                .limiters( registry )
+                .nodeLimiter( "call", "unknown" )
+                .build() ));
+        assertEquals( "limiter: unknown of node: call isn't registered!", exception.getMessage() );
+
+        // rate: the burst is granted at once, the next permit after the refill of a token
+        var rated = registry.register( "rated", LimiterPolicy.builder().rate( 2, Duration.ofMillis(200) ).build() );
+        rated.acquire().join().release( null );
+        rated.acquire().join().release( null );
+        var pending = rated.acquire();
+        assertFalse( pending.isDone() );
+        pending.get( 5, TimeUnit.SECONDS ).release( null );
+        assertTrue( rated.stats().getMaxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(50) );
+
+        // adaptive: failures divide the limit, successes grow it back
+        var adaptive = registry.register( "adaptive", LimiterPolicy.builder().maxConcurrency(8).adaptive(true).build() );
+        for( int i = 0; i < 8; ++i ) {
+            adaptive.acquire().join().release( new RuntimeException("overloaded") );
+        }
+        assertEquals( 4, adaptive.stats().getLimit() );
+        assertEquals( 8, adaptive.stats().getFailureCount() );
+        for( int i = 0; i < 200; ++i ) {
+            adaptive.acquire().join().release( null );
+        }
+        assertEquals( 8, adaptive.stats().getLimit() );
+    }
+
+    @Test
+    void testRunScheduler() throws Exception {
+
+        var scheduler = GraphRunScheduler.builder()
+                .maxConcurrentRuns(1)
+                .executor( Runnable::run )
+                .build();
+
+        var started = Collections.synchronizedList( new ArrayList<String>() );
+        Function<String, Supplier<CompletableFuture<String>>> run = name -> () -> {
+            started.add( name );
+            return CompletableFuture.completedFuture( name );
+        };
+
+        // the slot is busy while the runs are submitted
+        var blocker = new CompletableFuture<String>();
+        scheduler.submit( "batch", GraphRunScheduler.BATCH_PRIORITY, () -> blocker );
+
+        var results = new ArrayList<CompletableFuture<String>>();
+        for( int i = 1; i <= 4; ++i ) {
+            results.add( scheduler.submit( "batch", GraphRunScheduler.BATCH_PRIORITY, run.apply( "b" + i ) ) );
+        }
+        results.add( scheduler.submit( "user", GraphRunScheduler.BATCH_PRIORITY, run.apply( "u1" ) ) );
+        results.add( scheduler.submit( "user", GraphRunScheduler.BATCH_PRIORITY, run.apply( "u2" ) ) );
+        results.add( scheduler.submit( "user", GraphRunScheduler.INTERACTIVE_PRIORITY, run.apply( "i1" ) ) );
+
+        var stats = scheduler.stats();
+        assertEquals( 7, stats.getQueueDepth() );
+        assertEquals( 1, stats.getRunning() );
+        assertEquals( mapOf( "batch", 4, "user", 3 ), stats.getQueueDepthByTenant() );
+
+        blocker.complete( "blocker" );
+
+        // priority first, then the tenants alternate
+        assertIterableEquals( listOf( "i1", "b1", "u1", "b2", "u2", "b3", "b4" ), started );
+        assertTrue( results.stream().allMatch( CompletableFuture::isDone ) );
+
+        stats = scheduler.stats();
+        assertEquals( 0, stats.getQueueDepth() );
+        assertEquals( 8, stats.getCompletedCount() );
+
+        // graph runs
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addEdge(START, "A")
+                .addEdge("A", END);
+        var state = scheduler.submit( "user", GraphRunScheduler.INTERACTIVE_PRIORITY, workflow.compile(), mapOf(), RunnableConfig.builder().build() );
+        assertIterableEquals( listOf( "A" ), state.get( 5, TimeUnit.SECONDS ).messages() );
+
+        // shedding
+        var shedding = GraphRunScheduler.builder()
+                .maxConcurrentRuns(1)
+                .highWaterMark(2)
+                .executor( Runnable::run )
+                .build();
+        var busy = new CompletableFuture<String>();
+        shedding.submit( "batch", GraphRunScheduler.BATCH_PRIORITY, () -> busy );
+        var queued1 = shedding.submit( "batch", GraphRunScheduler.BATCH_PRIORITY, run.apply( "q1" ) );
+        var queued2 = shedding.submit( "batch", GraphRunScheduler.BATCH_PRIORITY, run.apply( "q2" ) );
+
+        var rejected = shedding.submit( "batch", GraphRunScheduler.BATCH_PRIORITY, run.apply( "q3" ) );
+        var exception = assertThrows( ExecutionException.class, rejected::get );
+        assertInstanceOf( RejectedExecutionException.class, exception.getCause() );
+
+        // a run with a higher priority evicts the latest low priority run
+        var interactive = shedding.submit( "user", GraphRunScheduler.INTERACTIVE_PRIORITY, run.apply( "i2" ) );
+        assertTrue( queued2.isCompletedExceptionally() );
+        assertFalse( queued1.isDone() );
+        assertEquals( 2, shedding.stats().getShedCount() );
+
+        busy.complete( "busy" );
+        assertEquals( "i2", interactive.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( "q1", queued1.get( 5, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    void testPendingWrites() throws Exception {
+
+        var executions = new ConcurrentHashMap<String, AtomicInteger>();
+        var crash = new AtomicBoolean( true );
+        Function<String, AsyncNodeAction<MessagesState>> node = id -> node_async( state -> {
+            executions.computeIfAbsent( id, k -> new AtomicInteger() ).incrementAndGet();
+            if( id.equals("C") && crash.getAndSet( false ) ) {
+                throw new IllegalStateException("crash");
+            }
+            return mapOf("messages", id);
+        });
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node.apply("A"))
+                .addNode("B", node.apply("B"))
+                .addNode("C", node.apply("C"))
+                .addEdge(START, "A")
+                .addEdge("A", "B")
+                .addEdge("B", "C")
+                .addEdge("C", END);
+
+        var saver = new MemorySaver();
+        var app = workflow.compile( CompileConfig.builder()
+                .checkpointSaver( saver )
+                .durability( Durability.EXIT )
+                .build() );
+        var config = RunnableConfig.builder().threadId("crash").build();
+
+        assertThrows( IllegalStateException.class, () -> app.invoke( mapOf(), config ) );
+
+        // only the start has been checkpointed, the completions of A and B are in the log
+        var checkpoint = saver.get( config ).orElseThrow( IllegalStateException::new );
+        assertEquals( START, checkpoint.getNodeId() );
+        var writes = saver.getWrites( config, checkpoint.getId() );
+        assertIterableEquals( listOf( checkpoint.getId() + "/0/A", checkpoint.getId() + "/1/B" ),
+                writes.stream().map( PendingWrite::getKey ).collect(Collectors.toList()) );
+
+        var result = app.invoke( null, config ).orElseThrow( IllegalStateException::new );
+        assertIterableEquals( listOf( "A", "B", "C" ), result.messages() );
+        assertEquals( 1, executions.get("A").get() );
+        assertEquals( 1, executions.get("B").get() );
+        assertEquals( 2, executions.get("C").get() );
+
+        // the writes are discarded by the next checkpoint
+        var last = saver.get( config ).orElseThrow( IllegalStateException::new );
+        assertTrue( saver.getWrites( config, last.getId() ).isEmpty() );
+        assertTrue( saver.getWrites( config, checkpoint.getId() ).isEmpty() );
+    }
+
+    @Test
+    void testGraphListener() throws Exception {
+
+        var events = Collections.synchronizedList( new ArrayList<String>() );
+        var nodeDurations = new ConcurrentHashMap<String, Long>();
+
+        GraphListener recorder = new GraphListener() {
+            @Override
+            public void onRunStart( RunnableConfig config, String nodeId ) {
+                events.add( "start:" + nodeId );
+            }
+            @Override
+            public void onRunEnd( RunnableConfig config, long durationNanos, int steps, Throwable error ) {
+                events.add( "end:" + ( error == null ) );
+            }
+            @Override
+            public void onNodeStart( RunnableConfig config, String nodeId ) {
+                events.add( "before:" + nodeId );
+            }
+            @Override
+            public void onNodeEnd( RunnableConfig config, String nodeId, long durationNanos, int partialStateSize, Throwable error ) {
+                events.add( "after:" + nodeId + ":" + partialStateSize );
+                nodeDurations.put( nodeId, durationNanos );
+            }
+            @Override
+            public void onEdge( RunnableConfig config, String sourceId, String targetId, boolean conditional, long durationNanos ) {
+                events.add( "edge:" + sourceId + "->" + targetId );
+            }
+            @Override
+            public void onCheckpoint( RunnableConfig config, Checkpoint checkpoint, long latencyNanos ) {
+                events.add( "checkpoint:" + checkpoint.getNodeId() );
+            }
+            @Override
+            public void onInterrupt( RunnableConfig config, String nodeId, boolean before ) {
+                events.add( "interrupt:" + nodeId + ":" + before );
+            }
+        };
+        // a failing listener doesn't affect the run nor the other listeners
+        GraphListener failing = new GraphListener() {
+            @Override
+            public void onNodeStart( RunnableConfig config, String nodeId ) {
+                throw new IllegalStateException("listener failure");
+            }
+        };
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> {
+                    Thread.sleep( 10 );
+                    return mapOf("messages", "A", "steps", 1);
+                }))
+                .addNode("B", node_async( state -> mapOf("messages", "B")))
+                .addEdge(START, "A")
+                .addConditionalEdges("A", edge_async( state -> "next" ), mapOf( "next", "B" ))
+                .addEdge("B", END);
+
+        var app = workflow.compile( CompileConfig.builder()
+                .checkpointSaver( new MemorySaver() )
+                .listener( failing )
+                .listener( recorder )
+                .build() );
+
+        assertIterableEquals( listOf( "A", "B" ), app.invoke( mapOf() ).orElseThrow( IllegalStateException::new ).messages() );
+        assertIterableEquals( listOf(
+                "start:" + START,
+                "edge:" + START + "->A",
+                "checkpoint:" + START,
+                "before:A", "after:A:2",
+                "edge:A->B",
+                "checkpoint:A",
+                "before:B", "after:B:1",
+                "edge:B->" + END,
+                "checkpoint:B",
+                "end:true" ), events );
+        assertTrue( nodeDurations.get("A") >= TimeUnit.MILLISECONDS.toNanos(10) );
+
+        // interruptions
+        events.clear();
+        var interrupted = workflow.compile( CompileConfig.builder()
+                .checkpointSaver( new MemorySaver() )
+                .interruptBefore( "B" )
+                .listener( recorder )
+                .build() );
+        interrupted.invoke( mapOf() );
+        assertTrue( events.contains( "interrupt:B:true" ) );
+        assertEquals( "end:true", events.get( events.size() - 1 ) );
+    }
+
+    @Test
+    void testGraphMetrics() throws Exception {
+
+        // the histogram quantiles have a bounded relative error
+        var histogram = new Histogram();
+        for( long i = 1; i <= 10_000; ++i ) {
+            histogram.record( i * 1_000 );
+        }
+        var values = histogram.snapshot();
+        assertEquals( 10_000, values.getCount() );
+        assertEquals( 10_000_000, values.getMax() );
+        assertEquals( 5_000_000, values.getP50(), 5_000_000 * 0.04 );
+        assertEquals( 9_900_000, values.getP99(), 9_900_000 * 0.04 );
+
+        var registry = new GraphMetricsRegistry();
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("A", node_async( state -> mapOf("messages", "A")))
+                .addNode("B", node_async( state -> mapOf("messages", "B")))
+                .addNode("C", node_async( state -> mapOf("messages", "C")))
+                .addEdge(START, "A")
+                .addConditionalEdges("A",
+                        edge_async( state -> state.messages().size() > 1 ? "c" : "b" ),
+                        mapOf( "b", "B", "c", "C" ))
+                .addEdge("B", END)
+                .addEdge("C", END);
+
+        var app = workflow.compile( CompileConfig.builder()
+                .checkpointSaver( new MemorySaver() )
+                .listener( registry.metrics("agent") )
+                .build() );
+
+        app.invoke( mapOf(), RunnableConfig.builder().threadId("1").build() );
+        app.invoke( mapOf(), RunnableConfig.builder().threadId("2").build() );
+        app.invoke( mapOf( "messages", "input" ), RunnableConfig.builder().threadId("3").build() );
+
+        var snapshot = registry.metrics("agent").snapshot();
+        assertEquals( 0, snapshot.getRunsInFlight() );
+        assertEquals( 3, snapshot.getRunCount() );
+        assertEquals( 0, snapshot.getRunFailureCount() );
+        assertEquals( 3, snapshot.getRunDurations().getCount() );
+        assertEquals( 3, snapshot.getRunSteps().getCount() );
+        assertEquals( 9, snapshot.getCheckpointDurations().getCount() );
+        assertEquals( 3, snapshot.getNodeDurations().get("A").getCount() );
+        assertEquals( 2, snapshot.getNodeDurations().get("B").getCount() );
+        assertEquals( 1, snapshot.getNodeDurations().get("C").getCount() );
+        assertEquals( mapOf( "B", 2L, "C", 1L ), snapshot.getRoutes().get("A") );
+        // fixed transitions are not routes
+        assertIterableEquals( listOf( "A" ), snapshot.getRoutes().keySet() );
+
+        // failures and maximum number of iterations
+        var loop = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("L", node_async( state -> mapOf("messages", "L")))
+                .addNode("F", node_async( state -> { throw new IllegalStateException("node failure"); }))
+                .addEdge(START, "L")
+                .addConditionalEdges("L",
+                        edge_async( state -> state.messages().contains("fail") ? "fail" : "loop" ),
+                        mapOf( "loop", "L", "fail", "F" ))
+                .addEdge("F", END)
+                .compile( CompileConfig.builder()
+                        .maxIterations( "L", 3 )
+                        .listener( registry.metrics("loop") )
+                        .build() );
+        loop.invoke( mapOf() );
+        assertThrows( Exception.class, () -> loop.invoke( mapOf( "messages", "fail" ) ) );
+
+        var loopSnapshot = registry.metrics("loop").snapshot();
+        assertEquals( 2, loopSnapshot.getRunCount() );
+        assertEquals( 1, loopSnapshot.getRunFailureCount() );
+        assertEquals( 1, loopSnapshot.getMaxIterationHits() );
+        assertEquals( 1L, loopSnapshot.getNodeFailures().get("F") );
+
+        // retried attempts
+        var attempts = new AtomicInteger();
+        var retried = new StateGraph<>( MessagesState.SCHEMA, MessagesState::new)
+                .addNode("R", node_async( state -> {
+                    if( attempts.incrementAndGet() < 3 ) {
+                        throw new IllegalStateException("transient failure");
+                    }
+                    return mapOf("messages", "R");
+                }), RetryPolicy.builder().initialInterval( Duration.ofMillis(1) ).jitter(0).build() )
+                .addEdge(START, "R")
+                .addEdge("R", END)
+                .compile( CompileConfig.builder().listener( registry.metrics("retry") ).build() );
+        retried.invoke( mapOf() );
+
+        var retrySnapshot = registry.metrics("retry").snapshot();
+        assertEquals( mapOf( "R", 2L ), retrySnapshot.getNodeRetries() );
+        assertNull( retrySnapshot.getNodeFailures().get("R") );
+
+        var prometheus = registry.toPrometheus();
+        assertEquals( 1, prometheus.split( "# TYPE langgraph4j_runs_total counter\n", -1 ).length - 1 );
+        assertTrue( prometheus.contains( "langgraph4j_runs_total{graph=\"agent\"} 3\n" ) );
+        assertTrue( prometheus.contains( "langgraph4j_runs_total{graph=\"loop\"} 2\n" ) );
+        assertTrue( prometheus.contains( "langgraph4j_node_duration_seconds_count{graph=\"agent\",node=\"B\"} 2\n" ) );
+        assertTrue( prometheus.contains( "langgraph4j_routes_total{graph=\"agent\",source=\"A\",target=\"C\"} 1\n" ) );
+        assertTrue( prometheus.contains( "langgraph4j_node_failures_total{graph=\"loop\",node=\"F\"} 1\n" ) );
+        assertTrue( prometheus.contains( "langgraph4j_node_retries_total{graph=\"retry\",node=\"R\"} 2\n" ) );
+
+        var json = registry.toJson();
+        assertTrue( json.startsWith( "[{\"graph\":\"agent\"," ) );
+        assertTrue( json.contains( "\"routes\":{\"A\":{\"B\":2,\"C\":1}}}" ) );
+        assertTrue( json.contains( "\"nodeRetries\":{\"R\":2}," ) );
+    }
+
+    @Test
+    void testSyntheticLoad() throws Exception {
+
+        var generator = SyntheticGraphGenerator.builder()
+                .nodes( 20 )
+                .fanOut( 3 )
+                .conditionalRatio( 0.5 )
+                .loopRatio( 0.2 )
+                .latency( Duration.ofMillis(1), Duration.ofMillis(5) )
+                .payloadSize( 1024 )
+                .seed( 42 )
+                .build();
+
+        // a run is reproducible: the routes depend on the run number only
+        var graph = generator.compile( CompileConfig.builder().build() );
+        var first = graph.invoke( mapOf( SyntheticGraphGenerator.RUN, 7 ) ).orElseThrow( IllegalStateException::new );
+        var second = graph.invoke( mapOf( SyntheticGraphGenerator.RUN, 7 ) ).orElseThrow( IllegalStateException::new );
+        assertEquals( first.data().keySet(), second.data().keySet() );
+        assertEquals( first.<Integer>value( SyntheticGraphGenerator.HOPS ), second.<Integer>value( SyntheticGraphGenerator.HOPS ) );
+        assertTrue( first.<Integer>value( SyntheticGraphGenerator.HOPS, 0 ) > 0 );
+
+        var report = LoadHarness.builder()
+                .targetRps( 100 )
+                .duration( Duration.ofSeconds(1) )
+                .drainTimeout( Duration.ofSeconds(10) )
+                .build()
+                .run( graph, run -> mapOf( SyntheticGraphGenerator.RUN, run ) );
+
+        log.info( "synthetic load: {}", report );
+        assertEquals( 100, report.getStarted() );
+        assertEquals( 100, report.getCompleted() );
+        assertEquals( 0, report.getFailed() );
+        assertEquals( 100, report.getLatencies().getCount() );
+        // every run executes at least one node
+        assertTrue( report.getLatencies().getP50() >= TimeUnit.MILLISECONDS.toNanos(1) );
+        assertTrue( report.throughput() > 0 );
+        assertTrue( report.getPeakHeapBytes() > 0 );
+
+        // parallel and send fan-outs
+        var fanOut = SyntheticGraphGenerator.builder()
+                .nodes( 20 )
+                .fanOut( 3 )
+                .parallelRatio( 0.2 )
+                .sendRatio( 0.2 )
+                .latency( Duration.ofMillis(1), Duration.ofMillis(2) )
+                .seed( 42 )
+                .build();
+
+        var fanOutWorkflow = fanOut.generate();
+        assertTrue( fanOutWorkflow.nodes.stream().anyMatch( n -> n.id().endsWith("_b0") ) );
+        assertTrue( fanOutWorkflow.nodes.stream().anyMatch( n -> n.id().endsWith("_w") ) );
+
+        var fanOutGraph = fanOut.compile( CompileConfig.builder().build() );
+        var fanOutState = fanOutGraph.invoke( mapOf( SyntheticGraphGenerator.RUN, 7 ) ).orElseThrow( IllegalStateException::new );
+        assertTrue( fanOutState.data().keySet().stream().anyMatch( key -> key.contains("_b") || key.endsWith("_w") ) );
+
+        var fanOutReport = LoadHarness.builder()
+                .targetRps( 50 )
+                .duration( Duration.ofSeconds(1) )
+                .drainTimeout( Duration.ofSeconds(10) )
+                .build()
+                .run( fanOutGraph, run -> mapOf( SyntheticGraphGenerator.RUN, run ) );
+
+        log.info( "synthetic fan-out load: {}", fanOutReport );
+        assertEquals( 50, fanOutReport.getCompleted() );
+        assertEquals( 0, fanOutReport.getFailed() );
+    }
+
+    @Test
+    void testFlightEventsDisabled() {
+        // the tests run on the compiled classes, not on the multi-release jar, so the JDK 8 variant is loaded
+        assertSame( FlightEvent.DISABLED, FlightEvents.nodeExecution( "thread", "node" ) );
+        assertSame( FlightEvent.DISABLED, FlightEvents.edgeEvaluation( "thread", "node" ) );
+        assertSame( FlightEvent.DISABLED, FlightEvents.stateClone( "thread" ) );
+        assertSame( FlightEvent.DISABLED, FlightEvents.stateWrite() );
+        assertSame( FlightEvent.DISABLED, FlightEvents.stateRead() );
+        assertSame( FlightEvent.DISABLED, FlightEvents.checkpointPut( "thread", "node" ) );
+        // a disabled event is a no-op
+        FlightEvent.DISABLED.size( 1 ).target( "node" ).failure( new IllegalStateException() ).commit();
+    }
 }
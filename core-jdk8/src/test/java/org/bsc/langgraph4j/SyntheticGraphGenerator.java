@@ -0,0 +1,308 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.AsyncEdgeAction;
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.bsc.langgraph4j.action.AsyncSendAction.send_async;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+
+/**
+ * Generates random graphs standing for agents, to load the engine without any model or network.
+ * <p>
+ * The nodes {@code n0 ... nN} are ordered: each node is followed by a plain edge to the next one or by a conditional
+ * edge choosing among up to {@code fanOut} following nodes and, possibly, a loop back to a previous node.
+ * The routes depend on the run, given by the {@link #RUN} input, and on the number of executed nodes, so a run
+ * is reproducible. Loops are taken only while a run has executed fewer than twice as many nodes as the graph has,
+ * so every run reaches {@link StateGraph#END}.
+ * <p>
+ * A node may also fan out to the next one: through a parallel edge to {@code fanOut} branch nodes
+ * {@code nI_b0 ... nI_bK}, or through a send edge invoking a worker node {@code nI_w} once for each of {@code fanOut}
+ * work items. Both the branches and the worker are followed by a plain edge to the next node.
+ * <p>
+ * A node simulates a model call: it completes after a random latency, measured by a timer so that no thread
+ * is blocked, and returns a new payload of the configured size under its own key.
+ */
+public class SyntheticGraphGenerator {
+
+    /**
+     * The input key of the run number, selecting the routes of the run.
+     */
+    public static final String RUN = "run";
+    /**
+     * The state key of the number of executed nodes.
+     */
+    public static final String HOPS = "hops";
+    /**
+     * The payload key of the number of a send work item.
+     */
+    public static final String ITEM = "item";
+
+    private int nodes = 10;
+    private int fanOut = 2;
+    private double conditionalRatio = 0.5;
+    private double loopRatio = 0.1;
+    private double parallelRatio = 0.0;
+    private double sendRatio = 0.0;
+    private Duration minLatency = Duration.ZERO;
+    private Duration maxLatency = Duration.ZERO;
+    private int payloadSize = 0;
+    private long seed = 0L;
+
+    /**
+     * Generates the graph.
+     *
+     * @return the generated graph
+     * @throws GraphStateException if the generated graph is invalid
+     */
+    public StateGraph<AgentState> generate() throws GraphStateException {
+        final Random random = new Random( seed );
+        final StateGraph<AgentState> workflow = new StateGraph<>( AgentState::new );
+
+        for( int i = 0; i < nodes; ++i ) {
+            workflow.addNode( node(i), action( node(i) ) );
+        }
+        workflow.addEdge( START, node(0) );
+
+        for( int i = 0; i < nodes; ++i ) {
+            final String next = ( i + 1 < nodes ) ? node( i + 1 ) : END;
+            // drawn only if enabled, so that the graphs generated without fan-outs don't change
+            final double fan = ( parallelRatio + sendRatio > 0 ) ? random.nextDouble() : 1.0;
+            if( i + 1 < nodes && fan < parallelRatio ) {
+                for( int branch = 0; branch < fanOut; ++branch ) {
+                    final String branchId = node(i) + "_b" + branch;
+                    workflow.addNode( branchId, action( branchId ) );
+                    workflow.addEdge( node(i), branchId );
+                    workflow.addEdge( branchId, next );
+                }
+                continue;
+            }
+            if( i + 1 < nodes && fan < parallelRatio + sendRatio ) {
+                final String workerId = node(i) + "_w";
+                workflow.addNode( workerId, action( workerId ) );
+                workflow.addSendEdge( node(i), workerId, send_async( state -> {
+                    final List<Map<String,Object>> items = new ArrayList<>( fanOut );
+                    for( int item = 0; item < fanOut; ++item ) {
+                        items.add( Collections.singletonMap( ITEM, item ) );
+                    }
+                    return items;
+                }));
+                workflow.addEdge( workerId, next );
+                continue;
+            }
+            final boolean loop = random.nextDouble() < loopRatio;
+            if( !loop && ( i + 1 == nodes || random.nextDouble() >= conditionalRatio ) ) {
+                workflow.addEdge( node(i), next );
+                continue;
+            }
+            // the next node is always a candidate, so that all the nodes are reachable
+            final List<String> forward = new ArrayList<>();
+            forward.add( next );
+            for( int candidate = 1; candidate < fanOut && i + 1 + candidate <= nodes; ++candidate ) {
+                final int target = i + 2 + random.nextInt( nodes - i - 1 );
+                final String targetId = ( target < nodes ) ? node(target) : END;
+                if( !forward.contains( targetId ) ) {
+                    forward.add( targetId );
+                }
+            }
+            final Map<String,String> mappings = new HashMap<>();
+            for( int route = 0; route < forward.size(); ++route ) {
+                mappings.put( "forward" + route, forward.get(route) );
+            }
+            if( loop ) {
+                mappings.put( "loop", node( random.nextInt( i + 1 ) ) );
+            }
+            workflow.addConditionalEdges( node(i), condition( forward.size(), loop ), mappings );
+        }
+        return workflow;
+    }
+
+    /**
+     * Generates and compiles the graph, allowing as many iterations as the loops may take.
+     *
+     * @param config the compile configuration
+     * @return the compiled graph
+     * @throws GraphStateException if the generated graph is invalid
+     */
+    public CompiledGraph<AgentState> compile( CompileConfig config ) throws GraphStateException {
+        final CompiledGraph<AgentState> graph = generate().compile( config );
+        // a fan-out executes its branches in a step of its own
+        graph.setMaxIterations( 2 * ( loopBudget() + nodes ) + 1 );
+        return graph;
+    }
+
+    private int loopBudget() {
+        return 2 * nodes;
+    }
+
+    private static String node( int index ) {
+        return "n" + index;
+    }
+
+    private AsyncNodeAction<AgentState> action( String nodeId ) {
+        final long minNanos = minLatency.toNanos();
+        final long maxNanos = maxLatency.toNanos();
+        return state -> {
+            final Map<String,Object> update = new HashMap<>();
+            update.put( HOPS, state.<Integer>value( HOPS, 0 ) + 1 );
+            update.put( nodeId, new byte[payloadSize] );
+
+            final long latency = ( maxNanos > minNanos ) ? ThreadLocalRandom.current().nextLong( minNanos, maxNanos + 1 ) : minNanos;
+            if( latency == 0L ) {
+                return completedFuture( update );
+            }
+            final CompletableFuture<Map<String,Object>> result = new CompletableFuture<>();
+            Deadlines.schedule( () -> result.complete( update ), Duration.ofNanos( latency ) );
+            return result;
+        };
+    }
+
+    private AsyncEdgeAction<AgentState> condition( int forwardRoutes, boolean loop ) {
+        final int loopBudget = loopBudget();
+        return state -> {
+            final int hops = state.<Integer>value( HOPS, 0 );
+            final int route = mix( state.<Integer>value( RUN, 0 ), hops );
+            if( loop && hops < loopBudget && route % 4 == 0 ) {
+                return completedFuture( "loop" );
+            }
+            return completedFuture( "forward" + ( route % forwardRoutes ) );
+        };
+    }
+
+    /**
+     * Hashes the run number and the number of executed nodes to a non-negative integer.
+     */
+    private static int mix( int run, int hops ) {
+        int h = run * 0x9E3779B9 + hops;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h & Integer.MAX_VALUE;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final SyntheticGraphGenerator generator = new SyntheticGraphGenerator();
+
+        /**
+         * Sets the number of nodes. Defaults to 10.
+         *
+         * @param nodes the number of nodes
+         * @return this builder
+         */
+        public Builder nodes(int nodes) {
+            if( nodes <= 0 ) {
+                throw new IllegalArgumentException("nodes must be greater than 0");
+            }
+            this.generator.nodes = nodes;
+            return this;
+        }
+        /**
+         * Sets the maximum number of following nodes a conditional edge chooses among, and the number of branches
+         * or work items of a fan-out. Defaults to 2.
+         *
+         * @param fanOut the maximum number of forward routes of a conditional edge
+         * @return this builder
+         */
+        public Builder fanOut(int fanOut) {
+            if( fanOut <= 0 ) {
+                throw new IllegalArgumentException("fanOut must be greater than 0");
+            }
+            this.generator.fanOut = fanOut;
+            return this;
+        }
+        /**
+         * Sets the probability of a node to be followed by a conditional edge. Defaults to 0.5.
+         *
+         * @param conditionalRatio the probability of a conditional edge
+         * @return this builder
+         */
+        public Builder conditionalRatio(double conditionalRatio) {
+            this.generator.conditionalRatio = conditionalRatio;
+            return this;
+        }
+        /**
+         * Sets the probability of a conditional edge to loop back to a previous node. Defaults to 0.1.
+         *
+         * @param loopRatio the probability of a loop
+         * @return this builder
+         */
+        public Builder loopRatio(double loopRatio) {
+            this.generator.loopRatio = loopRatio;
+            return this;
+        }
+        /**
+         * Sets the probability of a node to fan out through a parallel edge. Defaults to 0.
+         *
+         * @param parallelRatio the probability of a parallel edge
+         * @return this builder
+         */
+        public Builder parallelRatio(double parallelRatio) {
+            this.generator.parallelRatio = parallelRatio;
+            return this;
+        }
+        /**
+         * Sets the probability of a node to fan out through a send edge. Defaults to 0.
+         *
+         * @param sendRatio the probability of a send edge
+         * @return this builder
+         */
+        public Builder sendRatio(double sendRatio) {
+            this.generator.sendRatio = sendRatio;
+            return this;
+        }
+        /**
+         * Sets the range of the latency of the nodes, uniformly distributed. No latency by default.
+         *
+         * @param minLatency the minimum latency
+         * @param maxLatency the maximum latency
+         * @return this builder
+         */
+        public Builder latency(Duration minLatency, Duration maxLatency) {
+            if( minLatency.isNegative() || maxLatency.compareTo( minLatency ) < 0 ) {
+                throw new IllegalArgumentException("latency range is invalid");
+            }
+            this.generator.minLatency = minLatency;
+            this.generator.maxLatency = maxLatency;
+            return this;
+        }
+        /**
+         * Sets the number of bytes returned by each node. Defaults to 0.
+         *
+         * @param payloadSize the payload size in bytes
+         * @return this builder
+         */
+        public Builder payloadSize(int payloadSize) {
+            if( payloadSize < 0 ) {
+                throw new IllegalArgumentException("payloadSize cannot be negative");
+            }
+            this.generator.payloadSize = payloadSize;
+            return this;
+        }
+        /**
+         * Sets the seed of the structure of the graph.
+         *
+         * @param seed the random seed
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.generator.seed = seed;
+            return this;
+        }
+        public SyntheticGraphGenerator build() {
+            return generator;
+        }
+    }
+
+    private SyntheticGraphGenerator() {}
+}
@@ -0,0 +1,87 @@
+package org.bsc.langgraph4j.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.bsc.langgraph4j.CompileConfig;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records a graph run with the flight recorder: run by the failsafe plugin on the packaged jar,
+ * so that the JDK 11+ variant of {@link FlightEvents} is loaded.
+ */
+public class FlightEventsIT {
+
+    private static List<RecordedEvent> events( List<RecordedEvent> events, String... names ) {
+        var types = Arrays.stream( names ).map( name -> "org.bsc.langgraph4j." + name ).collect( Collectors.toSet() );
+        return events.stream()
+                .filter( e -> types.contains( e.getEventType().getName() ) )
+                .collect( Collectors.toList() );
+    }
+
+    @Test
+    void testRecordedEvents() throws Exception {
+        var app = new StateGraph<>( AgentState::new )
+                .addNode("A", node_async( state -> mapOf( "a", "A" ) ))
+                .addNode("B", node_async( state -> mapOf( "b", "B", "c", "C" ) ))
+                .addEdge(START, "A")
+                .addConditionalEdges("A", edge_async( state -> "next" ), mapOf( "next", "B" ) )
+                .addEdge("B", END)
+                .compile( CompileConfig.builder().checkpointSaver( new MemorySaver() ).build() );
+
+        final Path file = Files.createTempFile( "langgraph4j", ".jfr" );
+        final List<RecordedEvent> recorded;
+        try( var recording = new Recording() ) {
+            recording.enable( "org.bsc.langgraph4j.NodeExecution" );
+            recording.enable( "org.bsc.langgraph4j.EdgeEvaluation" );
+            recording.enable( "org.bsc.langgraph4j.CheckpointPut" );
+            recording.start();
+
+            app.invoke( mapOf(), RunnableConfig.builder().threadId("jfr-run").build() );
+
+            recording.stop();
+            recording.dump( file );
+            recorded = RecordingFile.readAllEvents( file );
+        }
+        finally {
+            Files.deleteIfExists( file );
+        }
+
+        var nodes = events( recorded, "NodeExecution" );
+        assertEquals( List.of( "A", "B" ), nodes.stream().map( e -> e.getString("nodeId") ).collect( Collectors.toList() ) );
+        assertEquals( List.of( 1L, 2L ), nodes.stream().map( e -> e.getLong("partialStateSize") ).collect( Collectors.toList() ) );
+        nodes.forEach( e -> assertNull( e.getString("failure") ) );
+
+        var edges = events( recorded, "EdgeEvaluation" );
+        assertEquals( List.of( START + "->A", "A->B", "B->" + END ),
+                edges.stream().map( e -> e.getString("sourceId") + "->" + e.getString("targetId") ).collect( Collectors.toList() ) );
+
+        var checkpoints = events( recorded, "CheckpointPut" );
+        var checkpointSizes = checkpoints.stream()
+                .collect( Collectors.toMap( e -> e.getString("nodeId"), e -> e.getLong("stateSize") ) );
+        assertEquals( 1L, checkpointSizes.get("A") );
+        assertEquals( 3L, checkpointSizes.get("B") );
+        checkpoints.forEach( e -> assertNull( e.getString("failure") ) );
+
+        for( RecordedEvent e : events( recorded, "NodeExecution", "EdgeEvaluation", "CheckpointPut" ) ) {
+            assertEquals( "jfr-run", e.getString("runThreadId") );
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.bsc.langgraph4j;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +25,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 
@@ -48,6 +51,7 @@ public interface LangGraphStreamingServer {
         private Map<String, ArgumentMetadata> inputArgs = new HashMap<>();
         private String title = null;
         private ObjectMapper objectMapper;
+        private GraphRunScheduler runScheduler;
 
         public Builder port(int port) {
             this.port = port;
@@ -59,6 +63,18 @@ public interface LangGraphStreamingServer {
             return this;
         }
 
+        /**
+         * Schedules the runs of the graph with the given scheduler, as interactive runs of the tenant
+         * given by the {@code X-Tenant-Id} request header.
+         *
+         * @param runScheduler the run scheduler, possibly shared with batch jobs
+         * @return this builder
+         */
+        public Builder runScheduler(GraphRunScheduler runScheduler) {
+            this.runScheduler = runScheduler;
+            return this;
+        }
+
         public Builder title(String title) {
             this.title = title;
             return this;
@@ -98,7 +114,7 @@ public interface LangGraphStreamingServer {
             }
             // context.setContextPath("/");
             // Add the streaming servlet
-            context.addServlet(new ServletHolder(new GraphExecutionServlet<State>(compiledGraph, objectMapper)), "/stream");
+            context.addServlet(new ServletHolder(new GraphExecutionServlet<State>(compiledGraph, objectMapper, runScheduler)), "/stream");
 
             InitData initData = new InitData(title, inputArgs);
             context.addServlet(new ServletHolder(new GraphInitServlet<State>(compiledGraph, initData)), "/init");
@@ -129,11 +145,13 @@ public interface LangGraphStreamingServer {
 class GraphExecutionServlet<State extends AgentState> extends HttpServlet {
     final CompiledGraph<State> compiledGraph;
     final ObjectMapper objectMapper;
+    final GraphRunScheduler runScheduler;
 
-    public GraphExecutionServlet(CompiledGraph<State> compiledGraph, ObjectMapper objectMapper) {
+    public GraphExecutionServlet(CompiledGraph<State> compiledGraph, ObjectMapper objectMapper, GraphRunScheduler runScheduler) {
         Objects.requireNonNull(compiledGraph, "compiledGraph cannot be null");
         this.compiledGraph = compiledGraph;
         this.objectMapper = objectMapper;
+        this.runScheduler = runScheduler;
     }
 
     @Override
@@ -150,13 +168,58 @@ class GraphExecutionServlet<State extends AgentState> extends HttpServlet {
         // Start asynchronous processing
         var asyncContext = request.startAsync();
 
+        if (runScheduler == null) {
+            streamRun(dataMap, writer, asyncContext, true)
+                    .exceptionally(ex -> failed(ex, response, writer, asyncContext));
+            return;
+        }
+
+        var tenantId = Objects.requireNonNullElse(request.getHeader("X-Tenant-Id"), "default");
+
+        // a scheduled run holds an admission slot until it completes, so its outputs are not paced
+        runScheduler.submit(tenantId, GraphRunScheduler.INTERACTIVE_PRIORITY, () -> streamRun(dataMap, writer, asyncContext, false))
+                .exceptionally(ex -> failed(ex, response, writer, asyncContext));
+    }
+
+    /**
+     * Completes the request of a failed or shed run, so the client doesn't wait for the async timeout.
+     */
+    private Void failed(Throwable ex, HttpServletResponse response, PrintWriter writer, AsyncContext asyncContext) {
+        var cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        if (!response.isCommitted()) {
+            response.setStatus(cause instanceof RejectedExecutionException ?
+                    HttpServletResponse.SC_SERVICE_UNAVAILABLE :
+                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+        if (!(cause instanceof RejectedExecutionException)) {
+            LangGraphStreamingServer.log.error("error streaming graph run", cause);
+        }
+        writer.close();
+        asyncContext.complete();
+        return null;
+    }
+
+    private CompletableFuture<Void> streamRun(Map<String, Object> dataMap, PrintWriter writer, AsyncContext asyncContext, boolean paced) {
         try {
-            compiledGraph.stream(dataMap)
+            return compiledGraph.stream(dataMap)
                     .forEachAsync(s -> {
                         try {
 
                             writer.print("{");
                             writer.printf("\"node\": \"%s\"", s.node());
+                            if (s instanceof StreamingOutput<State> streaming) {
+                                // a chunk carries the input state of its node, only its text is written
+                                try {
+                                    writer.printf(",\"chunk\": %s", objectMapper.writeValueAsString(streaming.chunk()));
+                                } catch (IOException e) {
+                                    LangGraphStreamingServer.log.info("error serializing chunk", e);
+                                    writer.printf(",\"chunk\": \"\"");
+                                }
+                                writer.printf(",\"attempt\": %d", streaming.attempt());
+                                writer.print("}");
+                                writer.flush();
+                                return;
+                            }
                             try {
                                 var stateAsString = objectMapper.writeValueAsString(s.state().data());
                                 writer.printf(",\"state\": %s", stateAsString);
@@ -166,7 +229,9 @@ class GraphExecutionServlet<State extends AgentState> extends HttpServlet {
                             }
                             writer.print("}");
                             writer.flush();
-                            TimeUnit.SECONDS.sleep(1);
+                            if (paced) {
+                                TimeUnit.SECONDS.sleep(1);
+                            }
                         } catch (InterruptedException e) {
                             throw new RuntimeException(e);
                         }
@@ -177,7 +242,7 @@ class GraphExecutionServlet<State extends AgentState> extends HttpServlet {
             ;
 
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            return CompletableFuture.failedFuture(e);
         }
     }
 }